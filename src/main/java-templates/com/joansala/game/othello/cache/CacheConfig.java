@@ -0,0 +1,39 @@
+package com.joansala.game.othello.cache;
+
+/*
+ * Aalina engine.
+ * Copyright (C) 2021-2024 Joan Sala Soler <contact@joansala.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+/**
+ * Build configuration of the transpositions table files.
+ *
+ * This source is filtered by Maven. Saved tables record the version
+ * of the engine that wrote them and are only restored by the same
+ * version, since evaluations may differ between versions.
+ */
+public final class CacheConfig {
+
+    /** Version of the engine that writes the tables */
+    public static final String ENGINE_VERSION = "${project.version}";
+
+
+    /**
+     * This class cannot be instantiated.
+     */
+    private CacheConfig() {}
+}
@@ -0,0 +1,39 @@
+package com.joansala.game.othello.stats;
+
+/*
+ * Aalina engine.
+ * Copyright (C) 2021-2024 Joan Sala Soler <contact@joansala.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+/**
+ * Build configuration of the search statistics.
+ *
+ * This source is filtered by Maven. Statistics are only enabled when
+ * building with the {@code statistics} profile, otherwise the constant
+ * is false and the compiler removes all the instrumentation code.
+ */
+public final class StatsConfig {
+
+    /** Whether search statistics are collected */
+    public static final boolean ENABLED = ${othello.statistics};
+
+
+    /**
+     * This class cannot be instantiated.
+     */
+    private StatsConfig() {}
+}
@@ -0,0 +1,133 @@
+package com.joansala.game.othello;
+
+/*
+ * Aalina engine.
+ * Copyright (C) 2021-2024 Joan Sala Soler <contact@joansala.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import java.io.IOException;
+import java.util.function.Supplier;
+import com.joansala.engine.Game;
+import com.joansala.engine.Roots;
+import static com.joansala.engine.Game.*;
+
+
+/**
+ * Opening book that is loaded on a background thread.
+ *
+ * Opening a large book takes long enough to delay the engine startup,
+ * so the book is loaded on a daemon thread while the engine is already
+ * answering. Until the book is available no moves are found on it and
+ * the engine searches instead; from then on, all the probes are made on
+ * the loaded book. A single instance is shared by all the engines, so
+ * probes are synchronized and the engines share the match state.
+ */
+public final class BackgroundRoots implements Roots<Game> {
+
+    /** Loaded book or {@code null} if it is not available yet */
+    private volatile Roots<Game> roots = null;
+
+    /** Thread loading the book */
+    private final Thread loader;
+
+    /** Whether the loaded book was notified of the current match */
+    private boolean started = false;
+
+
+    /**
+     * Starts loading a book.
+     *
+     * @param supplier      Opens the book or returns {@code null}
+     *                      if it cannot be opened
+     */
+    public BackgroundRoots(Supplier<Roots<Game>> supplier) {
+        loader = new Thread(() -> roots = supplier.get(), "roots-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+
+    /**
+     * Checks if the book was loaded.
+     *
+     * @return      If probes are made on the book
+     */
+    public boolean isLoaded() {
+        return roots != null;
+    }
+
+
+    /**
+     * Waits for the book to be loaded.
+     */
+    public void await() throws InterruptedException {
+        loader.join();
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized int pickBestMove(Game game) throws IOException {
+        final Roots<Game> book = roots;
+
+        if (book == null) {
+            return NULL_MOVE;
+        }
+
+        if (started == false) {
+            book.newMatch();
+            started = true;
+        }
+
+        return book.pickBestMove(game);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void newMatch() {
+        final Roots<Game> book = roots;
+
+        if (book != null) {
+            book.newMatch();
+        }
+
+        started = (book != null);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            loader.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        final Roots<Game> book = roots;
+
+        if (book != null) {
+            book.close();
+        }
+    }
+}
@@ -107,7 +107,7 @@ public final class Othello {
     // -------------------------------------------------------------------
 
     /** Zobrist hashing random seed */
-    static final long RANDOM_SEED =
+    public static final long RANDOM_SEED =
         0x6622E46E1DB096FAL;
 
     /** Zobrist keys for the player to move */
@@ -123,6 +123,13 @@ public final class Othello {
     /** Score of a single stone */
     public static final int STONE_SCORE = 2;
 
+    // -------------------------------------------------------------------
+    // Search limits
+    // -------------------------------------------------------------------
+
+    /** Move time of searches limited only by depth (milliseconds) */
+    public static final long UNLIMITED_TIME = Long.MAX_VALUE >> 24;
+
     // -------------------------------------------------------------------
     // Openings book
     // -------------------------------------------------------------------
@@ -167,6 +174,14 @@ public final class Othello {
        56, 57, 58, 59, 60, 61, 62, 63
     };
 
+    /** Bitboards of the four board quadrants */
+    static final long[] QUADRANTS = {
+        0x000000000F0F0F0FL,
+        0x00000000F0F0F0F0L,
+        0x0F0F0F0F00000000L,
+        0xF0F0F0F000000000L
+    };
+
     /** Start position bitboards */
     static final long[] START_POSITION = {
         0x0000001008000000L, // South pieces
@@ -71,6 +71,18 @@ public class OthelloBoard extends BaseBoard<long[]> {
     }
 
 
+    /**
+     * Creates a new board instance from its bitboards.
+     *
+     * @param south         South stones bitboard
+     * @param north         North stones bitboard
+     * @param turn          Player to move
+     */
+    public OthelloBoard(long south, long north, int turn) {
+        super(new long[] { south, north }, turn);
+    }
+
+
     /**
      * {@inheritDoc}
      */
@@ -80,6 +92,17 @@ public class OthelloBoard extends BaseBoard<long[]> {
     }
 
 
+    /**
+     * Obtain the bitboard value on the given index without
+     * copying the position array.
+     *
+     * @return      Bitboard value
+     */
+    public final long state(int index) {
+        return position[index];
+    }
+
+
     /**
      * {@inheritDoc}
      */
@@ -0,0 +1,156 @@
+package com.joansala.game.othello;
+
+/*
+ * Aalina engine.
+ * Copyright (C) 2021-2024 Joan Sala Soler <contact@joansala.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import static com.joansala.util.bits.Bits.*;
+import static com.joansala.game.othello.Othello.*;
+import static com.joansala.game.othello.OthelloGame.*;
+
+
+/**
+ * A reusable and mutable view of a position diagram.
+ *
+ * Parses the diagram notation of {@link OthelloBoard} directly into
+ * bitboards, without splitting the notation or building intermediate
+ * arrays. A single instance can be used to parse any number of
+ * diagrams and its parsed bitboards loaded into a game with
+ * {@link OthelloGame#setPosition(OthelloDiagram)}.
+ */
+public final class OthelloDiagram {
+
+    /** Parsed position bitboards */
+    private final long[] position;
+
+    /** Parsed player to move */
+    private int turn;
+
+
+    /**
+     * Creates a new diagram view for the start position.
+     */
+    public OthelloDiagram() {
+        position = START_POSITION.clone();
+        turn = SOUTH;
+    }
+
+
+    /**
+     * Obtain the parsed bitboard value on the given index.
+     *
+     * @return      Bitboard value
+     */
+    public long state(int index) {
+        return position[index];
+    }
+
+
+    /**
+     * Parsed player to move.
+     *
+     * @return      {@code SOUTH} or {@code NORTH}
+     */
+    public int turn() {
+        return turn;
+    }
+
+
+    /**
+     * Parses a position diagram into this view. Diagrams list the
+     * ranks from the first to the eighth, each from the {@code a}
+     * file to the {@code h} file, followed by the turn symbol.
+     *
+     * @param diagram   Diagram notation
+     * @return          This diagram view
+     *
+     * @throws IllegalArgumentException If the diagram is not valid
+     */
+    public OthelloDiagram parse(CharSequence diagram) {
+        final int length = diagram.length();
+
+        long south = 0x00L;
+        long north = 0x00L;
+        int rank = BOARD_RANKS - 1;
+        int file = 0;
+        int offset = 0;
+
+        while (offset < length) {
+            final char symbol = diagram.charAt(offset++);
+
+            if (symbol == ' ') {
+                break;
+            } else if (symbol == '/') {
+                if (file != BOARD_FILES || rank == 0) {
+                    throw invalid(diagram);
+                }
+
+                file = 0;
+                rank--;
+            } else if (symbol >= '1' && symbol <= '8') {
+                file += symbol - '0';
+            } else if (symbol == PIECES[SOUTH_STONE] && file < BOARD_FILES) {
+                south |= bit(rank * BOARD_FILES + file++);
+            } else if (symbol == PIECES[NORTH_STONE] && file < BOARD_FILES) {
+                north |= bit(rank * BOARD_FILES + file++);
+            } else {
+                throw invalid(diagram);
+            }
+
+            if (file > BOARD_FILES) {
+                throw invalid(diagram);
+            }
+        }
+
+        if (rank != 0 || file != BOARD_FILES || offset >= length) {
+            throw invalid(diagram);
+        }
+
+        this.turn = toTurn(diagram, diagram.charAt(offset));
+        this.position[SOUTH_STONE] = south;
+        this.position[NORTH_STONE] = north;
+
+        return this;
+    }
+
+
+    /**
+     * Creates a new board for the parsed position.
+     */
+    public OthelloBoard toBoard() {
+        return new OthelloBoard(position, turn);
+    }
+
+
+    /**
+     * Converts a player symbol to a turn identifier.
+     */
+    private static int toTurn(CharSequence diagram, char symbol) {
+        if (symbol == SOUTH_SYMBOL) return SOUTH;
+        if (symbol == NORTH_SYMBOL) return NORTH;
+        throw invalid(diagram);
+    }
+
+
+    /**
+     * Exception thrown for a malformed diagram.
+     */
+    private static IllegalArgumentException invalid(CharSequence diagram) {
+        return new IllegalArgumentException(
+            "Not a valid diagram: " + diagram);
+    }
+}
@@ -22,9 +22,12 @@ import com.joansala.engine.Board;
 import com.joansala.engine.Scorer;
 import com.joansala.engine.base.BaseGame;
 import com.joansala.game.othello.scorers.CornersScorer;
+import com.joansala.game.othello.stats.SearchStats;
 import com.joansala.util.hash.ZobristHash;
 import static com.joansala.util.bits.Bits.*;
 import static com.joansala.game.othello.Othello.*;
+import static com.joansala.game.othello.stats.SearchStats.*;
+import static com.joansala.game.othello.stats.StatsConfig.ENABLED;
 
 
 /**
@@ -47,6 +50,12 @@ public class OthelloGame extends BaseGame {
     /** Hash code generator */
     private static final ZobristHash hasher = hashFunction();
 
+    /** Quadrant parity bit of each move */
+    private static final int[] QUADRANT_BITS = quadrantBits();
+
+    /** Heuristic evaluation function of this game */
+    private Scorer<OthelloGame> evaluator = scorer;
+
     /** Start position and turn */
     private OthelloBoard board;
 
@@ -65,12 +74,21 @@ public class OthelloGame extends BaseGame {
     /** Legal moves history */
     private long[] mobilities;
 
+    /** Quadrant parities history */
+    private int[] parities;
+
+    /** Ended game flags history */
+    private boolean[] stagnants;
+
     /** Current position bitboards */
     private long[] state;
 
     /** Bitboard of legal moves */
     private long mobility;
 
+    /** Quadrants with an odd number of empty squares */
+    private int parity;
+
     /** Set when no player can move */
     private boolean stagnant;
 
@@ -83,6 +101,15 @@ public class OthelloGame extends BaseGame {
     /** Current move generation cursor */
     private int cursor;
 
+    /** Search statistics counters */
+    private long[] stats;
+
+    /** Thread that owns the statistics counters */
+    private Thread statsOwner;
+
+    /** Moves made from each ply */
+    private int[] searched;
+
 
     /**
      * Instantiate a new game on the start state.
@@ -93,8 +120,15 @@ public class OthelloGame extends BaseGame {
         cursors = new int[CAPACITY];
         hashes = new long[CAPACITY];
         mobilities = new long[CAPACITY];
+        parities = new int[CAPACITY];
+        stagnants = new boolean[CAPACITY];
         states = new long[CAPACITY << 1];
+        state = new long[PIECE_COUNT];
         setBoard(new OthelloBoard());
+
+        if (ENABLED) {
+            searched = new int[1 + CAPACITY];
+        }
     }
 
 
@@ -106,6 +140,36 @@ public class OthelloGame extends BaseGame {
     }
 
 
+    /**
+     * Sets the heuristic evaluation function of this game.
+     *
+     * @param scorer    Evaluation function
+     */
+    public void setScorer(Scorer<OthelloGame> scorer) {
+        this.evaluator = scorer;
+    }
+
+
+    /**
+     * Heuristic evaluation function of this game.
+     *
+     * @return          Evaluation function
+     */
+    public Scorer<OthelloGame> getScorer() {
+        return evaluator;
+    }
+
+
+    /**
+     * Default heuristic evaluation function.
+     *
+     * @return          Evaluation function
+     */
+    public static Scorer<OthelloGame> defaultScorer() {
+        return scorer;
+    }
+
+
     /**
      * Initialize the hash code generator.
      */
@@ -114,11 +178,34 @@ public class OthelloGame extends BaseGame {
     }
 
 
+    /**
+     * Initialize the quadrant parity bit of each move. Forfeiting
+     * the turn does not change the parity of any quadrant.
+     */
+    private static int[] quadrantBits() {
+        final int[] bits = new int[BOARD_SIZE + 1];
+
+        for (int move = 0; move < BOARD_SIZE; move++) {
+            for (int quadrant = 0; quadrant < QUADRANTS.length; quadrant++) {
+                if (contains(QUADRANTS[quadrant], bit(move))) {
+                    bits[move] = 1 << quadrant;
+                }
+            }
+        }
+
+        return bits;
+    }
+
+
     /**
      * {@inheritDoc}
      */
     @Override
     public Board getBoard() {
+        if (board == null) {
+            board = toStartBoard();
+        }
+
         return board;
     }
 
@@ -136,19 +223,50 @@ public class OthelloGame extends BaseGame {
      * {@see #setBoard(Board)}
      */
     public void setBoard(OthelloBoard board) {
-        this.index = -1;
+        final long south = board.state(SOUTH_STONE);
+        final long north = board.state(NORTH_STONE);
+        setPosition(south, north, board.turn());
         this.board = board;
+    }
+
+
+    /**
+     * Sets a new start position for the game from its bitboards. This
+     * copies the bitboards into the current game state, thus it does
+     * not allocate any memory.
+     *
+     * @param south     South stones bitboard
+     * @param north     North stones bitboard
+     * @param turn      {@code SOUTH} or {@code NORTH}
+     */
+    public void setPosition(long south, long north, int turn) {
+        this.index = -1;
+        this.board = null;
         this.move = NULL_MOVE;
         this.stagnant = false;
-        this.state = board.position();
+        this.state[SOUTH_STONE] = south;
+        this.state[NORTH_STONE] = north;
 
-        setTurn(board.turn());
+        setTurn(turn);
         this.hash = computeHash();
+        this.parity = computeParity();
         computeMobility();
         resetCursor();
     }
 
 
+    /**
+     * Sets a new start position for the game from a parsed diagram.
+     *
+     * @param diagram   Parsed diagram
+     */
+    public void setPosition(OthelloDiagram diagram) {
+        final long south = diagram.state(SOUTH_STONE);
+        final long north = diagram.state(NORTH_STONE);
+        setPosition(south, north, diagram.turn());
+    }
+
+
     /**
      * Sets the current player to move.
      *
@@ -176,6 +294,21 @@ public class OthelloGame extends BaseGame {
     }
 
 
+    /**
+     * Creates a board for the start position of the game, which is
+     * the first position stored on the history if a move was made.
+     */
+    private OthelloBoard toStartBoard() {
+        if (index < 0) {
+            return new OthelloBoard(state, turn);
+        }
+
+        final long south = states[SOUTH_STONE];
+        final long north = states[NORTH_STONE];
+        return new OthelloBoard(south, north, turns[0]);
+    }
+
+
     /**
      * Obtain the current bitboard value on the given index.
      *
@@ -186,6 +319,77 @@ public class OthelloGame extends BaseGame {
     }
 
 
+    /**
+     * Bitboard of legal moves for the player to move.
+     *
+     * @return      Bitboard value
+     */
+    public final long mobility() {
+        return mobility;
+    }
+
+
+    /**
+     * Squares where a player can place a stone.
+     *
+     * @param players   Stones of the player
+     * @param rivals    Stones of the opponent
+     * @return          Bitboard of legal moves
+     */
+    public static long mobility(long players, long rivals) {
+        final long free = ~(players | rivals);
+        long mobility = 0x00L;
+
+        for (int direction = 0; direction < 8; direction++) {
+            final long rays = rays(rivals, players, direction);
+            mobility |= free & shiftd(rays, direction);
+        }
+
+        return mobility;
+    }
+
+
+    /**
+     * Squares adjacent to any square of a bitboard. The frontier
+     * stones of a player are its stones adjacent to empty squares.
+     *
+     * @param bitboard  Bitboard of squares
+     * @return          Bitboard of adjacent squares
+     */
+    public static long neighbours(long bitboard) {
+        long squares = 0x00L;
+
+        for (int direction = 0; direction < 8; direction++) {
+            squares |= shiftd(bitboard, direction);
+        }
+
+        return squares;
+    }
+
+
+    /**
+     * Parities of the empty squares on each board quadrant. Bit
+     * {@code i} is set if quadrant {@code i} has an odd number
+     * of empty squares.
+     *
+     * @return      Four bit parity mask
+     */
+    public final int parity() {
+        return parity;
+    }
+
+
+    /**
+     * Parity bit of the quadrant where a move is played.
+     *
+     * @param move      Move identifier
+     * @return          Quadrant bit or zero for a forfeit
+     */
+    public static int quadrantBit(int move) {
+        return QUADRANT_BITS[move];
+    }
+
+
     /**
      * Current game state reference.
      *
@@ -250,7 +454,11 @@ public class OthelloGame extends BaseGame {
      */
     @Override
     public int score() {
-        return scorer.evaluate(this);
+        if (ENABLED) {
+            stats()[EVALUATIONS]++;
+        }
+
+        return evaluator.evaluate(this);
     }
 
 
@@ -292,8 +500,13 @@ public class OthelloGame extends BaseGame {
      */
     @Override
     public void makeMove(int move) {
+        if (ENABLED) {
+            countNode(move);
+        }
+
         pushState();
         movePieces(move);
+        parity ^= QUADRANT_BITS[move];
         setTurn(-turn);
         computeMobility();
         this.move = move;
@@ -306,6 +519,10 @@ public class OthelloGame extends BaseGame {
      */
     @Override
     public void unmakeMove() {
+        if (ENABLED) {
+            countCutoff();
+        }
+
         popState(index);
         index--;
     }
@@ -345,6 +562,72 @@ public class OthelloGame extends BaseGame {
     }
 
 
+    /**
+     * Statistics counters of the thread that is searching this game.
+     * Games may be created and searched on different threads, so the
+     * counters are looked up again whenever the thread changes.
+     */
+    private long[] stats() {
+        final Thread thread = Thread.currentThread();
+
+        if (thread != statsOwner) {
+            stats = SearchStats.stripe();
+            statsOwner = thread;
+        }
+
+        return stats;
+    }
+
+
+    /**
+     * Updates the statistics counters before a move is made.
+     *
+     * @param move      Move to make
+     */
+    private void countNode(int move) {
+        final int ply = 1 + index;
+
+        final long[] stats = stats();
+
+        searched[ply]++;
+        searched[1 + ply] = 0;
+        stats[NODES]++;
+
+        if (ply < MAX_PLY - 1) {
+            stats[PLY_NODES + 1 + ply]++;
+        }
+
+        if (move == FORFEIT_MOVE) {
+            stats[PASSES]++;
+        }
+    }
+
+
+    /**
+     * Updates the statistics counters before a move is unmade. A
+     * node that is left before all its legal moves were searched
+     * counts as a cutoff.
+     */
+    private void countCutoff() {
+        final int count = searched[1 + index];
+
+        if (count > 0) {
+            final long[] stats = stats();
+            final int legal = Math.max(1, count(mobility));
+
+            stats[INTERIORS]++;
+
+            if (count < legal) {
+                stats[CUTOFFS]++;
+
+                if (count == 1) {
+                    stats[FIRST_CUTOFFS]++;
+                }
+            }
+        }
+    }
+
+
     /**
      * Places a stone of the current player on the given checker and
      * flips the resulting captured stones if any.
@@ -369,15 +652,7 @@ public class OthelloGame extends BaseGame {
 
         // Find all the stones that must be flipped
 
-        long captures = 0x00L;
-
-        for (int direction = 0; direction < 8; direction++) {
-            final long rays = rays(rivals, checker, direction);
-
-            if ((players & shiftd(rays, direction)) != 0L) {
-                captures |= rays;
-            }
-        }
+        long captures = captures(checker, players, rivals);
 
         // Update the checkerboards
 
@@ -398,6 +673,80 @@ public class OthelloGame extends BaseGame {
     }
 
 
+    /**
+     * Computes the hash of the position that results from making a
+     * move, without making it. Only the stones the move would capture
+     * are computed, so this is much cheaper than making the move.
+     *
+     * @param move      A legal move
+     * @return          Hash code after the move
+     */
+    public long hashAfter(int move) {
+        long hash = this.hash;
+
+        hash ^= HASH_SIGN[rival];
+        hash ^= HASH_SIGN[player];
+
+        if (move == FORFEIT_MOVE) {
+            return hash;
+        }
+
+        final long checker = bit(move);
+        final long rivals = state[rival];
+        final long players = state[player];
+
+        long captures = captures(checker, players, rivals);
+        hash = hasher.insert(hash, move, player);
+
+        while (empty(captures) == false) {
+            final int index = first(captures);
+            hash = hasher.remove(hash, index, rival);
+            hash = hasher.insert(hash, index, player);
+            captures ^= bit(index);
+        }
+
+        return hash;
+    }
+
+
+    /**
+     * Stones captured by placing a stone on a checker.
+     *
+     * @param checker   Bitboard of the checker
+     * @param players   Stones of the player to move
+     * @param rivals    Stones of the opponent
+     * @return          Bitboard of the captured stones
+     */
+    private long captures(long checker, long players, long rivals) {
+        long captures = 0x00L;
+
+        for (int direction = 0; direction < 8; direction++) {
+            final long rays = rays(rivals, checker, direction);
+
+            if ((players & shiftd(rays, direction)) != 0L) {
+                captures |= rays;
+            }
+        }
+
+        return captures;
+    }
+
+
+    /**
+     * Computes the quadrant parities of the current position.
+     */
+    private int computeParity() {
+        final long empty = ~(state[SOUTH_STONE] | state[NORTH_STONE]);
+        int parity = 0;
+
+        for (int quadrant = 0; quadrant < QUADRANTS.length; quadrant++) {
+            parity |= (count(empty & QUADRANTS[quadrant]) & 1) << quadrant;
+        }
+
+        return parity;
+    }
+
+
     /**
      * Bitboard of legal moves for the current player.
      */
@@ -414,25 +763,14 @@ public class OthelloGame extends BaseGame {
      * Bitboard of legal moves for the given player.
      */
     private long computeMobility(int player, int rival) {
-        final long rivals = state[rival];
-        final long players = state[player];
-        final long free = ~(players | rivals);
-
-        long mobility = 0x00L;
-
-        for (int direction = 0; direction < 8; direction++) {
-            final long rays = rays(rivals, players, direction);
-            mobility |= free & shiftd(rays, direction);
-        }
-
-        return mobility;
+        return mobility(state[player], state[rival]);
     }
 
 
     /**
      * Projects a set of pieces on the given direction.
      */
-    private long rays(long pieces, long mask, int direction) {
+    private static long rays(long pieces, long mask, int direction) {
         long rays = pieces & shiftd(mask, direction);
 
         for (int rank = 0; rank < BOARD_RANKS - 3; rank++) {
@@ -451,6 +789,8 @@ public class OthelloGame extends BaseGame {
         moves[index] = move;
         hashes[index] = hash;
         mobilities[index] = mobility;
+        parities[index] = parity;
+        stagnants[index] = stagnant;
         cursors[index] = cursor;
         turns[index] = turn;
         System.arraycopy(state, 0, states, index << 1, PIECE_COUNT);
@@ -467,7 +807,8 @@ public class OthelloGame extends BaseGame {
         hash = hashes[index];
         cursor = cursors[index];
         mobility = mobilities[index];
-        stagnant = empty(mobility);
+        parity = parities[index];
+        stagnant = stagnants[index];
     }
 
 
@@ -500,7 +841,7 @@ public class OthelloGame extends BaseGame {
      *
      * @return              Shifted bitboard
      */
-    private long shiftd(long bitboard, int direction) {
+    private static long shiftd(long bitboard, int direction) {
         final int n = DIRECTION_SHIFT[direction];
         final long mask = DIRECTION_MASK[direction];
         return mask & shift(bitboard, n);
@@ -0,0 +1,215 @@
+package com.joansala.game.othello;
+
+/*
+ * Aalina engine.
+ * Copyright (C) 2021-2024 Joan Sala Soler <contact@joansala.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import com.joansala.engine.Flag;
+import com.joansala.engine.Leaves;
+import com.joansala.game.othello.search.OthelloSolver;
+import com.joansala.game.othello.search.SolverCache;
+import com.joansala.game.othello.store.SolvedStore;
+import static com.joansala.util.bits.Bits.*;
+import static com.joansala.game.othello.Othello.*;
+import static com.joansala.game.othello.OthelloGame.*;
+
+
+/**
+ * Endgame results for Othello backed by a solved positions store.
+ *
+ * Positions with few empty squares are solved in memory for their
+ * outcome, which is all the search needs from a leaf. Positions with
+ * more empty squares are looked up once on the store, which holds the
+ * positions solved on previous sessions or by other tools. Searched
+ * nodes never write to the store; only {@link #solve(OthelloGame)},
+ * which engines call on their root positions, adds results to it.
+ * Instances without a store never find any position.
+ *
+ * A store may be shared by several instances, but each instance has
+ * its own solver and must be used by a single thread.
+ */
+public class OthelloLeaves implements Leaves<OthelloGame> {
+
+    /** Default path of the solved positions store */
+    public static final String STORE_PATH = "othello-solved.bin";
+
+    /** Empty squares from which positions are solved */
+    public static final int SOLVE_EMPTIES = 10;
+
+    /** Empty squares from which the store is consulted */
+    public static final int PROBE_EMPTIES = 32;
+
+    /** Solved positions store */
+    private final SolvedStore store;
+
+    /** Exact endgame solver */
+    private final OthelloSolver solver;
+
+    /** Score of the last position found */
+    private int score = DRAW_SCORE;
+
+    /** Best move of the last position solved */
+    private int bestMove = NULL_MOVE;
+
+
+    /**
+     * Creates a new instance without a store.
+     */
+    public OthelloLeaves() {
+        this.solver = null;
+        this.store = null;
+    }
+
+
+    /**
+     * Creates a new instance for the given store path.
+     *
+     * @param path      Store file path
+     */
+    public OthelloLeaves(String path) throws IOException {
+        this(new SolvedStore(Paths.get(path)));
+    }
+
+
+    /**
+     * Creates a new instance for the given store.
+     *
+     * @param store     Solved positions store
+     */
+    public OthelloLeaves(SolvedStore store) {
+        final long size = SolverCache.DEFAULT_SIZE >> 2;
+        this.solver = new OthelloSolver(new SolverCache(size), new SolverCache(size));
+        this.solver.setStore(store);
+        this.store = store;
+    }
+
+
+    /**
+     * Checks if a position is to be solved by {@link #solve}.
+     *
+     * @param game      Game state
+     * @return          If the store is set and the position has
+     *                  at most {@code SOLVE_EMPTIES} empty squares
+     */
+    public boolean isSolvable(OthelloGame game) {
+        return store != null && !game.hasEnded() &&
+            empties(game) <= SOLVE_EMPTIES;
+    }
+
+
+    /**
+     * Solves a position exactly, looking it up on the store first and
+     * adding its result to the store if it was not found.
+     *
+     * @param game      Game state
+     * @return          Disc difference for the player to move
+     */
+    public int solve(OthelloGame game) {
+        final int result = solver.solve(game);
+        bestMove = solver.getBestMove();
+        return result;
+    }
+
+
+    /**
+     * Best move of the last position solved.
+     *
+     * @return          A move or {@code NULL_MOVE}
+     */
+    public int getBestMove() {
+        return bestMove;
+    }
+
+
+    /**
+     * Solved positions store of this instance.
+     */
+    public SolvedStore getStore() {
+        return store;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean find(OthelloGame game) {
+        if (store == null) {
+            return false;
+        }
+
+        final int empties = empties(game);
+
+        if (empties > PROBE_EMPTIES || game.hasEnded()) {
+            return false;
+        }
+
+        int result;
+
+        if (empties <= SOLVE_EMPTIES) {
+            result = solver.solveOutcome(game);
+        } else {
+            final long south = game.state(SOUTH_STONE);
+            final long north = game.state(NORTH_STONE);
+            final boolean isSouth = game.turn() == SOUTH;
+            final int entry = isSouth ?
+                store.find(south, north) :
+                store.find(north, south);
+
+            if (entry == 0) {
+                return false;
+            }
+
+            result = SolvedStore.score(entry);
+        }
+
+        final int outcome = Integer.signum(result) * MAX_SCORE;
+        score = game.turn() == SOUTH ? outcome : -outcome;
+
+        return true;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getScore() {
+        return score;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getFlag() {
+        return Flag.EXACT;
+    }
+
+
+    /**
+     * Number of empty squares of a position.
+     */
+    private static int empties(OthelloGame game) {
+        final long south = game.state(SOUTH_STONE);
+        final long north = game.state(NORTH_STONE);
+        return BOARD_SIZE - count(south | north);
+    }
+}
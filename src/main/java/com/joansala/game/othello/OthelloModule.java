@@ -19,9 +19,23 @@ package com.joansala.game.othello;
  */
 
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import picocli.CommandLine;
 import picocli.CommandLine.Command;
 import picocli.CommandLine.Option;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.Provider;
 import com.google.inject.Provides;
+import com.google.inject.Singleton;
 import com.google.inject.name.Named;
 import com.joansala.cli.*;
 import com.joansala.engine.*;
@@ -29,8 +43,18 @@ import com.joansala.cache.GameCache;
 import com.joansala.engine.base.BaseModule;
 import com.joansala.engine.negamax.Negamax;
 import com.joansala.engine.uct.UCT;
-import com.joansala.book.base.BaseRoots;
+import com.joansala.game.othello.cache.OthelloCache;
+import com.joansala.game.othello.scorers.CachedScorer;
+import com.joansala.game.othello.scorers.MobilityScorer;
+import com.joansala.game.othello.search.MTDNegamax;
+import com.joansala.game.othello.search.MultiPVReporter;
+import com.joansala.game.othello.search.PonderingNegamax;
+import com.joansala.game.othello.cli.*;
+import com.joansala.game.othello.stats.StatsCache;
+import com.joansala.game.othello.stats.StatsReporter;
+import com.joansala.game.othello.store.SolvedStore;
 import static com.joansala.game.othello.Othello.*;
+import static com.joansala.game.othello.stats.StatsConfig.ENABLED;
 
 
 /**
@@ -38,13 +62,32 @@ import static com.joansala.game.othello.Othello.*;
  */
 public class OthelloModule extends BaseModule {
 
+    /** Solved positions stores shared by all the engines */
+    private static final Map<Path, SolvedStore> stores = new HashMap<>();
+
     /**
      * Command line interface.
      */
     @Command(
       name = "othello",
       version = "1.0.0",
-      description = "Othello is a strategy board game"
+      description = "Othello is a strategy board game",
+      subcommands = {
+        AnalyzeCommand.class,
+        ArenaCommand.class,
+        BenchCommand.class,
+        ClusterCommand.class,
+        ConvertCommand.class,
+        EndgameCommand.class,
+        ExportCommand.class,
+        GenerateCommand.class,
+        IngestCommand.class,
+        LatencyCommand.class,
+        StartupCommand.class,
+        StoreCommand.class,
+        WorkerCommand.class,
+        WorkloadCommand.class
+      }
     )
     private static class OthelloCommand extends MainCommand {
 
@@ -71,6 +114,60 @@ public class OthelloModule extends BaseModule {
           description = "Default hash table size (bytes)"
         )
         private static long cacheSize = GameCache.DEFAULT_SIZE;
+
+        @Option(
+          names = "--store",
+          description = "Solved positions store path"
+        )
+        private static String store = null;
+
+        @Option(
+          names = "--cache-file",
+          description = "Saves and restores the hash table on this file"
+        )
+        private static String cacheFile = null;
+
+        @Option(
+          names = "--cache-checkpoint",
+          description = "Seconds between hash table saves (0 = on exit)"
+        )
+        private static long cacheCheckpoint = 0L;
+
+        @Option(
+          names = "--ponder",
+          description = "Think on the opponent's time"
+        )
+        private static boolean ponder = false;
+
+        @Option(
+          names = "--eval-cache-size",
+          description = "Evaluation cache size (bytes, 0 = disabled)"
+        )
+        private static long evalCacheSize = 0L;
+
+        @Option(
+          names = "--scorer",
+          description = "Evaluation function (corners, mobility)"
+        )
+        private static String scorer = "corners";
+
+        @Option(
+          names = "--driver",
+          description = "Root search driver (ALPHABETA, ASPIRATION, MTDF)"
+        )
+        private static MTDNegamax.Driver driver = null;
+
+        @Option(
+          names = "--multipv",
+          description = "Root moves reported with their scores"
+        )
+        private static int multipv = 1;
+
+        @Option(
+          names = "--deadline",
+          description = "Start an iteration only if it fits the move time"
+        )
+        private static boolean deadline = false;
     }
 
 
@@ -78,9 +175,100 @@ public class OthelloModule extends BaseModule {
      * Game module configuration.
      */
     @Override protected void configure() {
-        bind(Game.class).to(OthelloGame.class);
         bind(Board.class).to(OthelloBoard.class);
-        bind(Engine.class).to(Negamax.class);
+    }
+
+
+    /**
+     * Game state provider. All the games share the same
+     * evaluation cache if one is enabled.
+     */
+    @Provides
+    public static Game provideGame(Provider<CachedScorer> scorer) {
+        OthelloGame game = new OthelloGame();
+
+        if (OthelloCommand.evalCacheSize > 0L) {
+            game.setScorer(scorer.get());
+        } else {
+            game.setScorer(provideScorer());
+        }
+
+        return game;
+    }
+
+
+    /**
+     * Evaluation cache provider.
+     */
+    @Provides @Singleton
+    public static CachedScorer provideEvalCache() {
+        long size = OthelloCommand.evalCacheSize;
+        return new CachedScorer(provideScorer(), size);
+    }
+
+
+    /**
+     * Evaluation function chosen on the command line.
+     */
+    private static Scorer<OthelloGame> provideScorer() {
+        String name = OthelloCommand.scorer;
+
+        if ("mobility".equals(name)) {
+            return new MobilityScorer();
+        } else if (!"corners".equals(name)) {
+            logger.warning("Unknown scorer: " + name);
+        }
+
+        return OthelloGame.defaultScorer();
+    }
+
+
+    /**
+     * Search engine provider.
+     */
+    @Provides
+    public static Engine provideEngine(
+        Provider<Negamax> negamax, Provider<PonderingNegamax> pondering,
+        Provider<MTDNegamax> driven, Provider<Game> games) {
+        Engine engine;
+        boolean custom = isDriven();
+
+        if (custom && OthelloCommand.ponder) {
+            logger.warning("Pondering is not supported with " +
+                "--driver, --multipv or --deadline and was disabled");
+        }
+
+        if (custom) {
+            MTDNegamax search = driven.get();
+            MTDNegamax.Driver driver = OthelloCommand.driver;
+            search.setDriver(driver != null ? driver : MTDNegamax.Driver.MTDF);
+            search.setMultiPV(OthelloCommand.multipv);
+            search.setDeadlineMode(OthelloCommand.deadline);
+            engine = search;
+        } else if (OthelloCommand.ponder) {
+            engine = pondering.get();
+        } else {
+            engine = negamax.get();
+        }
+
+        if (OthelloCommand.multipv > 1) {
+            engine.attachConsumer(new MultiPVReporter(games.get(), logger::info));
+        }
+
+        if (ENABLED) {
+            engine.attachConsumer(new StatsReporter(logger::info));
+        }
+
+        return engine;
+    }
+
+
+    /**
+     * Checks if the options select the {@link MTDNegamax} engine.
+     */
+    private static boolean isDriven() {
+        return OthelloCommand.driver != null ||
+            OthelloCommand.multipv > 1 || OthelloCommand.deadline;
     }
 
 
@@ -94,31 +282,158 @@ public class OthelloModule extends BaseModule {
 
 
     /**
-     * Transpositions table provider.
+     * Transpositions table provider. The {@link MTDNegamax} engine
+     * gets a table that can be probed by hash.
      */
     @Provides @SuppressWarnings("rawtypes")
-    public static Cache provideCache() {
-        return new GameCache(OthelloCommand.cacheSize);
+    public static Cache provideCache(Provider<OthelloCache> saved) {
+        String path = OthelloCommand.cacheFile;
+
+        Cache<Game> cache = (path != null) ? saved.get().view() :
+            isDriven() ? new OthelloCache(OthelloCommand.cacheSize) :
+            new GameCache(OthelloCommand.cacheSize);
+
+        return ENABLED ? new StatsCache(cache) : cache;
     }
 
 
     /**
-     * Openings book provider.
+     * Transpositions table restored from a file if it exists. The
+     * table is saved back to the file when the engine exits and on
+     * each checkpoint, if enabled. All the engines search on views
+     * of this same table.
      */
-    @Provides @SuppressWarnings("rawtypes")
+    @Provides @Singleton
+    public static OthelloCache provideSavedCache() {
+        Path path = Paths.get(OthelloCommand.cacheFile);
+        OthelloCache cache = new OthelloCache(OthelloCommand.cacheSize);
+        long interval = OthelloCommand.cacheCheckpoint;
+
+        if (Files.exists(path)) {
+            try {
+                cache.load(path);
+            } catch (Exception e) {
+                logger.warning("Cannot restore hash table: " + e.getMessage());
+            }
+        }
+
+        Runnable saver = () -> {
+            try {
+                cache.save(path);
+            } catch (Exception e) {
+                logger.warning("Cannot save hash table: " + path);
+            }
+        };
+
+        if (interval > 0L) {
+            ScheduledExecutorService executor =
+                Executors.newSingleThreadScheduledExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "cache-checkpoint");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+            executor.scheduleWithFixedDelay(
+                saver, interval, interval, TimeUnit.SECONDS);
+        }
+
+        Runtime.getRuntime().addShutdownHook(new Thread(saver));
+
+        return cache;
+    }
+
+
+    /**
+     * Openings book provider. The book is opened once on a background
+     * thread, so the engine is ready before the book is.
+     */
+    @Provides @Singleton @SuppressWarnings("rawtypes")
     public static Roots provideRoots() {
+        return new BackgroundRoots(OthelloModule::openRoots);
+    }
+
+
+    /**
+     * Opens the openings book.
+     *
+     * @return      Book or {@code null} if it cannot be opened
+     */
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    private static Roots<Game> openRoots() {
         String path = OthelloCommand.roots;
 
         try {
             OthelloRoots roots = new OthelloRoots(path);
             roots.setDisturbance(OthelloCommand.disturbance);
             roots.setThreshold(OthelloCommand.threshold);
-            return roots;
+            return (Roots) roots;
         } catch (Exception e) {
             logger.warning("Cannot open openings book: " + path);
         }
 
-        return new BaseRoots();
+        return null;
+    }
+
+
+    /**
+     * Endgame results provider. Each engine gets its own solver,
+     * but all of them share the same store. Only the {@link MTDNegamax}
+     * engine adds its root solves to the store and consults it near
+     * the horizon, so the store is not used by the other engines.
+     */
+    @Provides @SuppressWarnings("rawtypes")
+    public static Leaves provideLeaves() {
+        String path = OthelloCommand.store;
+
+        if (path != null && !isDriven()) {
+            logger.warning("The solved positions store requires " +
+                "--driver, --multipv or --deadline and was ignored");
+        } else if (path != null) {
+            try {
+                return new OthelloLeaves(openStore(Paths.get(path)));
+            } catch (Exception e) {
+                logger.warning("Cannot open solved positions store: " + path);
+            }
+        }
+
+        return new OthelloLeaves();
+    }
+
+
+    /**
+     * Opens a solved positions store or returns the store that was
+     * already opened for the same file.
+     *
+     * @param path      Store file path
+     */
+    private static SolvedStore openStore(Path path) throws IOException {
+        Path file = path.toAbsolutePath().normalize();
+
+        synchronized (stores) {
+            SolvedStore store = stores.get(file);
+
+            if (store == null) {
+                store = new SolvedStore(file);
+                stores.put(file, store);
+            }
+
+            return store;
+        }
+    }
+
+
+    /**
+     * Creates an injector for the engine configured with the given
+     * global options. Options are kept on static fields, so engines
+     * with different options must be loaded by different class
+     * loaders; see {@link com.joansala.game.othello.arena.EngineLoader}.
+     *
+     * @param args      Global command line options
+     * @return          A new injector
+     */
+    public static Injector createInjector(String... args) {
+        new CommandLine(new OthelloCommand()).parseArgs(args);
+        return Guice.createInjector(new OthelloModule());
     }
 
 
@@ -0,0 +1,228 @@
+package com.joansala.game.othello.arena;
+
+/*
+ * Aalina engine.
+ * Copyright (C) 2021-2024 Joan Sala Soler <contact@joansala.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import com.joansala.engine.Engine;
+import com.joansala.engine.Game;
+import com.joansala.game.othello.OthelloGame;
+import com.joansala.game.othello.arena.Sprt.Verdict;
+import static com.joansala.engine.Game.*;
+
+
+/**
+ * Plays matches between two engines on the same process.
+ *
+ * Each thread plays game pairs on its own engine instances: both games
+ * of a pair start from the same opening, with the engines swapping their
+ * colors. Openings are taken in order and repeated if needed. After each
+ * pair the result is added to a sequential test, and the match stops as
+ * soon as the test reaches a verdict or the maximum number of pairs
+ * was played.
+ *
+ * Moves are validated on a separate referee game, so an engine that
+ * plays an illegal move loses the game.
+ */
+public final class Arena {
+
+    /** Engine being tested */
+    private final EngineLoader test;
+
+    /** Reference engine */
+    private final EngineLoader base;
+
+    /** Number of pairs played concurrently */
+    private int threads = Runtime.getRuntime().availableProcessors();
+
+    /** Depth limit per move */
+    private int depth = Integer.MAX_VALUE;
+
+    /** Time limit per move */
+    private long moveTime = 100L;
+
+
+    /**
+     * Creates a new arena.
+     *
+     * @param test      Engine being tested
+     * @param base      Reference engine
+     */
+    public Arena(EngineLoader test, EngineLoader base) {
+        this.test = test;
+        this.base = base;
+    }
+
+
+    /**
+     * Sets the number of pairs played concurrently.
+     */
+    public void setThreads(int threads) {
+        this.threads = Math.max(1, threads);
+    }
+
+
+    /**
+     * Sets the depth limit per move.
+     */
+    public void setDepth(int depth) {
+        this.depth = depth;
+    }
+
+
+    /**
+     * Sets the time limit per move.
+     */
+    public void setMoveTime(long moveTime) {
+        this.moveTime = moveTime;
+    }
+
+
+    /**
+     * Plays game pairs until the test reaches a verdict.
+     *
+     * @param openings      Opening lines
+     * @param sprt          Sequential test
+     * @param maxPairs      Maximum number of pairs to play
+     * @param listener      Notified after each pair from the
+     *                      thread that played it
+     * @return              Verdict of the test
+     */
+    public Verdict run(List<int[]> openings, Sprt sprt, long maxPairs,
+        Consumer<Sprt> listener) throws Exception {
+        if (openings.isEmpty()) {
+            throw new IllegalArgumentException("No openings to play");
+        }
+
+        final AtomicLong next = new AtomicLong();
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        final List<Future<?>> futures = new ArrayList<>(threads);
+
+        try {
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    Players players = new Players();
+                    long index;
+
+                    while ((index = next.getAndIncrement()) < maxPairs) {
+                        int[] opening = openings.get((int) (index % openings.size()));
+                        int points = players.playPair(opening);
+
+                        sprt.add(points);
+                        listener.accept(sprt);
+
+                        if (sprt.verdict() != Verdict.CONTINUE) {
+                            next.set(maxPairs);
+                        }
+                    }
+
+                    return null;
+                }));
+            }
+
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        return sprt.verdict();
+    }
+
+
+    /**
+     * Engine instances used by a single thread.
+     */
+    private final class Players {
+
+        /** Instance of the tested engine */
+        private final Engine testEngine = newEngine(test);
+
+        /** Instance of the reference engine */
+        private final Engine baseEngine = newEngine(base);
+
+
+        /**
+         * Plays both games of a pair.
+         *
+         * @param opening   Opening line
+         * @return          Half points scored by the tested engine
+         */
+        int playPair(int[] opening) {
+            return playGame(opening, SOUTH) + playGame(opening, NORTH);
+        }
+
+
+        /**
+         * Plays a game from an opening.
+         *
+         * @param opening   Opening line
+         * @param color     Player moved by the tested engine
+         * @return          Half points scored by the tested engine
+         */
+        private int playGame(int[] opening, int color) {
+            final Game referee = new OthelloGame();
+            final Game testGame = test.newGame();
+            final Game baseGame = base.newGame();
+
+            for (int move : opening) {
+                referee.makeMove(move);
+                testGame.makeMove(move);
+                baseGame.makeMove(move);
+            }
+
+            testEngine.newMatch();
+            baseEngine.newMatch();
+
+            while (referee.hasEnded() == false) {
+                final boolean testing = (referee.turn() == color);
+                final Engine engine = testing ? testEngine : baseEngine;
+                final int move = engine.computeBestMove(testing ? testGame : baseGame);
+
+                if (referee.isLegal(move) == false) {
+                    return testing ? 0 : 2;
+                }
+
+                referee.makeMove(move);
+                testGame.makeMove(move);
+                baseGame.makeMove(move);
+            }
+
+            final int outcome = color * referee.outcome();
+            return outcome > 0 ? 2 : outcome < 0 ? 0 : 1;
+        }
+
+
+        /**
+         * Creates an engine with the limits of the arena.
+         */
+        private Engine newEngine(EngineLoader loader) {
+            final Engine engine = loader.newEngine();
+            engine.setMoveTime(moveTime);
+            engine.setDepth(depth);
+            return engine;
+        }
+    }
+}
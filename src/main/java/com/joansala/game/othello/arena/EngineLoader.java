@@ -0,0 +1,154 @@
+package com.joansala.game.othello.arena;
+
+/*
+ * Aalina engine.
+ * Copyright (C) 2021-2024 Joan Sala Soler <contact@joansala.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Path;
+import com.google.inject.Injector;
+import com.joansala.engine.Engine;
+import com.joansala.engine.Game;
+import com.joansala.game.othello.OthelloModule;
+
+
+/**
+ * Loads an isolated copy of the Othello engine.
+ *
+ * The classes of the game package are loaded by this class loader
+ * before asking its parent, so each loader has its own copy of them,
+ * with its own static state. This allows running engines configured
+ * with different global options, or engines from different builds,
+ * on the same process. The classes of the engine framework are always
+ * shared with the parent loader, so all the loaded engines implement
+ * the same {@link Engine} and {@link Game} interfaces.
+ */
+public final class EngineLoader extends URLClassLoader {
+
+    /** Prefix of the classes loaded by this loader first */
+    private static final String PACKAGE = "com.joansala.game.";
+
+    /** Name of the module class */
+    private static final String MODULE = OthelloModule.class.getName();
+
+    /** Injector of the loaded engine */
+    private final Injector injector;
+
+
+    /**
+     * Loads the engine of the running build.
+     *
+     * @param options   Global engine options
+     */
+    public EngineLoader(String... options) throws IOException {
+        this(codeSource(), options);
+    }
+
+
+    /**
+     * Loads the engine of a build.
+     *
+     * @param build     Jar or classes folder of the build
+     * @param options   Global engine options
+     */
+    public EngineLoader(Path build, String... options) throws IOException {
+        this(build.toUri().toURL(), options);
+    }
+
+
+    /**
+     * Loads the engine of a build.
+     *
+     * @param build     Location of the build
+     * @param options   Global engine options
+     */
+    private EngineLoader(URL build, String[] options) throws IOException {
+        super(new URL[] { build }, EngineLoader.class.getClassLoader());
+
+        try {
+            Class<?> module = loadClass(MODULE);
+            Object result = module
+                .getMethod("createInjector", String[].class)
+                .invoke(null, (Object) options);
+            this.injector = (Injector) result;
+        } catch (ReflectiveOperationException e) {
+            close();
+            throw new IOException("Cannot load engine: " + build, e);
+        }
+    }
+
+
+    /**
+     * Creates a new engine instance.
+     *
+     * @return      A new engine
+     */
+    public Engine newEngine() {
+        return injector.getInstance(Engine.class);
+    }
+
+
+    /**
+     * Creates a new game on its start position.
+     *
+     * @return      A new game
+     */
+    public Game newGame() {
+        return injector.getInstance(Game.class);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected Class<?> loadClass(String name, boolean resolve)
+        throws ClassNotFoundException {
+        if (name.startsWith(PACKAGE) == false) {
+            return super.loadClass(name, resolve);
+        }
+
+        synchronized (getClassLoadingLock(name)) {
+            Class<?> loaded = findLoadedClass(name);
+
+            if (loaded == null) {
+                try {
+                    loaded = findClass(name);
+                } catch (ClassNotFoundException e) {
+                    loaded = super.loadClass(name, false);
+                }
+            }
+
+            if (resolve) {
+                resolveClass(loaded);
+            }
+
+            return loaded;
+        }
+    }
+
+
+    /**
+     * Location of the classes of the running build.
+     */
+    private static URL codeSource() {
+        return OthelloModule.class
+            .getProtectionDomain().getCodeSource().getLocation();
+    }
+}
@@ -0,0 +1,148 @@
+package com.joansala.game.othello.arena;
+
+/*
+ * Aalina engine.
+ * Copyright (C) 2021-2024 Joan Sala Soler <contact@joansala.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import com.joansala.game.othello.OthelloBoard;
+import com.joansala.game.othello.OthelloGame;
+import com.joansala.game.othello.cache.OthelloCache;
+import com.joansala.game.othello.search.MTDNegamax;
+import com.joansala.util.suites.Suite;
+import com.joansala.util.suites.SuiteReader;
+import static com.joansala.engine.Game.*;
+import static com.joansala.game.othello.Othello.*;
+
+
+/**
+ * Sets of opening lines for engine matches.
+ *
+ * Openings are sequences of moves from the start position, so they
+ * can be replayed on games loaded by any class loader. Random openings
+ * are only kept if a shallow search scores them close to a draw, which
+ * avoids spending games on lines already decided for one side.
+ */
+public final class Openings {
+
+    /** Size of the cache used to score random openings */
+    private static final long CACHE_SIZE = 1L << 22;
+
+
+    /**
+     * This class cannot be instantiated.
+     */
+    private Openings() {}
+
+
+    /**
+     * Reads the openings of a suite file. Each game of the suite must
+     * start on the start position and is truncated to a number of moves.
+     *
+     * @param path      Suite file path
+     * @param plies     Maximum number of moves of each opening
+     * @return          Opening lines
+     */
+    public static List<int[]> read(String path, int plies) throws Exception {
+        final OthelloBoard start = new OthelloBoard();
+        final String diagram = start.toDiagram();
+        final List<int[]> openings = new ArrayList<>();
+
+        try (SuiteReader reader = new SuiteReader(path)) {
+            Iterator<Suite> suites = reader.stream().iterator();
+
+            while (suites.hasNext()) {
+                Suite suite = suites.next();
+
+                if (diagram.equals(suite.diagram()) == false) {
+                    throw new IllegalArgumentException(
+                        "Openings must start on the start position");
+                }
+
+                int[] moves = start.toMoves(suite.notation());
+                openings.add(Arrays.copyOf(moves, Math.min(plies, moves.length)));
+            }
+        }
+
+        return openings;
+    }
+
+
+    /**
+     * Generates distinct random openings that a shallow search scores
+     * close to a draw.
+     *
+     * @param count     Number of openings
+     * @param plies     Number of moves of each opening
+     * @param depth     Depth of the scoring search
+     * @param margin    Maximum absolute score of an opening
+     * @param seed      Random seed
+     * @return          Opening lines
+     */
+    public static List<int[]> generate(int count, int plies, int depth, int margin, long seed) {
+        final List<int[]> openings = new ArrayList<>(count);
+        final Set<Long> seen = new HashSet<>();
+        final Random random = new Random(seed);
+        final OthelloGame game = new OthelloGame();
+        final MTDNegamax engine = new MTDNegamax();
+        final int[] score = { DRAW_SCORE };
+        final int[] legal = new int[BOARD_SIZE];
+
+        engine.setCache(new OthelloCache(CACHE_SIZE));
+        engine.attachConsumer(report -> score[0] = report.getScore());
+        engine.setMoveTime(UNLIMITED_TIME);
+        engine.setDepth(depth);
+
+        while (openings.size() < count) {
+            final int[] moves = new int[plies];
+            game.setBoard(new OthelloBoard());
+
+            for (int ply = 0; ply < plies && !game.hasEnded(); ply++) {
+                int length = 0;
+                int move;
+
+                game.resetCursor();
+
+                while ((move = game.nextMove()) != NULL_MOVE) {
+                    legal[length++] = move;
+                }
+
+                moves[ply] = legal[random.nextInt(length)];
+                game.makeMove(moves[ply]);
+            }
+
+            if (game.hasEnded() || !seen.add(game.hash())) {
+                continue;
+            }
+
+            engine.newMatch();
+            engine.computeBestMove(game);
+
+            if (Math.abs(score[0]) <= margin) {
+                openings.add(moves);
+            }
+        }
+
+        return openings;
+    }
+}
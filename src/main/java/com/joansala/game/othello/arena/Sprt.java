@@ -0,0 +1,222 @@
+package com.joansala.game.othello.arena;
+
+/*
+ * Aalina engine.
+ * Copyright (C) 2021-2024 Joan Sala Soler <contact@joansala.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+/**
+ * Sequential probability ratio test on the results of game pairs.
+ *
+ * Tests the hypothesis that the Elo difference between two engines is
+ * {@code elo1} against the hypothesis that it is {@code elo0}. Games are
+ * played in pairs from the same opening with the colors swapped, and
+ * each pair scores from zero to two points in steps of half a point
+ * (a pentanomial distribution). Pairs are correlated far less than the
+ * games of a pair, so counting pairs gives a tighter variance estimate.
+ *
+ * The log-likelihood ratio is computed with the generalized SPRT normal
+ * approximation, and the test stops once it leaves the bounds derived
+ * from the accepted error rates. This class is thread-safe.
+ */
+public final class Sprt {
+
+    /** Possible outcomes of a game pair */
+    public static final int OUTCOMES = 5;
+
+    /** Verdicts of the test */
+    public enum Verdict { CONTINUE, ACCEPT_H0, ACCEPT_H1 }
+
+    /** Number of pairs for each outcome */
+    private final long[] counts = new long[OUTCOMES];
+
+    /** Expected pair score under the null hypothesis */
+    private final double score0;
+
+    /** Expected pair score under the alternative hypothesis */
+    private final double score1;
+
+    /** Lower bound of the log-likelihood ratio */
+    private final double lower;
+
+    /** Upper bound of the log-likelihood ratio */
+    private final double upper;
+
+
+    /**
+     * Creates a new test.
+     *
+     * @param elo0      Elo difference of the null hypothesis
+     * @param elo1      Elo difference of the alternative hypothesis
+     * @param alpha     Probability of accepting H1 if H0 is true
+     * @param beta      Probability of accepting H0 if H1 is true
+     */
+    public Sprt(double elo0, double elo1, double alpha, double beta) {
+        if (elo0 >= elo1) {
+            throw new IllegalArgumentException(
+                "The Elo bounds must be increasing");
+        }
+
+        this.score0 = expectedScore(elo0);
+        this.score1 = expectedScore(elo1);
+        this.lower = Math.log(beta / (1.0 - alpha));
+        this.upper = Math.log((1.0 - beta) / alpha);
+    }
+
+
+    /**
+     * Adds the result of a game pair.
+     *
+     * @param halfPoints    Points scored by the tested engine on
+     *                      both games, in half points (0 to 4)
+     */
+    public synchronized void add(int halfPoints) {
+        if (halfPoints < 0 || halfPoints >= OUTCOMES) {
+            throw new IllegalArgumentException(
+                "Not a valid pair result: " + halfPoints);
+        }
+
+        counts[halfPoints]++;
+    }
+
+
+    /**
+     * Number of pairs added for each outcome.
+     *
+     * @return      Counts from zero to two points
+     */
+    public synchronized long[] counts() {
+        return counts.clone();
+    }
+
+
+    /**
+     * Number of pairs added.
+     */
+    public synchronized long pairs() {
+        long pairs = 0L;
+
+        for (long count : counts) {
+            pairs += count;
+        }
+
+        return pairs;
+    }
+
+
+    /**
+     * Mean score per game of the tested engine.
+     *
+     * @return      Score from zero to one
+     */
+    public synchronized double score() {
+        final long pairs = pairs();
+        double total = 0.0;
+
+        for (int i = 0; i < OUTCOMES; i++) {
+            total += counts[i] * value(i);
+        }
+
+        return pairs > 0L ? total / pairs : 0.5;
+    }
+
+
+    /**
+     * Elo difference estimated from the mean score.
+     */
+    public synchronized double elo() {
+        final double score = score();
+        final double clamped = Math.max(1E-6, Math.min(1.0 - 1E-6, score));
+        return -400.0 * Math.log10(1.0 / clamped - 1.0);
+    }
+
+
+    /**
+     * Log-likelihood ratio of the results added.
+     */
+    public synchronized double llr() {
+        final long pairs = pairs();
+
+        if (pairs < 2L) {
+            return 0.0;
+        }
+
+        final double score = score();
+        double variance = 0.0;
+
+        for (int i = 0; i < OUTCOMES; i++) {
+            final double deviation = value(i) - score;
+            variance += counts[i] * deviation * deviation;
+        }
+
+        variance /= pairs;
+
+        if (variance <= 0.0) {
+            return 0.0;
+        }
+
+        final double delta = score1 - score0;
+        final double drift = score - 0.5 * (score0 + score1);
+
+        return pairs * delta * drift / variance;
+    }
+
+
+    /**
+     * Lower bound of the log-likelihood ratio.
+     */
+    public double lower() {
+        return lower;
+    }
+
+
+    /**
+     * Upper bound of the log-likelihood ratio.
+     */
+    public double upper() {
+        return upper;
+    }
+
+
+    /**
+     * Verdict of the test on the results added.
+     */
+    public synchronized Verdict verdict() {
+        final double llr = llr();
+
+        if (llr >= upper) return Verdict.ACCEPT_H1;
+        if (llr <= lower) return Verdict.ACCEPT_H0;
+
+        return Verdict.CONTINUE;
+    }
+
+
+    /**
+     * Score of a pair outcome per game.
+     */
+    private static double value(int halfPoints) {
+        return halfPoints / (OUTCOMES - 1.0);
+    }
+
+
+    /**
+     * Expected score per game for an Elo difference.
+     */
+    private static double expectedScore(double elo) {
+        return 1.0 / (1.0 + Math.pow(10.0, -elo / 400.0));
+    }
+}
@@ -0,0 +1,57 @@
+package com.joansala.game.othello.bench;
+
+/*
+ * Aalina engine.
+ * Copyright (C) 2021-2024 Joan Sala Soler <contact@joansala.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import com.joansala.game.othello.OthelloGame;
+
+
+/**
+ * An Othello game that counts the moves made on it.
+ */
+public class BenchGame extends OthelloGame {
+
+    /** Number of moves made */
+    private long nodes = 0L;
+
+
+    /**
+     * Number of moves made since the last reset.
+     */
+    public long nodes() {
+        return nodes;
+    }
+
+
+    /**
+     * Sets the moves counter to zero.
+     */
+    public void resetNodes() {
+        nodes = 0L;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void makeMove(int move) {
+        super.makeMove(move);
+        nodes++;
+    }
+}
@@ -0,0 +1,152 @@
+package com.joansala.game.othello.bench;
+
+/*
+ * Aalina engine.
+ * Copyright (C) 2021-2024 Joan Sala Soler <contact@joansala.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+
+/**
+ * Fixed capacity set of long values that can be shared by threads.
+ *
+ * Values are stored as primitive longs on an open-addressing table
+ * with linear probing, and inserted with a compare-and-set on their
+ * slot, so no locks are taken. The table never grows, which bounds
+ * its memory to eight bytes per slot. Values cannot be removed. The
+ * value zero marks an empty slot, so it is tracked on its own flag.
+ */
+public final class ConcurrentLongSet {
+
+    /** Maximum number of slots of a table */
+    public static final int MAX_CAPACITY = 1 << 30;
+
+    /** Table of values */
+    private final AtomicLongArray table;
+
+    /** Number of slots minus one */
+    private final int mask;
+
+    /** Maximum number of values on the table */
+    private final long maxSize;
+
+    /** If the value zero is on the set */
+    private final AtomicBoolean hasZero = new AtomicBoolean();
+
+
+    /**
+     * Creates a new set for the given number of values. The table
+     * is allocated to be at most half full when it holds them.
+     *
+     * @param expected      Maximum number of values
+     */
+    public ConcurrentLongSet(long expected) {
+        long capacity = 16L;
+
+        while (capacity < 2L * expected) {
+            capacity <<= 1;
+        }
+
+        if (capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException(
+                "Set capacity exceeded");
+        }
+
+        this.table = new AtomicLongArray((int) capacity);
+        this.mask = (int) capacity - 1;
+        this.maxSize = capacity - 1;
+    }
+
+
+    /**
+     * Adds a value to the set.
+     *
+     * @param value     Value to add
+     * @return          If the value was not already on the set
+     * @throws IllegalStateException if the table is full
+     */
+    public boolean add(long value) {
+        if (value == 0L) {
+            return hasZero.compareAndSet(false, true);
+        }
+
+        int slot = spread(value) & mask;
+
+        for (long probes = 0L; probes < maxSize; probes++) {
+            final long current = table.get(slot);
+
+            if (current == value) {
+                return false;
+            }
+
+            if (current == 0L) {
+                if (table.compareAndSet(slot, 0L, value)) {
+                    return true;
+                }
+
+                continue;
+            }
+
+            slot = (slot + 1) & mask;
+        }
+
+        throw new IllegalStateException("Set is full");
+    }
+
+
+    /**
+     * Checks if a value is on the set.
+     *
+     * @param value     Value to find
+     * @return          If the value was found
+     */
+    public boolean contains(long value) {
+        if (value == 0L) {
+            return hasZero.get();
+        }
+
+        int slot = spread(value) & mask;
+
+        for (long probes = 0L; probes < maxSize; probes++) {
+            final long current = table.get(slot);
+
+            if (current == value) {
+                return true;
+            }
+
+            if (current == 0L) {
+                return false;
+            }
+
+            slot = (slot + 1) & mask;
+        }
+
+        return false;
+    }
+
+
+    /**
+     * Spreads the bits of a value to choose its first slot.
+     */
+    private static int spread(long value) {
+        value ^= value >>> 33;
+        value *= 0xC4CEB9FE1A85EC53L;
+        value ^= value >>> 29;
+        return (int) value;
+    }
+}
@@ -0,0 +1,122 @@
+package com.joansala.game.othello.bench;
+
+/*
+ * Aalina engine.
+ * Copyright (C) 2021-2024 Joan Sala Soler <contact@joansala.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import com.joansala.game.othello.OthelloBoard;
+import static com.joansala.util.bits.Bits.*;
+
+
+/**
+ * An endgame position with its known exact solution.
+ *
+ * Problems are written on a single line with the position diagram
+ * followed by the keyword {@code score} and the exact disc difference
+ * for the player to move, and optionally the keyword {@code best} and
+ * a comma separated list of the moves that achieve that score.
+ *
+ * <pre>
+ * 2OOOOO1/1OOOXO2/XXOXOXXX/... b score 2 best a1
+ * </pre>
+ */
+public final class EndgameProblem {
+
+    /** Used to parse move coordinates */
+    private static final OthelloBoard parser = new OthelloBoard();
+
+    /** Position diagram */
+    private final String diagram;
+
+    /** Expected exact score */
+    private final int score;
+
+    /** Bitboard of the best moves or zero if not known */
+    private final long moves;
+
+
+    /**
+     * Creates a new endgame problem.
+     *
+     * @param diagram   Position diagram
+     * @param score     Expected exact score
+     * @param moves     Bitboard of the best moves
+     */
+    public EndgameProblem(String diagram, int score, long moves) {
+        this.diagram = diagram;
+        this.score = score;
+        this.moves = moves;
+    }
+
+
+    /**
+     * Position diagram.
+     */
+    public String diagram() {
+        return diagram;
+    }
+
+
+    /**
+     * Expected exact score for the player to move.
+     */
+    public int score() {
+        return score;
+    }
+
+
+    /**
+     * Checks a move against the known best moves.
+     *
+     * @param move      Move identifier
+     * @return          If the move is a known best move or
+     *                  no best moves are known
+     */
+    public boolean isBestMove(int move) {
+        return empty(moves) || (move >= 0 && contains(moves, bit(move)));
+    }
+
+
+    /**
+     * Parses a problem from its line notation.
+     *
+     * @param line      Problem notation
+     * @return          A new problem
+     *
+     * @throws IllegalArgumentException If the line is not valid
+     */
+    public static EndgameProblem parse(String line) {
+        String[] fields = line.trim().split("\\s+");
+
+        if (fields.length < 4 || !"score".equals(fields[2])) {
+            throw new IllegalArgumentException(
+                "Not a valid endgame problem: " + line);
+        }
+
+        String diagram = fields[0] + ' ' + fields[1];
+        int score = Integer.parseInt(fields[3]);
+        long moves = 0L;
+
+        if (fields.length > 5 && "best".equals(fields[4])) {
+            for (String coordinates : fields[5].split(",")) {
+                moves |= bit(parser.toMove(coordinates));
+            }
+        }
+
+        return new EndgameProblem(diagram, score, moves);
+    }
+}
@@ -0,0 +1,119 @@
+package com.joansala.game.othello.bench;
+
+/*
+ * Aalina engine.
+ * Copyright (C) 2021-2024 Joan Sala Soler <contact@joansala.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import java.util.Arrays;
+
+
+/**
+ * Accumulates elapsed time samples and summarizes them.
+ */
+public final class Latencies {
+
+    /** Recorded samples in nanoseconds */
+    private long[] samples;
+
+    /** Number of recorded samples */
+    private int size;
+
+
+    /**
+     * Creates a new empty latencies recorder.
+     */
+    public Latencies() {
+        samples = new long[64];
+        size = 0;
+    }
+
+
+    /**
+     * Number of recorded samples.
+     */
+    public int size() {
+        return size;
+    }
+
+
+    /**
+     * Records an elapsed time.
+     *
+     * @param nanos     Elapsed nanoseconds
+     */
+    public void record(long nanos) {
+        if (size == samples.length) {
+            samples = Arrays.copyOf(samples, size << 1);
+        }
+
+        samples[size++] = nanos;
+    }
+
+
+    /**
+     * Elapsed time below which the given fraction of the samples
+     * fall, using the nearest-rank method.
+     *
+     * @param fraction  Fraction in the range [0, 1]
+     * @return          Elapsed nanoseconds
+     */
+    public long percentile(double fraction) {
+        if (size == 0) {
+            return 0L;
+        }
+
+        long[] sorted = Arrays.copyOf(samples, size);
+        Arrays.sort(sorted);
+
+        final int rank = (int) Math.ceil(fraction * size);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+
+    /**
+     * Mean of the recorded samples in nanoseconds.
+     */
+    public long mean() {
+        long total = 0L;
+
+        for (int i = 0; i < size; i++) {
+            total += samples[i];
+        }
+
+        return size > 0 ? total / size : 0L;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return String.format(
+            "samples %d, mean %.2f ms, p50 %.2f ms, p99 %.2f ms, max %.2f ms",
+            size, toMillis(mean()), toMillis(percentile(0.50)),
+            toMillis(percentile(0.99)), toMillis(percentile(1.0)));
+    }
+
+
+    /**
+     * Converts nanoseconds to milliseconds.
+     */
+    private static double toMillis(long nanos) {
+        return nanos / 1.0E6;
+    }
+}
@@ -0,0 +1,399 @@
+package com.joansala.game.othello.bench;
+
+/*
+ * Aalina engine.
+ * Copyright (C) 2021-2024 Joan Sala Soler <contact@joansala.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import com.joansala.game.othello.OthelloBoard;
+import com.joansala.game.othello.OthelloGame;
+import com.joansala.game.othello.store.Symmetry;
+import static com.joansala.engine.Game.*;
+import static com.joansala.util.bits.Bits.*;
+import static com.joansala.game.othello.Othello.*;
+
+
+/**
+ * Generates unique random positions with a given number of empty
+ * squares.
+ *
+ * Positions are reached by playing random legal moves from the start
+ * position. Each position is identified by its {@link
+ * Symmetry#canonicalKey canonical key} and only the first position of
+ * each key is accepted, so symmetric positions are never repeated.
+ * Terminal positions and positions rejected by a {@link Filter} are
+ * discarded. Positions are generated concurrently and handed in
+ * batches through a bounded queue to the calling thread, which is
+ * the only one that writes them. Memory is thus bounded by the set of
+ * keys and the capacity of the queue.
+ */
+public final class PositionGenerator {
+
+    /** Positions handed to the writer at once */
+    private static final int BATCH_SIZE = 1024;
+
+    /** Batches waiting to be written */
+    private static final int QUEUE_SIZE = 64;
+
+    /** Consecutive repeated positions before giving up */
+    private static final int MAX_FAILURES = 1 << 16;
+
+    /** Number of generator threads */
+    private final int threads;
+
+    /** Seed of the random generators */
+    private final long seed;
+
+    /** Accepted positions filter */
+    private final Filter filter;
+
+
+    /**
+     * Positions accepted by the generator.
+     */
+    public enum Filter {
+
+        /** Positions that did not end */
+        ANY,
+
+        /** Positions where the player to move has legal moves */
+        MOVABLE,
+
+        /** Positions where both players have legal moves */
+        BOTH
+    }
+
+
+    /**
+     * Receives the generated positions.
+     */
+    @FunctionalInterface
+    public interface PositionSink {
+
+        /**
+         * Writes a position.
+         *
+         * @param south     South stones bitboard
+         * @param north     North stones bitboard
+         * @param turn      Player to move
+         */
+        void write(long south, long north, int turn) throws IOException;
+    }
+
+
+    /**
+     * Creates a new generator.
+     *
+     * @param threads   Number of generator threads
+     * @param seed      Seed of the random generators
+     * @param filter    Accepted positions filter
+     */
+    public PositionGenerator(int threads, long seed, Filter filter) {
+        if (threads < 1) {
+            throw new IllegalArgumentException(
+                "Threads must be positive");
+        }
+
+        this.threads = threads;
+        this.seed = seed;
+        this.filter = filter;
+    }
+
+
+    /**
+     * Generates positions for each of the given empty squares counts.
+     * Fewer positions are generated for a count if the generator
+     * repeatedly fails to find new positions with that count.
+     *
+     * @param empties   Empty squares of the positions
+     * @param size      Positions to generate for each count
+     * @param sink      Receives the positions
+     * @return          Number of positions generated
+     */
+    public long generate(int[] empties, long size, PositionSink sink) throws Exception {
+        for (int count : empties) {
+            if (count < 0 || count > BOARD_SIZE - 4) {
+                throw new IllegalArgumentException(
+                    "Invalid empty squares count: " + count);
+            }
+        }
+
+        final AtomicLong[] pending = new AtomicLong[empties.length];
+        final ConcurrentLongSet keys = new ConcurrentLongSet(size * empties.length);
+        final BlockingQueue<long[]> queue = new ArrayBlockingQueue<>(QUEUE_SIZE);
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        final List<Future<?>> futures = new ArrayList<>(threads);
+        final AtomicInteger running = new AtomicInteger(threads);
+
+        for (int i = 0; i < empties.length; i++) {
+            pending[i] = new AtomicLong(size);
+        }
+
+        long count = 0L;
+
+        try {
+            for (int i = 0; i < threads; i++) {
+                final Worker worker = new Worker(seed + i, keys, queue);
+
+                futures.add(executor.submit(() -> {
+                    try {
+                        worker.run(empties, pending);
+                    } finally {
+                        running.decrementAndGet();
+                    }
+
+                    return null;
+                }));
+            }
+
+            while (running.get() > 0 || !queue.isEmpty()) {
+                final long[] batch = queue.poll(100, TimeUnit.MILLISECONDS);
+
+                if (batch != null) {
+                    final int length = (int) batch[0];
+
+                    for (int n = 1; n < length; n += 3) {
+                        sink.write(batch[n], batch[n + 1], (int) batch[n + 2]);
+                        count++;
+                    }
+                }
+            }
+
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        return count;
+    }
+
+
+    /**
+     * Generates positions on a single thread.
+     */
+    private final class Worker {
+
+        /** Random number generator */
+        private final SplittableRandom random;
+
+        /** Keys of the accepted positions */
+        private final ConcurrentLongSet keys;
+
+        /** Batches waiting to be written */
+        private final BlockingQueue<long[]> queue;
+
+        /** Game where random moves are played */
+        private final OthelloGame game = new OthelloGame();
+
+        /** Game used to check the moves of the opponent */
+        private final OthelloGame checker = new OthelloGame();
+
+        /** Start position of the playouts */
+        private final OthelloBoard start = new OthelloBoard();
+
+        /** Current batch, its first element is its used length */
+        private long[] batch = newBatch();
+
+
+        /**
+         * Creates a new worker.
+         */
+        Worker(long seed, ConcurrentLongSet keys, BlockingQueue<long[]> queue) {
+            this.random = new SplittableRandom(seed);
+            this.keys = keys;
+            this.queue = queue;
+        }
+
+
+        /**
+         * Generates positions until there are none pending.
+         *
+         * @param empties   Empty squares of the positions
+         * @param pending   Positions pending for each count
+         */
+        void run(int[] empties, AtomicLong[] pending) throws InterruptedException {
+            final int[] failures = new int[empties.length];
+            boolean done = false;
+
+            while (!done) {
+                done = true;
+
+                for (int i = 0; i < empties.length; i++) {
+                    if (pending[i].get() <= 0L) {
+                        continue;
+                    }
+
+                    done = false;
+
+                    if (!playout(empties[i])) {
+                        continue;
+                    }
+
+                    final long south = game.state(SOUTH_STONE);
+                    final long north = game.state(NORTH_STONE);
+                    final boolean isSouth = (game.turn() == SOUTH);
+                    final long player = isSouth ? south : north;
+                    final long opponent = isSouth ? north : south;
+
+                    if (!keys.add(Symmetry.canonicalKey(player, opponent))) {
+                        if (++failures[i] >= MAX_FAILURES) {
+                            pending[i].set(0L);
+                        }
+
+                        continue;
+                    }
+
+                    failures[i] = 0;
+
+                    if (pending[i].getAndDecrement() > 0L) {
+                        offer(south, north, game.turn());
+                    }
+                }
+            }
+
+            flush();
+        }
+
+
+        /**
+         * Plays random moves from the start position until a position
+         * with the given empty squares is reached.
+         *
+         * @param empties   Empty squares of the position
+         * @return          If an accepted position was reached
+         */
+        private boolean playout(int empties) {
+            game.setBoard(start);
+
+            while (BOARD_SIZE - stones() > empties) {
+                if (game.hasEnded()) {
+                    return false;
+                }
+
+                final long mobility = game.mobility();
+
+                if (empty(mobility)) {
+                    game.makeMove(OthelloGame.FORFEIT_MOVE);
+                } else {
+                    game.makeMove(pick(mobility));
+                }
+            }
+
+            return accepts();
+        }
+
+
+        /**
+         * Checks if the current position passes the filter.
+         */
+        private boolean accepts() {
+            if (game.hasEnded()) {
+                return false;
+            }
+
+            if (filter == Filter.ANY) {
+                return true;
+            }
+
+            if (empty(game.mobility())) {
+                return false;
+            }
+
+            if (filter == Filter.BOTH) {
+                final long south = game.state(SOUTH_STONE);
+                final long north = game.state(NORTH_STONE);
+                checker.setPosition(south, north, -game.turn());
+                return !empty(checker.mobility());
+            }
+
+            return true;
+        }
+
+
+        /**
+         * Number of stones on the board.
+         */
+        private int stones() {
+            return count(game.state(SOUTH_STONE) | game.state(NORTH_STONE));
+        }
+
+
+        /**
+         * Chooses a random move from a moves bitboard.
+         */
+        private int pick(long mobility) {
+            int skip = random.nextInt(count(mobility));
+
+            while (skip-- > 0) {
+                mobility ^= bit(first(mobility));
+            }
+
+            return first(mobility);
+        }
+
+
+        /**
+         * Adds a position to the current batch.
+         */
+        private void offer(long south, long north, int turn) throws InterruptedException {
+            int length = (int) batch[0];
+
+            batch[length] = south;
+            batch[length + 1] = north;
+            batch[length + 2] = turn;
+            batch[0] = length + 3;
+
+            if (batch[0] == batch.length) {
+                flush();
+            }
+        }
+
+
+        /**
+         * Hands the current batch to the writer.
+         */
+        private void flush() throws InterruptedException {
+            if (batch[0] > 1L) {
+                queue.put(batch);
+                batch = newBatch();
+            }
+        }
+    }
+
+
+    /**
+     * Creates an empty batch of positions.
+     */
+    private static long[] newBatch() {
+        long[] batch = new long[1 + 3 * BATCH_SIZE];
+        batch[0] = 1L;
+        return batch;
+    }
+}
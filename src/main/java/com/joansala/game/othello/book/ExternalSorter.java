@@ -0,0 +1,443 @@
+package com.joansala.game.othello.book;
+
+/*
+ * Aalina engine.
+ * Copyright (C) 2021-2024 Joan Sala Soler <contact@joansala.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import static java.nio.file.StandardOpenOption.*;
+
+
+/**
+ * Sorts book entry files that do not fit in memory.
+ *
+ * A book entry is a record of {@value #ENTRY_SIZE} bytes with three
+ * big-endian longs: a position hash, the number of times the position
+ * was visited and an accumulated value (for example, the sum of the
+ * rewards obtained from the position). Entries are read sequentially
+ * and sorted in runs of a fixed number of entries that are written to
+ * temporary files. The runs are then merged a few at a time until a
+ * single sorted sequence remains, which is written to the output. The
+ * entries of a same hash are combined by adding their counts and
+ * values, and the combined entries visited less than a minimum number
+ * of times are discarded on the last merge. Memory use is bounded by
+ * the run size, regardless of the number of entries.
+ */
+public final class ExternalSorter {
+
+    /** Size in bytes of an entry */
+    public static final int ENTRY_SIZE = 24;
+
+    /** Default number of entries sorted in memory at once */
+    public static final int RUN_SIZE = 1 << 22;
+
+    /** Maximum number of runs merged at once */
+    public static final int FAN_IN = 64;
+
+    /** Buffer size of each file in bytes */
+    private static final int BUFFER_SIZE = ENTRY_SIZE << 12;
+
+    /** Folder where the runs are written */
+    private final Path folder;
+
+    /** Number of entries sorted in memory at once */
+    private final int runSize;
+
+
+    /**
+     * Creates a new sorter.
+     *
+     * @param folder    Folder for the temporary files
+     * @param runSize   Entries sorted in memory at once
+     */
+    public ExternalSorter(Path folder, int runSize) {
+        if (runSize < 1) {
+            throw new IllegalArgumentException(
+                "Run size must be positive");
+        }
+
+        this.folder = folder;
+        this.runSize = runSize;
+    }
+
+
+    /**
+     * Sorts an entry file by hash.
+     *
+     * @param input     Entries file
+     * @param output    Sorted entries file
+     * @param minCount  Minimum combined count of an entry
+     * @return          Number of entries written
+     */
+    public long sort(Path input, Path output, long minCount) throws IOException {
+        List<Path> runs = new ArrayList<>();
+
+        try {
+            writeRuns(input, runs);
+
+            while (runs.size() > FAN_IN) {
+                List<Path> merged = new ArrayList<>();
+
+                for (int i = 0; i < runs.size(); i += FAN_IN) {
+                    List<Path> group = runs.subList(i, Math.min(i + FAN_IN, runs.size()));
+                    Path run = Files.createTempFile(folder, "run", ".bin");
+                    merged.add(run);
+                    merge(group, run, Long.MIN_VALUE);
+                    deleteAll(group);
+                }
+
+                runs = merged;
+            }
+
+            return merge(runs, output, minCount);
+        } finally {
+            deleteAll(runs);
+        }
+    }
+
+
+    /**
+     * Reads the input entries and writes them as sorted runs.
+     *
+     * @param input     Entries file
+     * @param runs      Receives the run files
+     */
+    private void writeRuns(Path input, List<Path> runs) throws IOException {
+        final long[] entries = new long[3 * runSize];
+        int size = 0;
+
+        try (EntryReader reader = new EntryReader(input)) {
+            while (reader.next()) {
+                entries[3 * size] = reader.hash;
+                entries[3 * size + 1] = reader.count;
+                entries[3 * size + 2] = reader.value;
+
+                if (++size == runSize) {
+                    runs.add(writeRun(entries, size));
+                    size = 0;
+                }
+            }
+        }
+
+        if (size > 0 || runs.isEmpty()) {
+            runs.add(writeRun(entries, size));
+        }
+    }
+
+
+    /**
+     * Sorts the given entries and writes them to a new run file.
+     *
+     * @param entries   Flat array of entries
+     * @param size      Number of entries
+     * @return          Run file path
+     */
+    private Path writeRun(long[] entries, int size) throws IOException {
+        final Path run = Files.createTempFile(folder, "run", ".bin");
+
+        sort(entries, 0, size - 1);
+
+        try (EntryWriter writer = new EntryWriter(run)) {
+            for (int i = 0; i < size; i++) {
+                final int n = 3 * i;
+                writer.write(entries[n], entries[n + 1], entries[n + 2]);
+            }
+        }
+
+        return run;
+    }
+
+
+    /**
+     * Merges sorted runs into a file, combining the entries of a
+     * same hash and discarding the combined entries whose count is
+     * below the given minimum.
+     *
+     * @param runs      Sorted run files
+     * @param output    Destination file
+     * @param minCount  Minimum combined count of an entry
+     * @return          Number of entries written
+     */
+    private static long merge(List<Path> runs, Path output, long minCount) throws IOException {
+        final PriorityQueue<EntryReader> queue = new PriorityQueue<>(
+            Math.max(1, runs.size()), (a, b) -> Long.compare(a.hash, b.hash));
+        long written = 0L;
+
+        try (EntryWriter writer = new EntryWriter(output)) {
+            for (Path run : runs) {
+                EntryReader reader = new EntryReader(run);
+
+                if (reader.next()) {
+                    queue.add(reader);
+                } else {
+                    reader.close();
+                }
+            }
+
+            while (!queue.isEmpty()) {
+                EntryReader reader = queue.poll();
+                final long hash = reader.hash;
+                long count = reader.count;
+                long value = reader.value;
+
+                advance(queue, reader);
+
+                while (!queue.isEmpty() && queue.peek().hash == hash) {
+                    reader = queue.poll();
+                    count += reader.count;
+                    value += reader.value;
+                    advance(queue, reader);
+                }
+
+                if (count >= minCount) {
+                    writer.write(hash, count, value);
+                    written++;
+                }
+            }
+        } finally {
+            for (EntryReader reader : queue) {
+                reader.close();
+            }
+        }
+
+        return written;
+    }
+
+
+    /**
+     * Moves a reader to its next entry and puts it back on the queue,
+     * or closes it if it was exhausted.
+     */
+    private static void advance(PriorityQueue<EntryReader> queue, EntryReader reader) throws IOException {
+        if (reader.next()) {
+            queue.add(reader);
+        } else {
+            reader.close();
+        }
+    }
+
+
+    /**
+     * Sorts a range of a flat array of entries by hash.
+     *
+     * @param entries   Flat array of entries
+     * @param low       First entry index
+     * @param high      Last entry index
+     */
+    private static void sort(long[] entries, int low, int high) {
+        while (high - low > 16) {
+            final long pivot = entries[3 * ((low + high) >>> 1)];
+            int i = low;
+            int j = high;
+
+            while (i <= j) {
+                while (entries[3 * i] < pivot) i++;
+                while (entries[3 * j] > pivot) j--;
+
+                if (i <= j) {
+                    swap(entries, i++, j--);
+                }
+            }
+
+            if (j - low < high - i) {
+                sort(entries, low, j);
+                low = i;
+            } else {
+                sort(entries, i, high);
+                high = j;
+            }
+        }
+
+        for (int i = low + 1; i <= high; i++) {
+            for (int j = i; j > low && entries[3 * j - 3] > entries[3 * j]; j--) {
+                swap(entries, j, j - 1);
+            }
+        }
+    }
+
+
+    /**
+     * Swaps two entries of a flat array.
+     */
+    private static void swap(long[] entries, int a, int b) {
+        for (int n = 0; n < 3; n++) {
+            final long value = entries[3 * a + n];
+            entries[3 * a + n] = entries[3 * b + n];
+            entries[3 * b + n] = value;
+        }
+    }
+
+
+    /**
+     * Deletes the given files if they exist.
+     */
+    private static void deleteAll(List<Path> paths) throws IOException {
+        for (Path path : paths) {
+            Files.deleteIfExists(path);
+        }
+    }
+
+
+    /**
+     * Reads entries sequentially from a file.
+     */
+    public static final class EntryReader implements Closeable {
+
+        /** Source file channel */
+        private final FileChannel channel;
+
+        /** Entries read but not decoded yet */
+        private final ByteBuffer buffer;
+
+        /** Hash of the current entry */
+        public long hash;
+
+        /** Count of the current entry */
+        public long count;
+
+        /** Value of the current entry */
+        public long value;
+
+
+        /**
+         * Opens an entries file.
+         *
+         * @param path      File path
+         */
+        public EntryReader(Path path) throws IOException {
+            this.channel = FileChannel.open(path, READ);
+            this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            this.buffer.limit(0);
+        }
+
+
+        /**
+         * Decodes the next entry.
+         *
+         * @return      If an entry was read
+         */
+        public boolean next() throws IOException {
+            if (buffer.remaining() < ENTRY_SIZE) {
+                buffer.compact();
+
+                while (buffer.position() < ENTRY_SIZE) {
+                    if (channel.read(buffer) < 0) {
+                        break;
+                    }
+                }
+
+                buffer.flip();
+
+                if (buffer.remaining() < ENTRY_SIZE) {
+                    return false;
+                }
+            }
+
+            hash = buffer.getLong();
+            count = buffer.getLong();
+            value = buffer.getLong();
+
+            return true;
+        }
+
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+
+    /**
+     * Writes entries sequentially to a file.
+     */
+    public static final class EntryWriter implements Closeable {
+
+        /** Destination file channel */
+        private final FileChannel channel;
+
+        /** Entries pending to be written */
+        private final ByteBuffer buffer;
+
+
+        /**
+         * Creates a new writer that replaces the given file.
+         *
+         * @param path      File path
+         */
+        public EntryWriter(Path path) throws IOException {
+            this.channel = FileChannel.open(path, CREATE, WRITE, TRUNCATE_EXISTING);
+            this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        }
+
+
+        /**
+         * Writes an entry.
+         *
+         * @param hash      Position hash
+         * @param count     Visits count
+         * @param value     Accumulated value
+         */
+        public void write(long hash, long count, long value) throws IOException {
+            if (buffer.remaining() < ENTRY_SIZE) {
+                flush();
+            }
+
+            buffer.putLong(hash);
+            buffer.putLong(count);
+            buffer.putLong(value);
+        }
+
+
+        /**
+         * Writes the pending entries to the file.
+         */
+        public void flush() throws IOException {
+            buffer.flip();
+
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+
+            buffer.clear();
+        }
+
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void close() throws IOException {
+            try {
+                flush();
+            } finally {
+                channel.close();
+            }
+        }
+    }
+}
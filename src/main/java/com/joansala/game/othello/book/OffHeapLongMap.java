@@ -0,0 +1,301 @@
+package com.joansala.game.othello.book;
+
+/*
+ * Aalina engine.
+ * Copyright (C) 2021-2024 Joan Sala Soler <contact@joansala.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+
+/**
+ * Open-addressing hash map of long keys to long values.
+ *
+ * Entries are kept on a direct buffer outside of the heap as pairs of
+ * primitive longs, so each entry takes {@value #SLOT_SIZE} bytes on a
+ * table that is never more than half full, instead of the boxed keys,
+ * values and nodes of a {@code HashMap}. Collisions are resolved with
+ * linear probing and the table doubles its capacity when it reaches
+ * its maximum load. The key zero marks an empty slot, so its value is
+ * stored on a field of its own. This class is not thread-safe.
+ */
+public final class OffHeapLongMap {
+
+    /** Size in bytes of a slot */
+    public static final int SLOT_SIZE = 16;
+
+    /** Maximum number of slots of a table */
+    public static final int MAX_CAPACITY = 1 << 26;
+
+    /** Minimum number of slots of a table */
+    private static final int MIN_CAPACITY = 1 << 4;
+
+    /** Table of key and value pairs */
+    private ByteBuffer table;
+
+    /** Number of slots minus one */
+    private int mask;
+
+    /** Number of entries on the table */
+    private int size = 0;
+
+    /** If the key zero is on the map */
+    private boolean hasZero = false;
+
+    /** Value of the key zero */
+    private long zeroValue = 0L;
+
+
+    /**
+     * Creates a new map.
+     *
+     * @param expected      Expected number of entries
+     */
+    public OffHeapLongMap(int expected) {
+        allocate(capacityFor(expected));
+    }
+
+
+    /**
+     * Number of entries on the map.
+     */
+    public long size() {
+        return hasZero ? size + 1L : size;
+    }
+
+
+    /**
+     * Obtains the value of a key.
+     *
+     * @param key       Entry key
+     * @param fallback  Value to return if the key is not found
+     * @return          Value of the key or the fallback
+     */
+    public long get(long key, long fallback) {
+        if (key == 0L) {
+            return hasZero ? zeroValue : fallback;
+        }
+
+        final int slot = find(key);
+        final int offset = slot * SLOT_SIZE;
+
+        if (table.getLong(offset) == 0L) {
+            return fallback;
+        }
+
+        return table.getLong(offset + Long.BYTES);
+    }
+
+
+    /**
+     * Checks if a key is on the map.
+     *
+     * @param key       Entry key
+     * @return          If the key was found
+     */
+    public boolean contains(long key) {
+        if (key == 0L) {
+            return hasZero;
+        }
+
+        return table.getLong(find(key) * SLOT_SIZE) != 0L;
+    }
+
+
+    /**
+     * Adds a delta to the value of a key. Keys not on the map are
+     * inserted with the delta as their value.
+     *
+     * @param key       Entry key
+     * @param delta     Value to add
+     * @return          New value of the key
+     */
+    public long add(long key, long delta) {
+        if (key == 0L) {
+            hasZero = true;
+            return zeroValue += delta;
+        }
+
+        int offset = find(key) * SLOT_SIZE;
+
+        if (table.getLong(offset) == 0L) {
+            if (size + 1 > maxLoad()) {
+                grow();
+                offset = find(key) * SLOT_SIZE;
+            }
+
+            table.putLong(offset, key);
+            size++;
+        }
+
+        final int position = offset + Long.BYTES;
+        final long value = table.getLong(position) + delta;
+        table.putLong(position, value);
+
+        return value;
+    }
+
+
+    /**
+     * Adds all the entries of another map to this map.
+     *
+     * @param other     Map to add
+     */
+    public void addAll(OffHeapLongMap other) {
+        other.forEach(this::add);
+    }
+
+
+    /**
+     * Performs an action for each entry of the map.
+     *
+     * @param action    Action to perform
+     */
+    public void forEach(EntryConsumer action) {
+        if (hasZero) {
+            action.accept(0L, zeroValue);
+        }
+
+        final int slots = mask + 1;
+
+        for (int slot = 0; slot < slots; slot++) {
+            final int offset = slot * SLOT_SIZE;
+            final long key = table.getLong(offset);
+
+            if (key != 0L) {
+                action.accept(key, table.getLong(offset + Long.BYTES));
+            }
+        }
+    }
+
+
+    /**
+     * Removes all the entries and shrinks the table.
+     */
+    public void clear() {
+        allocate(MIN_CAPACITY);
+        hasZero = false;
+        zeroValue = 0L;
+        size = 0;
+    }
+
+
+    /**
+     * Finds the slot of a key, or the empty slot where it would be
+     * inserted if the key is not on the table.
+     */
+    private int find(long key) {
+        int slot = spread(key) & mask;
+
+        while (true) {
+            final long current = table.getLong(slot * SLOT_SIZE);
+
+            if (current == key || current == 0L) {
+                return slot;
+            }
+
+            slot = (slot + 1) & mask;
+        }
+    }
+
+
+    /**
+     * Doubles the capacity of the table.
+     */
+    private void grow() {
+        final int capacity = mask + 1;
+
+        if (capacity >= MAX_CAPACITY) {
+            throw new IllegalStateException(
+                "Map capacity exceeded");
+        }
+
+        final ByteBuffer previous = table;
+        allocate(capacity << 1);
+
+        for (int slot = 0; slot < capacity; slot++) {
+            final int offset = slot * SLOT_SIZE;
+            final long key = previous.getLong(offset);
+
+            if (key != 0L) {
+                final int target = find(key) * SLOT_SIZE;
+                table.putLong(target, key);
+                table.putLong(target + Long.BYTES,
+                    previous.getLong(offset + Long.BYTES));
+            }
+        }
+    }
+
+
+    /**
+     * Allocates an empty table.
+     */
+    private void allocate(int capacity) {
+        table = ByteBuffer.allocateDirect(capacity * SLOT_SIZE);
+        table.order(ByteOrder.nativeOrder());
+        mask = capacity - 1;
+    }
+
+
+    /**
+     * Maximum number of entries before the table grows.
+     */
+    private int maxLoad() {
+        return (mask + 1) >>> 1;
+    }
+
+
+    /**
+     * Smallest table capacity for an expected number of entries.
+     */
+    private static int capacityFor(int expected) {
+        long capacity = MIN_CAPACITY;
+
+        while (capacity < 2L * expected && capacity < MAX_CAPACITY) {
+            capacity <<= 1;
+        }
+
+        return (int) capacity;
+    }
+
+
+    /**
+     * Spreads the bits of a key to choose its first slot.
+     */
+    private static int spread(long key) {
+        key ^= key >>> 33;
+        key *= 0xC4CEB9FE1A85EC53L;
+        key ^= key >>> 29;
+        return (int) key;
+    }
+
+
+    /**
+     * Receives the entries of a map.
+     */
+    @FunctionalInterface
+    public interface EntryConsumer {
+
+        /**
+         * Performs an action on an entry.
+         *
+         * @param key       Entry key
+         * @param value     Entry value
+         */
+        void accept(long key, long value);
+    }
+}
@@ -0,0 +1,413 @@
+package com.joansala.game.othello.book;
+
+/*
+ * Aalina engine.
+ * Copyright (C) 2021-2024 Joan Sala Soler <contact@joansala.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import com.joansala.game.othello.OthelloBoard;
+import com.joansala.game.othello.OthelloGame;
+import com.joansala.game.othello.io.RecordWriter;
+import com.joansala.game.othello.store.Symmetry;
+import com.joansala.util.suites.Suite;
+import static com.joansala.engine.Game.*;
+import static com.joansala.game.othello.Othello.*;
+
+
+/**
+ * Counts the positions reached on a collection of game transcripts.
+ *
+ * Each transcript is replayed and, for each position up to a maximum
+ * ply, the number of games that reached it and the half points scored
+ * by the player to move on those games are accumulated. Positions are
+ * identified by their {@link Symmetry#canonicalKey canonical key}, so
+ * symmetric positions are counted together. The counters are packed
+ * on a single long as {@code games << 32 | halfPoints}.
+ *
+ * Transcripts are replayed concurrently. Each thread counts on its own
+ * {@link OffHeapLongMap maps}, one for each stripe of the key space,
+ * so threads never contend. Once all the transcripts are replayed the
+ * maps of each stripe are merged in parallel. Transcripts of games
+ * that did not end are not counted.
+ */
+public final class TranscriptIngester {
+
+    /** Transcripts taken at once by a thread */
+    private static final int BATCH_SIZE = 256;
+
+    /** Expected entries of each map */
+    private static final int EXPECTED_SIZE = 1 << 16;
+
+    /** Number of replay threads */
+    private final int threads;
+
+    /** Number of key space stripes */
+    private final int stripes;
+
+    /** Maximum ply of the counted positions */
+    private final int maxPlies;
+
+    /** Number of transcripts counted */
+    private final AtomicLong games = new AtomicLong();
+
+    /** Number of transcripts discarded */
+    private final AtomicLong skipped = new AtomicLong();
+
+
+    /**
+     * Creates a new ingester.
+     *
+     * @param threads   Number of replay threads
+     * @param stripes   Number of key space stripes (a power of two)
+     * @param maxPlies  Maximum ply of the counted positions
+     */
+    public TranscriptIngester(int threads, int stripes, int maxPlies) {
+        if (threads < 1 || maxPlies < 0) {
+            throw new IllegalArgumentException(
+                "Invalid number of threads or plies");
+        }
+
+        if (stripes < 1 || Integer.bitCount(stripes) != 1) {
+            throw new IllegalArgumentException(
+                "Stripes must be a power of two");
+        }
+
+        this.threads = threads;
+        this.stripes = stripes;
+        this.maxPlies = maxPlies;
+    }
+
+
+    /**
+     * Number of transcripts counted so far.
+     */
+    public long games() {
+        return games.get();
+    }
+
+
+    /**
+     * Number of transcripts discarded so far, because they could
+     * not be parsed or their game did not end.
+     */
+    public long skipped() {
+        return skipped.get();
+    }
+
+
+    /**
+     * Counts the positions of the given transcripts.
+     *
+     * @param suites    Transcripts to replay
+     * @return          Merged counters of each stripe
+     */
+    public OffHeapLongMap[] ingest(Iterator<Suite> suites) throws Exception {
+        final OffHeapLongMap[][] counters = new OffHeapLongMap[threads][];
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        try {
+            List<Future<?>> futures = new ArrayList<>(threads);
+
+            for (int i = 0; i < threads; i++) {
+                final OffHeapLongMap[] maps = newStripes();
+                counters[i] = maps;
+
+                futures.add(executor.submit(() -> {
+                    Replayer replayer = new Replayer();
+                    List<Suite> batch;
+
+                    while (!(batch = take(suites)).isEmpty()) {
+                        for (Suite suite : batch) {
+                            replayer.count(suite, maps);
+                        }
+                    }
+
+                    return null;
+                }));
+            }
+
+            await(futures);
+            futures.clear();
+
+            for (int i = 0; i < stripes; i++) {
+                final int stripe = i;
+
+                futures.add(executor.submit(() -> {
+                    OffHeapLongMap merged = counters[0][stripe];
+
+                    for (int t = 1; t < threads; t++) {
+                        merged.addAll(counters[t][stripe]);
+                        counters[t][stripe] = null;
+                    }
+
+                    return null;
+                }));
+            }
+
+            await(futures);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        return counters[0];
+    }
+
+
+    /**
+     * Writes merged counters as book entries, where the count of an
+     * entry is the number of games and its value the half points.
+     *
+     * @param counters  Merged counters of each stripe
+     * @param writer    Entries writer
+     * @return          Number of entries written
+     */
+    public static long write(OffHeapLongMap[] counters,
+        ExternalSorter.EntryWriter writer) throws IOException {
+        long count = 0L;
+
+        try {
+            for (OffHeapLongMap map : counters) {
+                map.forEach((key, value) -> {
+                    try {
+                        writer.write(key, value >>> 32, value & 0xFFFFFFFFL);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+
+                count += map.size();
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        return count;
+    }
+
+
+    /**
+     * Writes each position of the transcripts whose key is on a set
+     * of keys. Each position is written only once.
+     *
+     * @param suites    Transcripts to replay
+     * @param keys      Keys of the positions to write. The values
+     *                  of this map are modified to track the keys
+     *                  already written
+     * @param writer    Records writer
+     * @return          Number of positions written
+     */
+    public long writePositions(Iterator<Suite> suites,
+        OffHeapLongMap keys, RecordWriter writer) throws IOException {
+        final Replayer replayer = new Replayer();
+        long count = 0L;
+
+        while (suites.hasNext()) {
+            final OthelloGame game = replayer.replay(suites.next());
+
+            if (game == null) {
+                continue;
+            }
+
+            for (int ply = replayer.length - 1; ply >= 0; ply--) {
+                final long key = replayer.keys[ply];
+
+                if (keys.contains(key) && keys.add(key, 1L) == 1L) {
+                    writer.writePosition(
+                        game.state(SOUTH_STONE),
+                        game.state(NORTH_STONE),
+                        game.turn());
+                    count++;
+                }
+
+                if (ply > 0) {
+                    game.unmakeMove();
+                }
+            }
+        }
+
+        return count;
+    }
+
+
+    /**
+     * Takes the next batch of transcripts.
+     */
+    private static List<Suite> take(Iterator<Suite> suites) {
+        List<Suite> batch = new ArrayList<>(BATCH_SIZE);
+
+        synchronized (suites) {
+            while (batch.size() < BATCH_SIZE && suites.hasNext()) {
+                batch.add(suites.next());
+            }
+        }
+
+        return batch;
+    }
+
+
+    /**
+     * Waits for all the given tasks to complete.
+     */
+    private static void await(List<Future<?>> futures) throws Exception {
+        for (Future<?> future : futures) {
+            future.get();
+        }
+    }
+
+
+    /**
+     * Creates an empty map for each stripe.
+     */
+    private OffHeapLongMap[] newStripes() {
+        OffHeapLongMap[] maps = new OffHeapLongMap[stripes];
+
+        for (int i = 0; i < stripes; i++) {
+            maps[i] = new OffHeapLongMap(EXPECTED_SIZE);
+        }
+
+        return maps;
+    }
+
+
+    /**
+     * Replays transcripts on a single thread.
+     */
+    private final class Replayer {
+
+        /** Parses the transcripts */
+        private final OthelloBoard parser = new OthelloBoard();
+
+        /** Game where the transcripts are replayed */
+        private final OthelloGame game = new OthelloGame();
+
+        /** Keys of the positions of the last transcript */
+        private final long[] keys = new long[maxPlies + 1];
+
+        /** Turns of the positions of the last transcript */
+        private final int[] turns = new int[maxPlies + 1];
+
+        /** Number of positions of the last transcript */
+        private int length = 0;
+
+        /** Outcome of the last transcript */
+        private int outcome = DRAW_SCORE;
+
+
+        /**
+         * Replays a transcript, recording the key of each position
+         * up to the maximum ply.
+         *
+         * @param suite     Transcript
+         * @return          Game on its last recorded position or
+         *                  {@code null} if the transcript is invalid
+         *                  or its game did not end
+         */
+        OthelloGame replay(Suite suite) {
+            final int[] moves;
+            final OthelloBoard board;
+
+            try {
+                board = parser.toBoard(suite.diagram());
+                moves = board.toMoves(suite.notation());
+                game.setBoard(board);
+            } catch (RuntimeException e) {
+                skipped.incrementAndGet();
+                return null;
+            }
+
+            length = 0;
+            record();
+
+            for (int ply = 0; ply < moves.length; ply++) {
+                if (game.isLegal(moves[ply]) == false) {
+                    skipped.incrementAndGet();
+                    return null;
+                }
+
+                game.makeMove(moves[ply]);
+
+                if (ply < maxPlies) {
+                    record();
+                }
+            }
+
+            if (game.hasEnded() == false) {
+                skipped.incrementAndGet();
+                return null;
+            }
+
+            outcome = game.outcome();
+            game.unmakeMoves(moves.length - length + 1);
+
+            return game;
+        }
+
+
+        /**
+         * Replays a transcript and adds its positions to the counters.
+         *
+         * @param suite     Transcript
+         * @param maps      Counters of each stripe
+         */
+        void count(Suite suite, OffHeapLongMap[] maps) {
+            if (replay(suite) == null) {
+                return;
+            }
+
+            for (int ply = 0; ply < length; ply++) {
+                final long key = keys[ply];
+                final int sign = Integer.signum(outcome * turns[ply]);
+                final OffHeapLongMap map = maps[stripe(key)];
+                map.add(key, (1L << 32) | (sign + 1));
+            }
+
+            games.incrementAndGet();
+        }
+
+
+        /**
+         * Records the key and turn of the current position.
+         */
+        private void record() {
+            final long south = game.state(SOUTH_STONE);
+            final long north = game.state(NORTH_STONE);
+            final boolean isSouth = (game.turn() == SOUTH);
+            final long player = isSouth ? south : north;
+            final long opponent = isSouth ? north : south;
+
+            keys[length] = Symmetry.canonicalKey(player, opponent);
+            turns[length] = game.turn();
+            length++;
+        }
+    }
+
+
+    /**
+     * Stripe of a key.
+     */
+    private int stripe(long key) {
+        return (int) (key >>> 32) & (stripes - 1);
+    }
+}
@@ -0,0 +1,40 @@
+package com.joansala.game.othello.cache;
+
+/*
+ * Aalina engine.
+ * Copyright (C) 2021-2024 Joan Sala Soler <contact@joansala.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import com.joansala.engine.Cache;
+import com.joansala.engine.Game;
+
+
+/**
+ * Transpositions table that can also be probed with the hash of a
+ * position, so the entries of a node's children can be looked up
+ * without making their moves.
+ */
+public interface HashCache extends Cache<Game> {
+
+    /**
+     * Search for a position on the table given its hash. If an entry
+     * is found its values are made available through the getters.
+     *
+     * @param hash      Position hash
+     * @return          If an entry was found
+     */
+    boolean find(long hash);
+}
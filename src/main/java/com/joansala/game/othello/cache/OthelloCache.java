@@ -0,0 +1,570 @@
+package com.joansala.game.othello.cache;
+
+/*
+ * Aalina engine.
+ * Copyright (C) 2021-2024 Joan Sala Soler <contact@joansala.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import com.joansala.engine.Game;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.*;
+import static java.nio.file.StandardOpenOption.*;
+import static com.joansala.engine.Game.*;
+import static com.joansala.game.othello.Othello.RANDOM_SEED;
+import static com.joansala.game.othello.cache.CacheConfig.ENGINE_VERSION;
+
+
+/**
+ * Transpositions table that can be saved to a file and restored.
+ *
+ * Entries are kept on buckets of two slots: the first one holds the
+ * deepest entry of the current search and the second one the latest
+ * entry stored. Each slot packs the score, move, depth, flag and age
+ * of an entry on a long, and its key is the position hash xor-ed with
+ * the packed data, so entries that are torn by concurrent writes are
+ * never found. That allows saving the table while it is being used.
+ *
+ * Saved tables start with a header that holds the engine version and
+ * the Zobrist hashing seed. A table is only restored if both match the
+ * running engine, as hashes or evaluations would differ otherwise.
+ * The first time a restored table is cleared its entries are kept, so
+ * that engines starting a new match still benefit from them.
+ *
+ * Several engines may search on the same table through its views,
+ * which share the slots but not the last entry found.
+ */
+public final class OthelloCache implements HashCache {
+
+    /** Default table size in bytes */
+    public static final long DEFAULT_SIZE = 32L << 20;
+
+    /** Bytes used by each slot */
+    private static final int SLOT_SIZE = 16;
+
+    /** Identifies saved table files */
+    private static final int MAGIC = 0x4F545454;
+
+    /** Version of the file format */
+    private static final int FORMAT = 1;
+
+    /** Offset added to scores to make them positive */
+    private static final int SCORE_OFFSET = 0x8000;
+
+    /** Maximum depth an entry can store */
+    private static final int MAX_DEPTH = 0xFF;
+
+    /** Maximum length of the saved version string */
+    private static final int MAX_VERSION = 0xFF;
+
+    /** Bytes read or written at once on files */
+    private static final int CHUNK_SIZE = 1 << 20;
+
+    /** Slots shared with the views of this table */
+    private final Table table;
+
+    /** Whether the next clear keeps the restored entries */
+    private boolean restored = false;
+
+    /** Score of the last entry found */
+    private int score;
+
+    /** Move of the last entry found */
+    private int move;
+
+    /** Depth of the last entry found */
+    private int depth;
+
+    /** Flag of the last entry found */
+    private int flag;
+
+
+    /**
+     * Creates a new table with the default size.
+     */
+    public OthelloCache() {
+        this(DEFAULT_SIZE);
+    }
+
+
+    /**
+     * Creates a new table that uses at most the given memory.
+     *
+     * @param memory    Table size in bytes
+     */
+    public OthelloCache(long memory) {
+        this.table = new Table();
+        resize(memory);
+    }
+
+
+    /**
+     * Creates a new view of a table.
+     */
+    private OthelloCache(Table table, boolean restored) {
+        this.table = table;
+        this.restored = restored;
+    }
+
+
+    /**
+     * Creates a view of this table. Views share the entries with
+     * this table, so each engine can search on its own view.
+     *
+     * @return          A new cache instance
+     */
+    public OthelloCache view() {
+        return new OthelloCache(table, restored);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getScore() {
+        return score;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getMove() {
+        return move;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getDepth() {
+        return depth;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getFlag() {
+        return flag;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean find(Game game) {
+        return find(game.hash());
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean find(long hash) {
+        final long value = lookup(hash);
+
+        if (value != 0L) {
+            unpack(value);
+            return true;
+        }
+
+        return false;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void store(Game game, int score, int move, int depth, int flag) {
+        final long hash = game.hash();
+
+        if (move == NULL_MOVE) {
+            final long value = lookup(hash);
+
+            if (value != 0L) {
+                move = move(value);
+            }
+        }
+
+        insert(hash, pack(score, move, depth, flag, table.generation));
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void discharge() {
+        table.generation = 0xFF & (table.generation + 1);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void resize(long memory) {
+        final long count = Math.max(2L, memory / SLOT_SIZE);
+        final int size = (int) Long.highestOneBit(Math.min(count, 1L << 30));
+
+        table.keys = new long[size];
+        table.data = new long[size];
+        table.mask = size - 2;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void clear() {
+        if (restored == true) {
+            restored = false;
+            return;
+        }
+
+        Arrays.fill(table.keys, 0L);
+        Arrays.fill(table.data, 0L);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long size() {
+        return (long) SLOT_SIZE * table.keys.length;
+    }
+
+
+    /**
+     * Saves this table to a file. The table is first written to a
+     * temporary file that atomically replaces the target file, so the
+     * previous file is kept if the process is killed while saving.
+     *
+     * @param path      Target file path
+     */
+    public void save(Path path) throws IOException {
+        synchronized (table) {
+            saveTable(path);
+        }
+    }
+
+
+    /**
+     * Writes the slots of this table to a file.
+     */
+    private void saveTable(Path path) throws IOException {
+        final long[] keys = table.keys;
+        final long[] data = table.data;
+        final Path folder = path.toAbsolutePath().getParent();
+        final Path temp = Files.createTempFile(folder, "cache", ".tmp");
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(CHUNK_SIZE);
+        final byte[] version = ENGINE_VERSION.getBytes(UTF_8);
+
+        try (FileChannel channel = FileChannel.open(temp, WRITE, TRUNCATE_EXISTING)) {
+            buffer.putInt(MAGIC).putInt(FORMAT);
+            buffer.putLong(RANDOM_SEED);
+            buffer.putInt(version.length).put(version);
+            buffer.putInt(keys.length).putInt(table.generation);
+
+            for (int slot = 0; slot < keys.length; slot++) {
+                if (buffer.remaining() < SLOT_SIZE) {
+                    write(channel, buffer);
+                }
+
+                buffer.putLong(keys[slot]).putLong(data[slot]);
+            }
+
+            write(channel, buffer);
+            channel.force(true);
+        }
+
+        try {
+            Files.move(temp, path, REPLACE_EXISTING, ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+
+    /**
+     * Restores a table saved to a file. If the saved table has a
+     * different size its entries are inserted into this table.
+     *
+     * @param path      Source file path
+     * @throws IOException If the file is not valid for this engine
+     */
+    public void load(Path path) throws IOException {
+        synchronized (table) {
+            loadTable(path);
+            restored = true;
+        }
+    }
+
+
+    /**
+     * Reads the slots of this table from a file.
+     */
+    private void loadTable(Path path) throws IOException {
+        final long[] keys = table.keys;
+        final long[] data = table.data;
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(CHUNK_SIZE);
+        final byte[] version = ENGINE_VERSION.getBytes(UTF_8);
+
+        buffer.limit(0);
+
+        try (FileChannel channel = FileChannel.open(path, READ)) {
+            read(channel, buffer, 20);
+
+            if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT) {
+                throw new IOException("Not a transpositions table: " + path);
+            }
+
+            if (buffer.getLong() != RANDOM_SEED) {
+                throw new IOException("Table hashing seed mismatch: " + path);
+            }
+
+            final int length = buffer.getInt();
+
+            if (length < 0 || length > MAX_VERSION) {
+                throw new IOException("Not a transpositions table: " + path);
+            }
+
+            read(channel, buffer, length + 8);
+            final byte[] saved = new byte[length];
+            buffer.get(saved);
+
+            if (Arrays.equals(version, saved) == false) {
+                throw new IOException("Table engine version mismatch: " + path);
+            }
+
+            final int slots = buffer.getInt();
+            final int age = buffer.getInt();
+            final long expected = 28L + length + (long) SLOT_SIZE * slots;
+
+            if (slots < 2 || Integer.bitCount(slots) != 1 || channel.size() != expected) {
+                throw new IOException("Truncated transpositions table: " + path);
+            }
+
+            Arrays.fill(keys, 0L);
+            Arrays.fill(data, 0L);
+            table.generation = age;
+
+            for (int slot = 0; slot < slots; slot++) {
+                if (buffer.remaining() < SLOT_SIZE) {
+                    read(channel, buffer, SLOT_SIZE);
+                }
+
+                final long key = buffer.getLong();
+                final long value = buffer.getLong();
+
+                if (slots == keys.length) {
+                    keys[slot] = key;
+                    data[slot] = value;
+                } else if (value != 0L) {
+                    insert(key ^ value, value);
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Stores packed entry data on the bucket of a position. The first
+     * slot is replaced if it is from a previous search or not deeper
+     * than the new entry; otherwise the second slot is replaced.
+     *
+     * @param hash      Position hash
+     * @param value     Packed entry data
+     */
+    private void insert(long hash, long value) {
+        final long[] keys = table.keys;
+        final long[] data = table.data;
+        final int slot = bucket(hash);
+        final long current = data[slot];
+
+        if (matches(slot, hash) || age(current) != age(value) ||
+            depth(current) <= depth(value)) {
+            if (matches(slot + 1, hash)) {
+                keys[slot + 1] = 0L;
+                data[slot + 1] = 0L;
+            }
+
+            keys[slot] = hash ^ value;
+            data[slot] = value;
+        } else {
+            keys[slot + 1] = hash ^ value;
+            data[slot + 1] = value;
+        }
+    }
+
+
+    /**
+     * First slot of the bucket for a position hash.
+     */
+    private int bucket(long hash) {
+        return table.mask & (int) (hash ^ (hash >>> 32));
+    }
+
+
+    /**
+     * Packed data of the entry stored for a position hash.
+     *
+     * @param hash      Position hash
+     * @return          Packed entry data or zero if not found
+     */
+    private long lookup(long hash) {
+        final int slot = bucket(hash);
+        final long value = entry(slot, hash);
+        return value != 0L ? value : entry(slot + 1, hash);
+    }
+
+
+    /**
+     * Packed data of a slot if it holds an entry for a position hash.
+     * The data is read only once and checked against the key, so the
+     * value returned is never torn by a concurrent write.
+     *
+     * @return          Packed entry data or zero if not found
+     */
+    private long entry(int slot, long hash) {
+        final long value = table.data[slot];
+        return (table.keys[slot] ^ value) == hash ? value : 0L;
+    }
+
+
+    /**
+     * Checks if a slot holds an entry for a position hash.
+     */
+    private boolean matches(int slot, long hash) {
+        return entry(slot, hash) != 0L;
+    }
+
+
+    /**
+     * Sets the found entry fields from packed data.
+     */
+    private void unpack(long value) {
+        score = (int) (0xFFFF & value) - SCORE_OFFSET;
+        move = move(value);
+        depth = depth(value);
+        flag = (int) (0x03 & (value >>> 32));
+    }
+
+
+    /**
+     * Packs the data of an entry on a long.
+     */
+    private static long pack(int score, int move, int depth, int flag, int age) {
+        final int clamped = Math.max(0, Math.min(MAX_DEPTH, depth));
+
+        return (0xFFFFL & (score + SCORE_OFFSET)) |
+               ((0xFFL & (move + 1)) << 16) |
+               ((long) clamped << 24) |
+               ((0x03L & flag) << 32) |
+               ((0xFFL & age) << 40);
+    }
+
+
+    /**
+     * Move of packed entry data.
+     */
+    private static int move(long value) {
+        return (int) (0xFF & (value >>> 16)) - 1;
+    }
+
+
+    /**
+     * Depth of packed entry data.
+     */
+    private static int depth(long value) {
+        return (int) (0xFF & (value >>> 24));
+    }
+
+
+    /**
+     * Age of packed entry data.
+     */
+    private static int age(long value) {
+        return (int) (0xFF & (value >>> 40));
+    }
+
+
+    /**
+     * Writes the contents of a buffer to a channel and clears it.
+     */
+    private static void write(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+
+        buffer.clear();
+    }
+
+
+    /**
+     * Reads from a channel until the buffer holds at least the given
+     * number of unread bytes or the channel reaches its end.
+     */
+    private static void read(FileChannel channel, ByteBuffer buffer, int bytes) throws IOException {
+        buffer.compact();
+
+        while (buffer.position() < bytes && channel.read(buffer) > 0) {
+            continue;
+        }
+
+        buffer.flip();
+
+        if (buffer.remaining() < bytes) {
+            throw new IOException("Unexpected end of file");
+        }
+    }
+
+
+    /**
+     * Slots of a table and the age of its current search.
+     */
+    private static final class Table {
+
+        /** Position hash xor-ed with the data of each slot */
+        long[] keys;
+
+        /** Packed entry data of each slot */
+        long[] data;
+
+        /** Mask to obtain a bucket from a hash */
+        int mask;
+
+        /** Age of the current search */
+        int generation = 0;
+    }
+}
@@ -0,0 +1,114 @@
+package com.joansala.game.othello.cli;
+
+/*
+ * Aalina engine.
+ * Copyright (C) 2021-2024 Joan Sala Soler <contact@joansala.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import java.net.ServerSocket;
+import java.util.concurrent.Callable;
+import com.google.inject.Inject;
+import com.google.inject.Injector;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+import com.joansala.engine.Engine;
+import com.joansala.engine.Game;
+import com.joansala.game.othello.OthelloGame;
+import com.joansala.game.othello.cluster.AnalysisServer;
+
+
+/**
+ * Analyses batches of positions concurrently.
+ *
+ * Requests are read from the standard input unless a port is given,
+ * in which case any number of clients can connect to it. Responses are
+ * written out of order as soon as each position is searched.
+ */
+@Command(
+  name = "analyze",
+  description = "Analyses batches of positions on all the processors",
+  mixinStandardHelpOptions = true
+)
+public final class AnalyzeCommand implements Callable<Integer> {
+
+    /** Dependency injector */
+    @Inject private Injector injector;
+
+    @Option(
+      names = "--port",
+      description = "Listening port (0 for any free port)"
+    )
+    private Integer port = null;
+
+    @Option(
+      names = "--threads",
+      description = "Number of positions searched in parallel"
+    )
+    private int threads = Runtime.getRuntime().availableProcessors();
+
+    @Option(
+      names = "--depth",
+      description = "Depth limit per position (plies)"
+    )
+    private int depth = Integer.MAX_VALUE;
+
+    @Option(
+      names = "--movetime",
+      description = "Time limit per position (ms)"
+    )
+    private long moveTime = 1000L;
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Integer call() throws Exception {
+        try (AnalysisServer server = new AnalysisServer(this::newEngine, this::newGame, threads)) {
+            if (port == null) {
+                server.serve(System.in, System.out);
+            } else {
+                try (ServerSocket socket = new ServerSocket(port)) {
+                    System.out.format("Analysis listening on port %d%n", socket.getLocalPort());
+                    server.serve(socket);
+                }
+            }
+        }
+
+        return 0;
+    }
+
+
+    /**
+     * Creates a new engine with the configured limits.
+     */
+    private Engine newEngine() {
+        Engine engine = injector.getInstance(Engine.class);
+
+        engine.setDepth(depth);
+        engine.setMoveTime(moveTime);
+
+        return engine;
+    }
+
+
+    /**
+     * Creates a new game with the configured evaluation function.
+     */
+    private OthelloGame newGame() {
+        return (OthelloGame) injector.getInstance(Game.class);
+    }
+}
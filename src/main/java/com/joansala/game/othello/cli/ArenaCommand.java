@@ -0,0 +1,224 @@
+package com.joansala.game.othello.cli;
+
+/*
+ * Aalina engine.
+ * Copyright (C) 2021-2024 Joan Sala Soler <contact@joansala.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.Callable;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+import com.joansala.game.othello.arena.Arena;
+import com.joansala.game.othello.arena.EngineLoader;
+import com.joansala.game.othello.arena.Openings;
+import com.joansala.game.othello.arena.Sprt;
+import com.joansala.game.othello.arena.Sprt.Verdict;
+
+
+/**
+ * Tests if an engine is stronger than another with self-play.
+ *
+ * Both engines run on this process, each loaded with its own global
+ * options and optionally from another build, and play game pairs from
+ * balanced openings on all the processors. The match stops as soon as
+ * a sequential probability ratio test accepts one of its hypotheses.
+ */
+@Command(
+  name = "arena",
+  description = "Plays two engines against each other until an SPRT verdict",
+  mixinStandardHelpOptions = true
+)
+public final class ArenaCommand implements Callable<Integer> {
+
+    @Option(
+      names = "--test",
+      description = "Global options of the tested engine"
+    )
+    private String testOptions = "";
+
+    @Option(
+      names = "--base",
+      description = "Global options of the reference engine"
+    )
+    private String baseOptions = "";
+
+    @Option(
+      names = "--test-build",
+      description = "Jar or classes folder of the tested engine"
+    )
+    private String testBuild = null;
+
+    @Option(
+      names = "--base-build",
+      description = "Jar or classes folder of the reference engine"
+    )
+    private String baseBuild = null;
+
+    @Option(
+      names = "--threads",
+      description = "Number of games played in parallel"
+    )
+    private int threads = Runtime.getRuntime().availableProcessors();
+
+    @Option(
+      names = "--depth",
+      description = "Depth limit per move (plies)"
+    )
+    private int depth = Integer.MAX_VALUE;
+
+    @Option(
+      names = "--movetime",
+      description = "Time limit per move (ms)"
+    )
+    private long moveTime = 100L;
+
+    @Option(
+      names = "--openings",
+      description = "Openings suite path (random if not set)"
+    )
+    private String openingsPath = null;
+
+    @Option(
+      names = "--openings-size",
+      description = "Number of random openings"
+    )
+    private int openingsSize = 2000;
+
+    @Option(
+      names = "--plies",
+      description = "Moves of each opening"
+    )
+    private int plies = 8;
+
+    @Option(
+      names = "--margin",
+      description = "Maximum absolute score of a random opening"
+    )
+    private int margin = 10;
+
+    @Option(
+      names = "--seed",
+      description = "Random openings seed"
+    )
+    private long seed = 0L;
+
+    @Option(
+      names = "--elo0",
+      description = "Elo difference of the null hypothesis"
+    )
+    private double elo0 = 0.0;
+
+    @Option(
+      names = "--elo1",
+      description = "Elo difference of the alternative hypothesis"
+    )
+    private double elo1 = 5.0;
+
+    @Option(
+      names = "--alpha",
+      description = "False positive rate"
+    )
+    private double alpha = 0.05;
+
+    @Option(
+      names = "--beta",
+      description = "False negative rate"
+    )
+    private double beta = 0.05;
+
+    @Option(
+      names = "--max-pairs",
+      description = "Maximum number of game pairs"
+    )
+    private long maxPairs = 100000L;
+
+    @Option(
+      names = "--report",
+      description = "Game pairs between progress reports"
+    )
+    private long report = 100L;
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Integer call() throws Exception {
+        Sprt sprt = new Sprt(elo0, elo1, alpha, beta);
+        List<int[]> openings = (openingsPath != null) ?
+            Openings.read(openingsPath, plies) :
+            Openings.generate(openingsSize, plies, 4, margin, seed);
+
+        System.out.format("Openings: %d%n", openings.size());
+
+        try (
+            EngineLoader test = newLoader(testBuild, testOptions);
+            EngineLoader base = newLoader(baseBuild, baseOptions)
+        ) {
+            Arena arena = new Arena(test, base);
+            arena.setThreads(threads);
+            arena.setMoveTime(moveTime);
+            arena.setDepth(depth);
+
+            final long start = System.nanoTime();
+            Verdict verdict = arena.run(openings, sprt, maxPairs, this::onPair);
+            final long elapsed = (System.nanoTime() - start) / 1000000L;
+
+            printStatus(sprt);
+            System.out.format("Verdict: %s (%d ms)%n", verdict, elapsed);
+        }
+
+        return 0;
+    }
+
+
+    /**
+     * Prints the status of the test every few pairs.
+     */
+    private void onPair(Sprt sprt) {
+        if (sprt.pairs() % report == 0L) {
+            printStatus(sprt);
+        }
+    }
+
+
+    /**
+     * Prints the current results of the test.
+     */
+    private static synchronized void printStatus(Sprt sprt) {
+        long[] counts = sprt.counts();
+
+        System.out.format(
+            "Pairs %d [%d %d %d %d %d] Elo %.1f LLR %.2f (%.2f, %.2f)%n",
+            sprt.pairs(), counts[0], counts[1], counts[2], counts[3],
+            counts[4], sprt.elo(), sprt.llr(), sprt.lower(), sprt.upper());
+    }
+
+
+    /**
+     * Loads an engine from a build with the given options.
+     */
+    private static EngineLoader newLoader(String build, String options)
+        throws Exception {
+        String trimmed = options.trim();
+        String[] args = trimmed.isEmpty() ? new String[0] : trimmed.split("\\s+");
+        return (build == null) ?
+            new EngineLoader(args) :
+            new EngineLoader(Paths.get(build), args);
+    }
+}
@@ -0,0 +1,154 @@
+package com.joansala.game.othello.cli;
+
+/*
+ * Aalina engine.
+ * Copyright (C) 2021-2024 Joan Sala Soler <contact@joansala.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import java.util.Iterator;
+import java.util.concurrent.Callable;
+import com.google.inject.Inject;
+import com.google.inject.Injector;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+import com.joansala.cache.GameCache;
+import com.joansala.engine.Game;
+import com.joansala.engine.negamax.Negamax;
+import com.joansala.game.othello.OthelloBoard;
+import com.joansala.game.othello.OthelloGame;
+import com.joansala.game.othello.OthelloLeaves;
+import com.joansala.game.othello.bench.BenchGame;
+import com.joansala.util.suites.Suite;
+import com.joansala.util.suites.SuiteReader;
+import static com.joansala.game.othello.Othello.*;
+
+
+/**
+ * Searches a fixed set of positions to a fixed depth.
+ *
+ * Positions are taken every few moves from the games of a suite, and
+ * each one is searched after a new match is started on an engine of
+ * its own, so the transpositions table is always empty when a search
+ * starts. The engine does not use a saved table, a solved positions
+ * store or pondering, thus the total number of nodes is a signature
+ * of the search: it only changes when a change to the code changes
+ * the search tree.
+ */
+@Command(
+  name = "bench",
+  description = "Fixed depth benchmark with a nodes signature",
+  mixinStandardHelpOptions = true
+)
+public final class BenchCommand implements Callable<Integer> {
+
+    /** Dependency injector */
+    @Inject private Injector injector;
+
+    @Option(
+      names = "--file",
+      description = "Benchmark suite path"
+    )
+    private String path = "src/test/resources/othello-bench.suite";
+
+    @Option(
+      names = "--depth",
+      description = "Search depth limit (plies)"
+    )
+    private int depth = 8;
+
+    @Option(
+      names = "--stride",
+      description = "Moves between benchmarked positions"
+    )
+    private int stride = 10;
+
+    @Option(
+      names = "--verbose",
+      description = "Report each searched position"
+    )
+    private boolean verbose = false;
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Integer call() throws Exception {
+        BenchGame game = new BenchGame();
+        OthelloGame configured = (OthelloGame) injector.getInstance(Game.class);
+        long positions = 0L;
+        long elapsed = 0L;
+        long nodes = 0L;
+
+        GameCache cache = new GameCache(GameCache.DEFAULT_SIZE);
+        Negamax engine = new Negamax();
+
+        engine.setCache(cache);
+        engine.setLeaves(new OthelloLeaves());
+        engine.setMoveTime(UNLIMITED_TIME);
+        engine.setDepth(depth);
+        game.setScorer(configured.getScorer());
+
+        try (SuiteReader reader = new SuiteReader(path)) {
+            Iterator<Suite> suites = reader.stream().iterator();
+
+            while (suites.hasNext()) {
+                Suite suite = suites.next();
+                OthelloBoard board = new OthelloBoard().toBoard(suite.diagram());
+                int[] moves = board.toMoves(suite.notation());
+
+                for (int ply = 0; ply < moves.length; ply += stride) {
+                    game.setBoard(board);
+
+                    for (int i = 0; i < ply; i++) {
+                        game.makeMove(moves[i]);
+                    }
+
+                    if (game.hasEnded()) {
+                        break;
+                    }
+
+                    engine.newMatch();
+                    cache.clear();
+                    game.resetNodes();
+
+                    final long start = System.nanoTime();
+                    final int move = engine.computeBestMove(game);
+                    final long time = System.nanoTime() - start;
+
+                    if (verbose) {
+                        System.out.format("%s bestmove %s nodes %d%n",
+                            game.toBoard().toDiagram(),
+                            board.toCoordinates(move), game.nodes());
+                    }
+
+                    nodes += game.nodes();
+                    elapsed += time;
+                    positions++;
+                }
+            }
+        }
+
+        final long nps = (long) (nodes / Math.max(1E-9, elapsed / 1E9));
+
+        System.out.format("Positions searched: %d%n", positions);
+        System.out.format("Total time (ms):    %d%n", elapsed / 1000000L);
+        System.out.format("Nodes searched:     %d%n", nodes);
+        System.out.format("Nodes per second:   %d%n", nps);
+
+        return 0;
+    }
+}
@@ -0,0 +1,143 @@
+package com.joansala.game.othello.cli;
+
+/*
+ * Aalina engine.
+ * Copyright (C) 2021-2024 Joan Sala Soler <contact@joansala.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import java.io.PrintWriter;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.stream.Stream;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+import com.joansala.game.othello.OthelloBoard;
+import com.joansala.game.othello.OthelloGame;
+import com.joansala.game.othello.cluster.ClusterCoordinator;
+import com.joansala.util.suites.Suite;
+import com.joansala.util.suites.SuiteReader;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+
+/**
+ * Searches the positions of a suite on a cluster of workers.
+ *
+ * Each position of the suite is sent to the first worker with a free
+ * window slot, and the best move and score found for it are written
+ * to the output as a tab separated line with the position diagram,
+ * the move and the score. Positions that ended are skipped.
+ */
+@Command(
+  name = "cluster",
+  description = "Searches a suite of positions on cluster workers",
+  mixinStandardHelpOptions = true
+)
+public final class ClusterCommand implements Callable<Integer> {
+
+    @Option(
+      names = "--worker",
+      description = "Worker address as host:port",
+      required = true
+    )
+    private List<String> workers = new ArrayList<>();
+
+    @Option(
+      names = "--window",
+      description = "Unanswered requests per worker"
+    )
+    private int window = ClusterCoordinator.DEFAULT_WINDOW;
+
+    @Option(
+      names = "--file",
+      description = "Suite of positions to search",
+      required = true
+    )
+    private String path;
+
+    @Option(
+      names = "--output",
+      description = "Results file path",
+      required = true
+    )
+    private String output;
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Integer call() throws Exception {
+        List<InetSocketAddress> addresses = new ArrayList<>();
+
+        for (String worker : workers) {
+            addresses.add(toAddress(worker));
+        }
+
+        try (
+            SuiteReader reader = new SuiteReader(path);
+            PrintWriter writer = new PrintWriter(output, UTF_8.name());
+            ClusterCoordinator coordinator =
+                new ClusterCoordinator(addresses, window)
+        ) {
+            Stream<String> diagrams = reader.stream()
+                .map(ClusterCommand::toDiagram)
+                .filter(diagram -> diagram != null);
+
+            Iterator<String> iterator = diagrams.iterator();
+            coordinator.analyze(iterator, result -> writer.println(result));
+        }
+
+        return 0;
+    }
+
+
+    /**
+     * Diagram of the position reached after playing a suite.
+     *
+     * @param suite     Game suite
+     * @return          Diagram or {@code null} if the game ended
+     */
+    private static String toDiagram(Suite suite) {
+        OthelloGame game = new OthelloGame();
+        OthelloBoard board = new OthelloBoard().toBoard(suite.diagram());
+        int[] moves = board.toMoves(suite.notation());
+
+        game.setBoard(board);
+
+        for (int move : moves) {
+            game.makeMove(move);
+        }
+
+        return game.hasEnded() ? null : game.toBoard().toDiagram();
+    }
+
+
+    /**
+     * Parses a worker address.
+     *
+     * @param address   Address as host:port
+     * @return          Socket address
+     */
+    private static InetSocketAddress toAddress(String address) {
+        final int index = address.lastIndexOf(':');
+        final String host = address.substring(0, index);
+        final int port = Integer.parseInt(address.substring(1 + index));
+        return new InetSocketAddress(host, port);
+    }
+}
@@ -0,0 +1,112 @@
+package com.joansala.game.othello.cli;
+
+/*
+ * Aalina engine.
+ * Copyright (C) 2021-2024 Joan Sala Soler <contact@joansala.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import java.io.PrintWriter;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.Callable;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+import com.joansala.game.othello.io.RecordReader;
+import com.joansala.game.othello.io.RecordWriter;
+import com.joansala.game.othello.io.SuiteConverter;
+import com.joansala.util.suites.SuiteReader;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+
+/**
+ * Converts game suites to binary records and back.
+ */
+@Command(
+  name = "convert",
+  description = "Converts suites to binary records and back",
+  mixinStandardHelpOptions = true
+)
+public final class ConvertCommand implements Callable<Integer> {
+
+    @Option(
+      names = "--input",
+      description = "Input file path",
+      required = true
+    )
+    private String input;
+
+    @Option(
+      names = "--output",
+      description = "Output file path",
+      required = true
+    )
+    private String output;
+
+    @Option(
+      names = "--games",
+      description = "Convert whole games instead of positions"
+    )
+    private boolean games = false;
+
+    @Option(
+      names = "--decode",
+      description = "Convert binary records to a suite"
+    )
+    private boolean decode = false;
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Integer call() throws Exception {
+        long count = decode ? decode() : encode();
+        System.out.format("Converted %d records%n", count);
+        return 0;
+    }
+
+
+    /**
+     * Converts the input suite into binary records.
+     */
+    private long encode() throws Exception {
+        Path path = Paths.get(output);
+
+        try (
+            SuiteReader reader = new SuiteReader(input);
+            RecordWriter writer = new RecordWriter(path)
+        ) {
+            return games ?
+                SuiteConverter.toGames(reader.stream().iterator(), writer) :
+                SuiteConverter.toPositions(reader.stream().iterator(), writer);
+        }
+    }
+
+
+    /**
+     * Converts the input binary records into a suite.
+     */
+    private long decode() throws Exception {
+        Path path = Paths.get(input);
+
+        try (
+            RecordReader reader = new RecordReader(path);
+            PrintWriter writer = new PrintWriter(output, UTF_8.name())
+        ) {
+            return SuiteConverter.toSuites(reader, writer, games);
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package com.joansala.game.othello.cli;
+
+/*
+ * Aalina engine.
+ * Copyright (C) 2021-2024 Joan Sala Soler <contact@joansala.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+import com.joansala.game.othello.OthelloBoard;
+import com.joansala.game.othello.OthelloDiagram;
+import com.joansala.game.othello.OthelloGame;
+import com.joansala.game.othello.bench.EndgameProblem;
+import com.joansala.game.othello.search.OthelloSolver;
+import com.joansala.game.othello.search.SolverCache;
+import com.joansala.game.othello.store.SolvedStore;
+import static com.joansala.engine.Game.*;
+
+
+/**
+ * Solves a suite of endgame problems and checks their solutions.
+ *
+ * Problems are independent, so they are solved in parallel on a pool
+ * of threads, each with its own solver. The cache of a solver is cleared
+ * before each problem, thus timings do not depend on the order in which
+ * problems are assigned to the threads.
+ *
+ * With {@code --wld} problems are only solved for a win, loss or draw,
+ * and a solution passes if the sign of its score agrees with the
+ * expected score.
+ *
+ * With {@code --store} exact solutions are looked up on a solved
+ * positions store before solving and added to it afterwards.
+ */
+@Command(
+  name = "endgame",
+  description = "Solves and checks a suite of endgame problems",
+  mixinStandardHelpOptions = true
+)
+public final class EndgameCommand implements Callable<Integer> {
+
+    @Option(
+      names = "--file",
+      description = "Endgame problems suite path"
+    )
+    private String path = "src/test/resources/othello-endgame.suite";
+
+    @Option(
+      names = "--threads",
+      description = "Number of problems solved in parallel"
+    )
+    private int threads = Runtime.getRuntime().availableProcessors();
+
+    @Option(
+      names = "--cache-size",
+      description = "Solver hash table size per thread (bytes)"
+    )
+    private long cacheSize = SolverCache.DEFAULT_SIZE;
+
+    @Option(
+      names = "--wld-cache-size",
+      description = "Solver WLD hash table size per thread (bytes)"
+    )
+    private long wldCacheSize = SolverCache.DEFAULT_SIZE >> 2;
+
+    @Option(
+      names = "--wld",
+      description = "Solve only for a win, loss or draw"
+    )
+    private boolean outcome = false;
+
+    @Option(
+      names = "--store",
+      description = "Solved positions store path"
+    )
+    private Path storePath = null;
+
+    /** Solver of each pool thread */
+    private ThreadLocal<OthelloSolver> solvers;
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Integer call() throws Exception {
+        List<EndgameProblem> problems = readProblems();
+        List<Future<Solution>> futures = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        SolvedStore store = storePath == null ?
+            null : new SolvedStore(storePath);
+
+        solvers = ThreadLocal.withInitial(() -> {
+            OthelloSolver solver = new OthelloSolver(
+                new SolverCache(cacheSize),
+                new SolverCache(wldCacheSize));
+            solver.setStore(store);
+            return solver;
+        });
+
+        final long start = System.nanoTime();
+
+        for (EndgameProblem problem : problems) {
+            futures.add(executor.submit(() -> solve(problem)));
+        }
+
+        OthelloBoard board = new OthelloBoard();
+        long nodes = 0L;
+        int failures = 0;
+
+        for (int i = 0; i < futures.size(); i++) {
+            Solution solution = futures.get(i).get();
+            EndgameProblem problem = problems.get(i);
+
+            boolean passed = isSolved(problem, solution);
+
+            System.out.format(
+                "#%-3d %s score %+3d (%+3d) move %-2s nodes %12d time %8.3f s nps %10d%n",
+                1 + i, passed ? "ok  " : "FAIL", solution.score, problem.score(),
+                toCoordinates(board, solution.move), solution.nodes,
+                solution.time / 1E9, nps(solution.nodes, solution.time));
+
+            nodes += solution.nodes;
+            failures += passed ? 0 : 1;
+        }
+
+        final long elapsed = System.nanoTime() - start;
+        executor.shutdown();
+
+        if (store != null) {
+            store.close();
+        }
+
+        System.out.format("Problems solved:  %d of %d%n",
+            problems.size() - failures, problems.size());
+        System.out.format("Total time (ms):  %d%n", elapsed / 1000000L);
+        System.out.format("Nodes searched:   %d%n", nodes);
+        System.out.format("Nodes per second: %d%n", nps(nodes, elapsed));
+
+        return failures == 0 ? 0 : 1;
+    }
+
+
+    /**
+     * Solves a problem with the solver of the current thread.
+     *
+     * @param problem   Endgame problem
+     * @return          Problem solution
+     */
+    private Solution solve(EndgameProblem problem) {
+        OthelloGame game = new OthelloGame();
+        OthelloSolver solver = solvers.get();
+        OthelloDiagram diagram = new OthelloDiagram();
+
+        game.setPosition(diagram.parse(problem.diagram()));
+        solver.clear();
+        solver.resetNodes();
+
+        final long start = System.nanoTime();
+        final int score = outcome ?
+            solver.solveOutcome(game) :
+            solver.solve(game);
+        final long time = System.nanoTime() - start;
+
+        return new Solution(score, solver.getBestMove(), solver.getNodes(), time);
+    }
+
+
+    /**
+     * Checks if a solution agrees with the expected solution. On WLD
+     * mode only the outcome of the problem is checked.
+     *
+     * @param problem   Endgame problem
+     * @param solution  Problem solution
+     * @return          If the problem was solved
+     */
+    private boolean isSolved(EndgameProblem problem, Solution solution) {
+        if (outcome == true) {
+            return solution.score == Integer.signum(problem.score());
+        }
+
+        return solution.score == problem.score() &&
+            problem.isBestMove(solution.move);
+    }
+
+
+    /**
+     * Reads the problems from the suite file.
+     */
+    private List<EndgameProblem> readProblems() throws Exception {
+        List<EndgameProblem> problems = new ArrayList<>();
+
+        for (String line : Files.readAllLines(Paths.get(path))) {
+            if (line.isBlank() == false && line.startsWith("#") == false) {
+                problems.add(EndgameProblem.parse(line));
+            }
+        }
+
+        return problems;
+    }
+
+
+    /**
+     * Coordinates of a solution move, or {@code none} if the position
+     * has no best move because the game ended.
+     */
+    private static String toCoordinates(OthelloBoard board, int move) {
+        return move == NULL_MOVE ? "none" : board.toCoordinates(move);
+    }
+
+
+    /**
+     * Nodes per second.
+     */
+    private static long nps(long nodes, long nanos) {
+        return (long) (nodes / Math.max(1E-9, nanos / 1E9));
+    }
+
+
+    /**
+     * Result of solving a problem.
+     */
+    private static final class Solution {
+        final int score;
+        final int move;
+        final long nodes;
+        final long time;
+
+        Solution(int score, int move, long nodes, long time) {
+            this.score = score;
+            this.move = move;
+            this.nodes = nodes;
+            this.time = time;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.joansala.game.othello.cli;
+
+/*
+ * Aalina engine.
+ * Copyright (C) 2021-2024 Joan Sala Soler <contact@joansala.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.Callable;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+import com.joansala.game.othello.book.ExternalSorter;
+
+
+/**
+ * Exports book entries sorted by hash with bounded memory.
+ *
+ * Entries visited fewer than a minimum number of times are discarded
+ * and the rest are sorted on temporary files, so the size of the input
+ * is not limited by the available heap.
+ */
+@Command(
+  name = "export",
+  description = "Filters and sorts book entries on disk",
+  mixinStandardHelpOptions = true
+)
+public final class ExportCommand implements Callable<Integer> {
+
+    @Option(
+      names = "--input",
+      description = "Book entries file path",
+      required = true
+    )
+    private String input;
+
+    @Option(
+      names = "--output",
+      description = "Sorted book entries file path",
+      required = true
+    )
+    private String output;
+
+    @Option(
+      names = "--min-count",
+      description = "Minimum visits count of an entry"
+    )
+    private long minCount = 1L;
+
+    @Option(
+      names = "--run-size",
+      description = "Entries sorted in memory at once"
+    )
+    private int runSize = ExternalSorter.RUN_SIZE;
+
+    @Option(
+      names = "--temp",
+      description = "Folder for temporary files"
+    )
+    private String temp = null;
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Integer call() throws Exception {
+        Path target = Paths.get(output).toAbsolutePath();
+        Path folder = (temp != null) ? Paths.get(temp) : target.getParent();
+
+        Files.createDirectories(folder);
+
+        final long start = System.nanoTime();
+        ExternalSorter sorter = new ExternalSorter(folder, runSize);
+        long count = sorter.sort(Paths.get(input), target, minCount);
+        final long elapsed = (System.nanoTime() - start) / 1000000L;
+
+        System.out.format("Exported %d entries (%d ms)%n", count, elapsed);
+
+        return 0;
+    }
+}
@@ -0,0 +1,135 @@
+package com.joansala.game.othello.cli;
+
+/*
+ * Aalina engine.
+ * Copyright (C) 2021-2024 Joan Sala Soler <contact@joansala.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import java.io.BufferedWriter;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.Callable;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+import com.joansala.game.othello.OthelloBoard;
+import com.joansala.game.othello.bench.PositionGenerator;
+import com.joansala.game.othello.bench.PositionGenerator.Filter;
+import com.joansala.game.othello.io.RecordWriter;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+
+/**
+ * Generates unique random positions for benchmarks and training.
+ */
+@Command(
+  name = "generate",
+  description = "Generates unique random positions",
+  mixinStandardHelpOptions = true
+)
+public final class GenerateCommand implements Callable<Integer> {
+
+    @Option(
+      names = "--output",
+      description = "Output file path",
+      required = true
+    )
+    private String output;
+
+    @Option(
+      names = "--empties",
+      description = "Empty squares of the positions",
+      split = ","
+    )
+    private int[] empties = { 20 };
+
+    @Option(
+      names = "--size",
+      description = "Positions for each empty squares count"
+    )
+    private long size = 1000L;
+
+    @Option(
+      names = "--filter",
+      description = "Accepted positions (ANY, MOVABLE, BOTH)"
+    )
+    private Filter filter = Filter.MOVABLE;
+
+    @Option(
+      names = "--threads",
+      description = "Number of generator threads"
+    )
+    private int threads = Runtime.getRuntime().availableProcessors();
+
+    @Option(
+      names = "--seed",
+      description = "Random generator seed"
+    )
+    private long seed = System.nanoTime();
+
+    @Option(
+      names = "--suite",
+      description = "Write a suite instead of binary records"
+    )
+    private boolean suite = false;
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Integer call() throws Exception {
+        PositionGenerator generator =
+            new PositionGenerator(threads, seed, filter);
+
+        final long start = System.nanoTime();
+        final long count = suite ?
+            writeSuite(generator) : writeRecords(generator);
+        final long elapsed = (System.nanoTime() - start) / 1000000L;
+
+        System.out.format("Generated %d positions (%d ms)%n", count, elapsed);
+
+        return 0;
+    }
+
+
+    /**
+     * Writes the generated positions as binary records.
+     */
+    private long writeRecords(PositionGenerator generator) throws Exception {
+        try (RecordWriter writer = new RecordWriter(Paths.get(output))) {
+            return generator.generate(empties, size, writer::writePosition);
+        }
+    }
+
+
+    /**
+     * Writes the generated positions as a suite of diagrams.
+     */
+    private long writeSuite(PositionGenerator generator) throws Exception {
+        Path path = Paths.get(output);
+
+        try (
+            BufferedWriter buffer = Files.newBufferedWriter(path, UTF_8);
+            PrintWriter writer = new PrintWriter(buffer)
+        ) {
+            return generator.generate(empties, size, (south, north, turn) -> {
+                writer.println(new OthelloBoard(south, north, turn).toDiagram());
+            });
+        }
+    }
+}
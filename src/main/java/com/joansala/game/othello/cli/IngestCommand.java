@@ -0,0 +1,172 @@
+package com.joansala.game.othello.cli;
+
+/*
+ * Aalina engine.
+ * Copyright (C) 2021-2024 Joan Sala Soler <contact@joansala.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.Callable;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+import com.joansala.game.othello.book.ExternalSorter;
+import com.joansala.game.othello.book.OffHeapLongMap;
+import com.joansala.game.othello.book.TranscriptIngester;
+import com.joansala.game.othello.io.RecordWriter;
+import com.joansala.util.suites.SuiteReader;
+
+
+/**
+ * Counts the positions of game transcripts to seed the openings book.
+ *
+ * Replays the transcripts of a suite and writes a candidates file of
+ * book entries sorted by canonical key, where the count of an entry
+ * is the number of games that reached the position and its value the
+ * half points scored on them by the player to move.
+ */
+@Command(
+  name = "ingest",
+  description = "Counts positions of game transcripts",
+  mixinStandardHelpOptions = true
+)
+public final class IngestCommand implements Callable<Integer> {
+
+    @Option(
+      names = "--input",
+      description = "Game transcripts suite path",
+      required = true
+    )
+    private String input;
+
+    @Option(
+      names = "--output",
+      description = "Candidate book entries file path",
+      required = true
+    )
+    private String output;
+
+    @Option(
+      names = "--positions",
+      description = "Also write the candidate positions to this file"
+    )
+    private String positions = null;
+
+    @Option(
+      names = "--plies",
+      description = "Maximum ply of the counted positions"
+    )
+    private int plies = 20;
+
+    @Option(
+      names = "--min-count",
+      description = "Minimum number of games of a candidate"
+    )
+    private long minCount = 2L;
+
+    @Option(
+      names = "--threads",
+      description = "Number of replay threads"
+    )
+    private int threads = Runtime.getRuntime().availableProcessors();
+
+    @Option(
+      names = "--stripes",
+      description = "Key space stripes (a power of two)"
+    )
+    private int stripes = 16;
+
+    @Option(
+      names = "--temp",
+      description = "Folder for temporary files"
+    )
+    private String temp = null;
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Integer call() throws Exception {
+        Path target = Paths.get(output).toAbsolutePath();
+        Path folder = (temp != null) ? Paths.get(temp) : target.getParent();
+        TranscriptIngester ingester =
+            new TranscriptIngester(threads, stripes, plies);
+
+        Files.createDirectories(folder);
+        Path unsorted = Files.createTempFile(folder, "ingest-", ".entries");
+
+        final long start = System.nanoTime();
+        long count = 0L;
+
+        try {
+            try (SuiteReader reader = new SuiteReader(input)) {
+                OffHeapLongMap[] counters = ingester.ingest(
+                    reader.stream().iterator());
+
+                try (ExternalSorter.EntryWriter writer =
+                    new ExternalSorter.EntryWriter(unsorted)) {
+                    TranscriptIngester.write(counters, writer);
+                }
+            }
+
+            ExternalSorter sorter =
+                new ExternalSorter(folder, ExternalSorter.RUN_SIZE);
+            count = sorter.sort(unsorted, target, minCount);
+        } finally {
+            Files.deleteIfExists(unsorted);
+        }
+
+        final long elapsed = (System.nanoTime() - start) / 1000000L;
+
+        System.out.format("Ingested %d games (%d skipped)%n",
+            ingester.games(), ingester.skipped());
+        System.out.format("Exported %d candidates (%d ms)%n", count, elapsed);
+
+        if (positions != null) {
+            long written = writePositions(ingester, target, count);
+            System.out.format("Wrote %d positions%n", written);
+        }
+
+        return 0;
+    }
+
+
+    /**
+     * Replays the transcripts again writing the candidate positions.
+     */
+    private long writePositions(TranscriptIngester ingester,
+        Path candidates, long count) throws Exception {
+        int expected = (int) Math.min(count, OffHeapLongMap.MAX_CAPACITY >>> 1);
+        OffHeapLongMap keys = new OffHeapLongMap(expected);
+
+        try (ExternalSorter.EntryReader reader =
+            new ExternalSorter.EntryReader(candidates)) {
+            while (reader.next()) {
+                keys.add(reader.hash, 0L);
+            }
+        }
+
+        try (
+            SuiteReader reader = new SuiteReader(input);
+            RecordWriter writer = new RecordWriter(Paths.get(positions))
+        ) {
+            return ingester.writePositions(
+                reader.stream().iterator(), keys, writer);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.joansala.game.othello.cli;
+
+/*
+ * Aalina engine.
+ * Copyright (C) 2021-2024 Joan Sala Soler <contact@joansala.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+import java.util.Iterator;
+import java.util.concurrent.Callable;
+import com.google.inject.Inject;
+import com.google.inject.Injector;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+import com.joansala.engine.Engine;
+import com.joansala.engine.Game;
+import com.joansala.game.othello.OthelloBoard;
+import com.joansala.game.othello.bench.Latencies;
+import com.joansala.util.suites.Suite;
+import com.joansala.util.suites.SuiteReader;
+import static com.joansala.engine.Game.*;
+
+
+/**
+ * Measures the time the engine takes to return a move.
+ *
+ * Positions are taken every few moves from the games of a suite and
+ * searched with a time limit by the same engine, as a game service
+ * would do. The suite is first searched a number of times without
+ * recording anything, so the measures are taken on compiled code.
+ */
+@Command(
+  name = "latency",
+  description = "Measures the time to bestmove with a time limit",
+  mixinStandardHelpOptions = true
+)
+public final class LatencyCommand implements Callable<Integer> {
+
+    /** Dependency injector */
+    @Inject private Injector injector;
+
+    @Option(
+      names = "--file",
+      description = "Benchmark suite path"
+    )
+    private String path = "src/test/resources/othello-bench.suite";
+
+    @Option(
+      names = "--movetime",
+      description = "Time limit per move (ms)"
+    )
+    private long moveTime = 50L;
+
+    @Option(
+      names = "--stride",
+      description = "Moves between measured positions"
+    )
+    private int stride = 2;
+
+    @Option(
+      names = "--warmup",
+      description = "Unrecorded passes over the suite"
+    )
+    private int warmup = 1;
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Integer call() throws Exception {
+        Engine engine = injector.getInstance(Engine.class);
+        Latencies latencies = new Latencies();
+        long[] overruns = { 0L };
+
+        engine.setMoveTime(moveTime);
+
+        for (int pass = 0; pass < warmup; pass++) {
+            measure(engine, new Latencies(), overruns);
+        }
+
+        overruns[0] = 0L;
+        measure(engine, latencies, overruns);
+
+        System.out.format("Time to bestmove: %s%n", latencies);
+        System.out.format("Over the limit:   %d%n", overruns[0]);
+
+        return 0;
+    }
+
+
+    /**
+     * Searches the positions of the suite and records the time each
+     * search took to return a move.
+     *
+     * @param engine        Search engine
+     * @param latencies     Time to bestmove
+     * @param overruns      Searches that exceeded the limit
+     */
+    private void measure(Engine engine, Latencies latencies, long[] overruns) throws Exception {
+        final long limit = moveTime * 1000000L;
+
+        try (SuiteReader reader = new SuiteReader(path)) {
+            Iterator<Suite> suites = reader.stream().iterator();
+
+            while (suites.hasNext()) {
+                Suite suite = suites.next();
+                OthelloBoard board = new OthelloBoard().toBoard(suite.diagram());
+                Game game = injector.getInstance(Game.class);
+                int[] moves = board.toMoves(suite.notation());
+
+                game.setBoard(board);
+                engine.newMatch();
+
+                for (int ply = 0; ply < moves.length; ply++) {
+                    if (game.hasEnded()) {
+                        break;
+                    }
+
+                    if (ply % stride == 0) {
+                        final long start = System.nanoTime();
+                        final int move = engine.computeBestMove(game);
+                        final long time = System.nanoTime() - start;
+
+                        if (move == NULL_MOVE) {
+                            throw new IllegalStateException(
+                                "No move returned for " + game.toBoard());
+                        }
+
+                        if (time > limit) {
+                            overruns[0]++;
+                        }
+
+                        latencies.record(time);
+                    }
+
+                    game.makeMove(moves[ply]);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.joansala.game.othello.cli;
+
+/*
+ * Aalina engine.
+ * Copyright (C) 2021-2024 Joan Sala Soler <contact@joansala.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+import com.joansala.game.othello.bench.Latencies;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+
+/**
+ * Measures the time an engine process needs to answer its first move.
+ *
+ * Spawns the engine command repeatedly and, for each run, measures the
+ * time elapsed from the process creation until it answers the first
+ * {@code readyok} and the first {@code bestmove} of a match.
+ */
+@Command(
+  name = "startup",
+  description = "Measures engine time to first best move",
+  mixinStandardHelpOptions = true
+)
+public final class StartupCommand implements Callable<Integer> {
+
+    @Option(
+      names = "--command",
+      description = "Engine process command",
+      required = true
+    )
+    private String command;
+
+    @Option(
+      names = "--runs",
+      description = "Number of engine processes to spawn"
+    )
+    private int runs = 20;
+
+    @Option(
+      names = "--movetime",
+      description = "Time limit for the first move (ms)"
+    )
+    private long moveTime = 100L;
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Integer call() throws Exception {
+        Latencies ready = new Latencies();
+        Latencies first = new Latencies();
+
+        for (int run = 0; run < runs; run++) {
+            measure(ready, first);
+        }
+
+        System.out.format("Time to readyok:  %s%n", ready);
+        System.out.format("Time to bestmove: %s%n", first);
+
+        return 0;
+    }
+
+
+    /**
+     * Spawns the engine once and records its response times.
+     *
+     * @param ready     Time to the first readyok
+     * @param first     Time to the first bestmove
+     */
+    private void measure(Latencies ready, Latencies first) throws Exception {
+        final long start = System.nanoTime();
+
+        Process process = new ProcessBuilder(command.trim().split("\\s+"))
+            .redirectError(ProcessBuilder.Redirect.DISCARD)
+            .start();
+
+        try (
+            PrintWriter writer = new PrintWriter(process.getOutputStream(), true, UTF_8);
+            BufferedReader reader = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), UTF_8))
+        ) {
+            writer.println("uci");
+            writer.println("isready");
+            awaitResponse(reader, "readyok");
+            ready.record(System.nanoTime() - start);
+
+            writer.println("ucinewgame");
+            writer.println("position startpos");
+            writer.println("go movetime " + moveTime);
+            awaitResponse(reader, "bestmove");
+            first.record(System.nanoTime() - start);
+
+            writer.println("quit");
+        } finally {
+            if (process.waitFor(1, TimeUnit.SECONDS) == false) {
+                process.destroyForcibly();
+            }
+        }
+    }
+
+
+    /**
+     * Reads engine output until a line starts with a token.
+     *
+     * @param reader    Engine output reader
+     * @param token     Expected token
+     */
+    private static void awaitResponse(BufferedReader reader, String token) throws IOException {
+        String line;
+
+        while ((line = reader.readLine()) != null) {
+            if (line.startsWith(token)) {
+                return;
+            }
+        }
+
+        throw new IOException("Engine exited before answering " + token);
+    }
+}
@@ -0,0 +1,87 @@
+package com.joansala.game.othello.cli;
+
+/*
+ * Aalina engine.
+ * Copyright (C) 2021-2024 Joan Sala Soler <contact@joansala.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.Callable;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+import com.joansala.game.othello.OthelloLeaves;
+import com.joansala.game.othello.store.SolvedStore;
+
+
+/**
+ * Shows and compacts a solved positions store.
+ */
+@Command(
+  name = "store",
+  description = "Shows and compacts a solved positions store",
+  mixinStandardHelpOptions = true
+)
+public final class StoreCommand implements Callable<Integer> {
+
+    @Option(
+      names = "--file",
+      description = "Solved positions store path"
+    )
+    private String path = OthelloLeaves.STORE_PATH;
+
+    @Option(
+      names = "--compact",
+      description = "Remove the superseded records"
+    )
+    private boolean compact = false;
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Integer call() throws Exception {
+        Path file = Paths.get(path);
+
+        if (Files.exists(file) == false) {
+            System.err.format("Store not found: %s%n", path);
+            return 1;
+        }
+
+        try (SolvedStore store = new SolvedStore(file)) {
+            printStatus(store, file);
+
+            if (compact == true) {
+                store.compact();
+                printStatus(store, file);
+            }
+        }
+
+        return 0;
+    }
+
+
+    /**
+     * Prints the number of records and the size of a store.
+     */
+    private static void printStatus(SolvedStore store, Path file) throws Exception {
+        System.out.format("Positions: %d%n", store.size());
+        System.out.format("Records:   %d%n", store.records());
+        System.out.format("File size: %d bytes%n", Files.size(file));
+    }
+}
@@ -0,0 +1,83 @@
+package com.joansala.game.othello.cli;
+
+/*
+ * Aalina engine.
+ * Copyright (C) 2021-2024 Joan Sala Soler <contact@joansala.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import java.util.concurrent.Callable;
+import com.google.inject.Inject;
+import com.google.inject.Injector;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+import com.joansala.engine.Engine;
+import com.joansala.engine.Game;
+import com.joansala.game.othello.OthelloGame;
+import com.joansala.game.othello.cluster.ClusterWorker;
+
+
+/**
+ * Serves position searches to a cluster coordinator.
+ */
+@Command(
+  name = "worker",
+  description = "Searches positions sent by a cluster coordinator",
+  mixinStandardHelpOptions = true
+)
+public final class WorkerCommand implements Callable<Integer> {
+
+    /** Dependency injector */
+    @Inject private Injector injector;
+
+    @Option(
+      names = "--port",
+      description = "Listening port (0 for any free port)"
+    )
+    private int port = 0;
+
+    @Option(
+      names = "--depth",
+      description = "Depth limit per position (plies)"
+    )
+    private int depth = Integer.MAX_VALUE;
+
+    @Option(
+      names = "--movetime",
+      description = "Time limit per position (ms)"
+    )
+    private long moveTime = 1000L;
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Integer call() throws Exception {
+        Engine engine = injector.getInstance(Engine.class);
+
+        engine.setDepth(depth);
+        engine.setMoveTime(moveTime);
+
+        OthelloGame game = (OthelloGame) injector.getInstance(Game.class);
+
+        try (ClusterWorker worker = new ClusterWorker(engine, game, port)) {
+            System.out.format("Worker listening on port %d%n", worker.getPort());
+            worker.serve();
+        }
+
+        return 0;
+    }
+}
@@ -0,0 +1,234 @@
+package com.joansala.game.othello.cli;
+
+/*
+ * Aalina engine.
+ * Copyright (C) 2021-2024 Joan Sala Soler <contact@joansala.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import java.util.Iterator;
+import java.util.concurrent.Callable;
+import com.google.inject.Inject;
+import com.google.inject.Injector;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+import com.joansala.engine.Engine;
+import com.joansala.engine.Game;
+import com.joansala.engine.Roots;
+import com.joansala.game.othello.BackgroundRoots;
+import com.joansala.game.othello.OthelloBoard;
+import com.joansala.game.othello.OthelloGame;
+import com.joansala.util.suites.Suite;
+import com.joansala.util.suites.SuiteReader;
+import static com.joansala.engine.Game.*;
+import static com.joansala.game.othello.Othello.*;
+
+
+/**
+ * Runs a deterministic workload that exercises the engine hot paths.
+ *
+ * This command is meant to be run on an instrumented native image to
+ * collect the profile used by the optimized build. It counts perft
+ * nodes on a suite of positions, searches a suite of games to a fixed
+ * depth and probes the openings book on their first moves. The same
+ * inputs always produce the same work, so profiles are reproducible.
+ */
+@Command(
+  name = "workload",
+  description = "Runs a deterministic profiling workload",
+  mixinStandardHelpOptions = true
+)
+public final class WorkloadCommand implements Callable<Integer> {
+
+    /** Dependency injector */
+    @Inject private Injector injector;
+
+    @Option(
+      names = "--perft-file",
+      description = "Perft suite path"
+    )
+    private String perftPath = "src/test/resources/othello-perft.suite";
+
+    @Option(
+      names = "--perft-depth",
+      description = "Perft depth limit (plies)"
+    )
+    private int perftDepth = 7;
+
+    @Option(
+      names = "--bench-file",
+      description = "Search suite path"
+    )
+    private String benchPath = "src/test/resources/othello-bench.suite";
+
+    @Option(
+      names = "--depth",
+      description = "Search depth limit (plies)"
+    )
+    private int depth = 10;
+
+    @Option(
+      names = "--book-plies",
+      description = "Openings book probes per game"
+    )
+    private int bookPlies = 16;
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Integer call() throws Exception {
+        runPerft();
+        runSearches();
+        runBookProbes();
+        return 0;
+    }
+
+
+    /**
+     * Counts the perft nodes of each suite position.
+     */
+    private void runPerft() throws Exception {
+        OthelloGame game = newGame();
+
+        try (SuiteReader reader = new SuiteReader(perftPath)) {
+            Iterator<Suite> suites = reader.stream().iterator();
+
+            while (suites.hasNext()) {
+                setPosition(game, suites.next(), Integer.MAX_VALUE);
+                long nodes = perft(game, perftDepth);
+                System.out.format("perft %d nodes %d%n", perftDepth, nodes);
+            }
+        }
+    }
+
+
+    /**
+     * Searches to a fixed depth each position of the search suite,
+     * which is the position reached after playing half of its moves.
+     */
+    private void runSearches() throws Exception {
+        OthelloGame game = newGame();
+        Engine engine = injector.getInstance(Engine.class);
+
+        engine.setDepth(depth);
+        engine.setMoveTime(UNLIMITED_TIME);
+
+        try (SuiteReader reader = new SuiteReader(benchPath)) {
+            Iterator<Suite> suites = reader.stream().iterator();
+
+            while (suites.hasNext()) {
+                Suite suite = suites.next();
+                setPosition(game, suite, moveCount(suite) / 2);
+                engine.newMatch();
+
+                if (game.hasEnded() == false) {
+                    int move = engine.computeBestMove(game);
+                    System.out.format("search %d move %d%n", depth, move);
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Probes the openings book on the first moves of each game.
+     */
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    private void runBookProbes() throws Exception {
+        OthelloGame game = newGame();
+        Roots roots = injector.getInstance(Roots.class);
+
+        if (roots instanceof BackgroundRoots) {
+            ((BackgroundRoots) roots).await();
+        }
+
+        try (SuiteReader reader = new SuiteReader(benchPath)) {
+            Iterator<Suite> suites = reader.stream().iterator();
+
+            while (suites.hasNext()) {
+                Suite suite = suites.next();
+
+                for (int plies = 0; plies < bookPlies; plies++) {
+                    setPosition(game, suite, plies);
+                    roots.newMatch();
+                    int move = roots.pickBestMove(game);
+                    System.out.format("book %d move %d%n", plies, move);
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Creates a game with the configured evaluation function.
+     */
+    private OthelloGame newGame() {
+        return (OthelloGame) injector.getInstance(Game.class);
+    }
+
+
+    /**
+     * Counts the leaf nodes of the game tree up to a depth.
+     *
+     * @param game      Game state
+     * @param depth     Depth limit
+     * @return          Number of leaf nodes
+     */
+    private static long perft(OthelloGame game, int depth) {
+        if (depth == 0 || game.hasEnded()) {
+            return 1L;
+        }
+
+        long count = 0L;
+        int move = NULL_MOVE;
+
+        while ((move = game.nextMove()) != NULL_MOVE) {
+            game.makeMove(move);
+            count += perft(game, depth - 1);
+            game.unmakeMove();
+        }
+
+        return count;
+    }
+
+
+    /**
+     * Sets the position reached after playing a suite up to a ply.
+     *
+     * @param game      Game state
+     * @param suite     Game suite
+     * @param plies     Maximum number of moves to play
+     */
+    private static void setPosition(OthelloGame game, Suite suite, int plies) {
+        OthelloBoard board = new OthelloBoard().toBoard(suite.diagram());
+        int[] moves = board.toMoves(suite.notation());
+
+        game.setBoard(board);
+
+        for (int i = 0; i < Math.min(plies, moves.length); i++) {
+            game.makeMove(moves[i]);
+        }
+    }
+
+
+    /**
+     * Number of moves on a suite.
+     */
+    private static int moveCount(Suite suite) {
+        return new OthelloBoard().toMoves(suite.notation()).length;
+    }
+}
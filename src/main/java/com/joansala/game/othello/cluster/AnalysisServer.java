@@ -0,0 +1,277 @@
+package com.joansala.game.othello.cluster;
+
+/*
+ * Aalina engine.
+ * Copyright (C) 2021-2024 Joan Sala Soler <contact@joansala.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.function.Supplier;
+import com.joansala.engine.Engine;
+import com.joansala.engine.Report;
+import com.joansala.game.othello.OthelloBoard;
+import com.joansala.game.othello.OthelloDiagram;
+import com.joansala.game.othello.OthelloGame;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static com.joansala.game.othello.cluster.ClusterProtocol.*;
+
+
+/**
+ * Analyses batches of positions concurrently on a single process.
+ *
+ * Requests follow the cluster line protocol and are read from standard
+ * input or from any number of socket connections. Each connection is
+ * read on its own thread, while searches run on a bounded pool with one
+ * engine and game per thread. Responses are written as soon as each
+ * search completes, thus they may not follow the order of the requests
+ * and must be matched by their identifiers.
+ *
+ * The number of requests waiting for a search thread is bounded, so
+ * readers stop consuming input while all the threads are busy.
+ */
+public class AnalysisServer implements Closeable {
+
+    /** Requests that can wait for a search thread */
+    private static final int QUEUED_PER_THREAD = 2;
+
+    /** Threads that run the searches */
+    private final ExecutorService searchers;
+
+    /** Threads that read the connections */
+    private final ExecutorService readers;
+
+    /** Analyzer of each search thread */
+    private final ThreadLocal<Analyzer> analyzers;
+
+    /** Bounds the requests submitted and not yet completed */
+    private final Semaphore permits;
+
+
+    /**
+     * Creates a new server.
+     *
+     * @param engines   Creates a configured engine for each thread
+     * @param games     Creates a configured game for each thread
+     * @param threads   Number of search threads
+     */
+    public AnalysisServer(Supplier<Engine> engines, Supplier<OthelloGame> games, int threads) {
+        this.searchers = Executors.newFixedThreadPool(threads, daemon("analysis-search"));
+        this.readers = Executors.newCachedThreadPool(daemon("analysis-reader"));
+        this.analyzers = ThreadLocal.withInitial(() -> new Analyzer(engines.get(), games.get()));
+        this.permits = new Semaphore(threads * (1 + QUEUED_PER_THREAD));
+    }
+
+
+    /**
+     * Serves the connections accepted on a socket until it is closed.
+     *
+     * @param server    Server socket
+     */
+    public void serve(ServerSocket server) throws IOException {
+        while (server.isClosed() == false) {
+            try {
+                final Socket socket = server.accept();
+                readers.execute(() -> handle(socket));
+            } catch (IOException e) {
+                if (server.isClosed() == false) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Answers all the requests read from an input stream and waits
+     * until all of them were answered.
+     *
+     * @param input     Requests stream
+     * @param output    Responses stream
+     */
+    public void serve(InputStream input, OutputStream output) throws IOException {
+        final BufferedReader reader = new BufferedReader(
+            new InputStreamReader(input, UTF_8));
+        final Writer writer = new BufferedWriter(
+            new OutputStreamWriter(output, UTF_8));
+        final Phaser pending = new Phaser(1);
+
+        try {
+            String line;
+
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank() == false) {
+                    submit(line, writer, pending);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            pending.arriveAndAwaitAdvance();
+        }
+
+        synchronized (writer) {
+            writer.flush();
+        }
+    }
+
+
+    /**
+     * Answers the requests of a socket connection and closes it.
+     */
+    private void handle(Socket socket) {
+        try (Socket connection = socket) {
+            connection.setTcpNoDelay(true);
+            serve(connection.getInputStream(), connection.getOutputStream());
+        } catch (IOException | UncheckedIOException e) {
+            // The client closed the connection
+        }
+    }
+
+
+    /**
+     * Submits a request to the search threads, waiting while
+     * too many requests are pending.
+     *
+     * @param line      Request line
+     * @param writer    Where to write the response
+     * @param pending   Pending requests of the connection
+     */
+    private void submit(String line, Writer writer, Phaser pending) throws InterruptedException {
+        permits.acquire();
+        pending.register();
+
+        searchers.execute(() -> {
+            try {
+                final String response = analyzers.get().analyze(line);
+
+                synchronized (writer) {
+                    writer.write(response);
+                    writer.write(System.lineSeparator());
+                    writer.flush();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                pending.arriveAndDeregister();
+                permits.release();
+            }
+        });
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() {
+        readers.shutdownNow();
+        searchers.shutdownNow();
+    }
+
+
+    /**
+     * Creates daemon threads with the given name.
+     */
+    private static ThreadFactory daemon(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+
+    /**
+     * Searches positions with an engine owned by a single thread.
+     */
+    private static final class Analyzer {
+
+        /** Search engine */
+        private final Engine engine;
+
+        /** Game where positions are set */
+        private final OthelloGame game;
+
+        /** Board used to format moves */
+        private final OthelloBoard parser;
+
+        /** Parses the requested diagrams */
+        private final OthelloDiagram diagram;
+
+        /** Score of the last search report */
+        private int score;
+
+
+        /**
+         * Creates a new analyzer for an engine.
+         */
+        Analyzer(Engine engine, OthelloGame game) {
+            this.engine = engine;
+            this.game = game;
+            this.parser = new OthelloBoard();
+            this.diagram = new OthelloDiagram();
+            this.engine.attachConsumer(this::onReport);
+        }
+
+
+        /**
+         * Searches the position of a request line.
+         *
+         * @param line      Request line
+         * @return          Response line
+         */
+        String analyze(String line) {
+            final String[] fields = toFields(line);
+
+            try {
+                final long id = Long.parseLong(fields[0]);
+                game.setPosition(diagram.parse(fields[1]));
+                score = 0;
+
+                final int move = engine.computeBestMove(game);
+                final String coordinates = parser.toCoordinates(move);
+
+                return toResponse(id, coordinates, score);
+            } catch (RuntimeException e) {
+                return toError(fields[0], "Invalid request");
+            }
+        }
+
+
+        /**
+         * Keeps the score of the latest engine report.
+         */
+        private void onReport(Report report) {
+            score = report.getScore();
+        }
+    }
+}
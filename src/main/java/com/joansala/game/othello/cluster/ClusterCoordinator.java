@@ -0,0 +1,499 @@
+package com.joansala.game.othello.cluster;
+
+/*
+ * Aalina engine.
+ * Copyright (C) 2021-2024 Joan Sala Soler <contact@joansala.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static com.joansala.game.othello.cluster.ClusterProtocol.*;
+
+
+/**
+ * Distributes position searches among a set of cluster workers.
+ *
+ * Positions are placed on a bounded queue shared by all the workers,
+ * so faster workers take more positions than slower ones. Each worker
+ * connection admits a limited window of unanswered requests; once the
+ * window is full the connection stops taking positions from the queue,
+ * and once the queue is full the caller is blocked. This keeps memory
+ * usage constant regardless of the number of positions submitted.
+ *
+ * Requests that were sent to a worker that closed its connection are
+ * placed back on the queue while other workers are connected, so the
+ * search of all the positions continues on the remaining workers.
+ * Requests answered with an error and requests that cannot be sent to
+ * any worker because none remains are counted as failed.
+ */
+public class ClusterCoordinator implements Closeable {
+
+    /** Default number of unanswered requests per worker */
+    public static final int DEFAULT_WINDOW = 16;
+
+    /** Milliseconds between checks for connected workers */
+    private static final long POLL_INTERVAL = 100L;
+
+    /** Marks the end of the requests queue */
+    private static final Request POISON = new Request(-1, null);
+
+    /** Open worker connections */
+    private final List<Connection> connections;
+
+    /** Requests waiting to be sent to a worker */
+    private final BlockingDeque<Request> queue;
+
+    /** Number of requests that were not answered */
+    private final AtomicLong failed;
+
+    /** Number of requests not answered or failed yet */
+    private final AtomicLong unresolved;
+
+    /** Maximum unanswered requests per worker */
+    private final int window;
+
+
+    /**
+     * Creates a new coordinator for the given workers.
+     *
+     * @param workers   Worker addresses
+     * @param window    Unanswered requests per worker
+     */
+    public ClusterCoordinator(List<InetSocketAddress> workers, int window) throws IOException {
+        this.window = window;
+        this.failed = new AtomicLong();
+        this.unresolved = new AtomicLong();
+        this.queue = new LinkedBlockingDeque<>(window * workers.size());
+        this.connections = new ArrayList<>(workers.size());
+
+        for (InetSocketAddress address : workers) {
+            connections.add(new Connection(address));
+        }
+    }
+
+
+    /**
+     * Searches all the given positions on the cluster workers. Results
+     * are sent to the consumer as soon as they arrive, thus they may
+     * not be received in the same order as the positions were given.
+     *
+     * @param diagrams  Position diagrams to search
+     * @param consumer  Receives the search results
+     * @throws IOException  If some positions were not searched
+     */
+    public void analyze(Iterator<String> diagrams, Consumer<ClusterResult> consumer) throws IOException {
+        boolean connected = true;
+
+        for (Connection connection : connections) {
+            connection.start(consumer);
+        }
+
+        try {
+            long id = 0L;
+
+            while (connected && diagrams.hasNext()) {
+                unresolved.incrementAndGet();
+                connected = put(new Request(id++, diagrams.next()));
+            }
+
+            if (connected == true) {
+                connected = await();
+            }
+
+            for (int i = 0; connected && i < connections.size(); i++) {
+                connected = put(POISON);
+            }
+
+            for (Connection connection : connections) {
+                connection.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            connections.forEach(Connection::interrupt);
+        }
+
+        for (Request request : queue) {
+            if (request != POISON) {
+                failed.incrementAndGet();
+            }
+        }
+
+        if (connected == false) {
+            throw new IOException("No workers left");
+        }
+
+        if (failed.get() > 0L) {
+            throw new IOException(
+                "Workers left " + failed.get() + " requests unanswered");
+        }
+    }
+
+
+    /**
+     * Places a request on the queue, waiting while it is full.
+     *
+     * @param request   Request to place
+     * @return          {@code false} if no workers are connected
+     */
+    private boolean put(Request request) throws InterruptedException {
+        while (!queue.offer(request, POLL_INTERVAL, TimeUnit.MILLISECONDS)) {
+            if (connections.stream().noneMatch(c -> c.alive)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+
+    /**
+     * Waits until all the requests were answered or failed. Requests
+     * of workers that disconnect are placed back on the queue, thus
+     * the workers must not be stopped until then.
+     *
+     * @return          {@code false} if no workers are connected
+     */
+    private boolean await() throws InterruptedException {
+        while (unresolved.get() > 0L) {
+            if (connections.stream().noneMatch(c -> c.alive)) {
+                return false;
+            }
+
+            Thread.sleep(POLL_INTERVAL);
+        }
+
+        return true;
+    }
+
+
+    /**
+     * Counts a request as failed.
+     */
+    private void fail() {
+        failed.incrementAndGet();
+        unresolved.decrementAndGet();
+    }
+
+
+    /**
+     * Checks if a connection may still take requests from the queue.
+     */
+    private boolean isServed() {
+        return connections.stream().anyMatch(
+            c -> c.alive && c.sender.isAlive());
+    }
+
+
+    /**
+     * Starts a new daemon thread.
+     */
+    private static Thread start(Runnable runnable) {
+        Thread thread = new Thread(runnable);
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() throws IOException {
+        for (Connection connection : connections) {
+            connection.socket.close();
+        }
+    }
+
+
+    /**
+     * A search request waiting on the queue.
+     */
+    private static final class Request {
+        final long id;
+        final String diagram;
+
+        Request(long id, String diagram) {
+            this.id = id;
+            this.diagram = diagram;
+        }
+    }
+
+
+    /**
+     * Connection to a single worker.
+     */
+    private final class Connection {
+
+        /** Worker socket */
+        final Socket socket;
+
+        /** Free slots on the requests window */
+        final Semaphore slots;
+
+        /** Reads responses from the worker */
+        final BufferedReader reader;
+
+        /** Writes requests to the worker */
+        final BufferedWriter writer;
+
+        /** Requests sent but not answered yet */
+        final Map<Long, String> pending;
+
+        /** If the worker may still answer requests */
+        volatile boolean alive = true;
+
+        /** Thread that sends the requests */
+        Thread sender;
+
+        /** Thread that receives the responses */
+        Thread receiver;
+
+
+        /**
+         * Connects to a worker.
+         */
+        Connection(InetSocketAddress address) throws IOException {
+            socket = new Socket();
+            socket.setTcpNoDelay(true);
+            socket.connect(address);
+            slots = new Semaphore(window);
+            pending = new ConcurrentHashMap<>();
+            reader = new BufferedReader(
+                new InputStreamReader(socket.getInputStream(), UTF_8));
+            writer = new BufferedWriter(
+                new OutputStreamWriter(socket.getOutputStream(), UTF_8));
+        }
+
+
+        /**
+         * Starts sending requests and receiving responses.
+         */
+        void start(Consumer<ClusterResult> consumer) {
+            sender = ClusterCoordinator.start(() -> send());
+            receiver = ClusterCoordinator.start(() -> receive(consumer));
+        }
+
+
+        /**
+         * Waits until the worker closes the connection.
+         */
+        void join() throws InterruptedException {
+            receiver.join();
+            sender.join();
+        }
+
+
+        /**
+         * Interrupts the threads of this connection.
+         */
+        void interrupt() {
+            sender.interrupt();
+            receiver.interrupt();
+        }
+
+
+        /**
+         * Sends queued requests while there are free window slots.
+         * Requests are flushed in batches whenever the queue is empty
+         * or the window is full. Requests taken after the worker closed
+         * the connection are placed back on the queue.
+         */
+        void send() {
+            try {
+                while (true) {
+                    slots.acquire();
+
+                    if (alive == false) {
+                        break;
+                    }
+
+                    Request request = queue.take();
+
+                    if (request == POISON) {
+                        break;
+                    }
+
+                    if (alive == false) {
+                        requeue(request);
+                        break;
+                    }
+
+                    pending.put(request.id, request.diagram);
+                    writer.write(toRequest(request.id, request.diagram));
+                    writer.newLine();
+
+                    if (queue.isEmpty() || slots.availablePermits() == 0) {
+                        writer.flush();
+                    }
+                }
+
+                writer.flush();
+                socket.shutdownOutput();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException e) {
+                disconnect();
+            }
+        }
+
+
+        /**
+         * Receives responses until the worker closes the connection.
+         * Each response frees a window slot, even if it is malformed.
+         * Once the connection is closed the sender is woken up and the
+         * requests that were not answered are placed back on the queue
+         * for the other workers, or failed if none remains.
+         */
+        void receive(Consumer<ClusterResult> consumer) {
+            try {
+                String line;
+
+                while ((line = reader.readLine()) != null) {
+                    try {
+                        accept(line, consumer);
+                    } finally {
+                        slots.release();
+                    }
+                }
+            } catch (IOException e) {
+                // The worker closed the connection
+            } finally {
+                alive = false;
+                disconnect();
+                slots.release(window);
+                sender.interrupt();
+                awaitSender();
+                pending.forEach(this::reassign);
+                pending.clear();
+            }
+        }
+
+
+        /**
+         * Handles a response line of the worker. Responses with an
+         * unknown identifier are ignored, so their requests are placed
+         * back on the queue when the connection is closed.
+         */
+        private void accept(String line, Consumer<ClusterResult> consumer) {
+            final String[] fields = toFields(line);
+            final String diagram;
+            final int score;
+
+            try {
+                diagram = pending.remove(Long.parseLong(fields[0]));
+            } catch (NumberFormatException e) {
+                return;
+            }
+
+            if (diagram == null) {
+                return;
+            }
+
+            if (fields.length != 3 || ERROR.equals(fields[1])) {
+                fail();
+                return;
+            }
+
+            try {
+                score = Integer.parseInt(fields[2]);
+            } catch (NumberFormatException e) {
+                fail();
+                return;
+            }
+
+            unresolved.decrementAndGet();
+
+            synchronized (consumer) {
+                consumer.accept(new ClusterResult(diagram, fields[1], score));
+            }
+        }
+
+
+        /**
+         * Places a request taken from the queue back on its head, or
+         * fails it if the queue is full.
+         */
+        private void requeue(Request request) {
+            if (queue.offerFirst(request) == false) {
+                fail();
+            }
+        }
+
+
+        /**
+         * Places an unanswered request on the head of the queue while
+         * other workers may still take it, or fails it otherwise.
+         */
+        private void reassign(long id, String diagram) {
+            final Request request = new Request(id, diagram);
+
+            try {
+                while (isServed()) {
+                    if (queue.offerFirst(request, POLL_INTERVAL, TimeUnit.MILLISECONDS)) {
+                        return;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            fail();
+        }
+
+
+        /**
+         * Waits for the sender to stop.
+         */
+        private void awaitSender() {
+            try {
+                sender.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+
+        /**
+         * Closes the connection socket.
+         */
+        private void disconnect() {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // The socket is already closed
+            }
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.joansala.game.othello.cluster;
+
+/*
+ * Aalina engine.
+ * Copyright (C) 2021-2024 Joan Sala Soler <contact@joansala.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+/**
+ * Line protocol spoken between a cluster coordinator and its workers.
+ *
+ * Each request is a single line with an identifier and a position in
+ * diagram notation. Each response is a single line with the identifier
+ * of the request, the best move found in coordinate notation and the
+ * score reported by the engine. Requests that cannot be searched are
+ * answered with their identifier, an error mark and a message. Fields
+ * are separated by tabs, since diagrams may contain spaces.
+ */
+final class ClusterProtocol {
+
+    /** Separator of the line fields */
+    static final String SEPARATOR = "\t";
+
+    /** Marks a response as an error */
+    static final String ERROR = "error";
+
+
+    /**
+     * This class cannot be instantiated.
+     */
+    private ClusterProtocol() {}
+
+
+    /**
+     * Formats a search request line.
+     *
+     * @param id        Request identifier
+     * @param diagram   Position diagram
+     * @return          Request line
+     */
+    static String toRequest(long id, String diagram) {
+        return id + SEPARATOR + diagram;
+    }
+
+
+    /**
+     * Formats a search response line.
+     *
+     * @param id        Request identifier
+     * @param move      Best move coordinates
+     * @param score     Score of the best move
+     * @return          Response line
+     */
+    static String toResponse(long id, String move, int score) {
+        return id + SEPARATOR + move + SEPARATOR + score;
+    }
+
+
+    /**
+     * Formats an error response line.
+     *
+     * @param id        Request identifier
+     * @param message   Error message
+     * @return          Response line
+     */
+    static String toError(String id, String message) {
+        return id + SEPARATOR + ERROR + SEPARATOR + message;
+    }
+
+
+    /**
+     * Splits a protocol line into its fields.
+     *
+     * @param line      Request or response line
+     * @return          Line fields
+     */
+    static String[] toFields(String line) {
+        return line.split(SEPARATOR);
+    }
+}
@@ -0,0 +1,83 @@
+package com.joansala.game.othello.cluster;
+
+/*
+ * Aalina engine.
+ * Copyright (C) 2021-2024 Joan Sala Soler <contact@joansala.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+/**
+ * Outcome of a position search performed by a cluster worker.
+ */
+public final class ClusterResult {
+
+    /** Searched position diagram */
+    private final String diagram;
+
+    /** Best move coordinates */
+    private final String move;
+
+    /** Score of the best move */
+    private final int score;
+
+
+    /**
+     * Creates a new search result.
+     *
+     * @param diagram   Position diagram
+     * @param move      Best move coordinates
+     * @param score     Score of the best move
+     */
+    public ClusterResult(String diagram, String move, int score) {
+        this.diagram = diagram;
+        this.move = move;
+        this.score = score;
+    }
+
+
+    /**
+     * Searched position diagram.
+     */
+    public String diagram() {
+        return diagram;
+    }
+
+
+    /**
+     * Best move coordinates.
+     */
+    public String move() {
+        return move;
+    }
+
+
+    /**
+     * Score of the best move.
+     */
+    public int score() {
+        return score;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return String.join(ClusterProtocol.SEPARATOR,
+            diagram, move, String.valueOf(score));
+    }
+}
@@ -0,0 +1,198 @@
+package com.joansala.game.othello.cluster;
+
+/*
+ * Aalina engine.
+ * Copyright (C) 2021-2024 Joan Sala Soler <contact@joansala.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import com.joansala.engine.Engine;
+import com.joansala.engine.Report;
+import com.joansala.game.othello.OthelloBoard;
+import com.joansala.game.othello.OthelloDiagram;
+import com.joansala.game.othello.OthelloGame;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static com.joansala.game.othello.cluster.ClusterProtocol.*;
+
+
+/**
+ * Searches positions received from a cluster coordinator.
+ *
+ * A worker listens on a local port and serves one coordinator at a
+ * time. Requests are searched in the order they arrive and responses
+ * are written back as soon as each search completes. Responses are
+ * batched on the socket while more requests are already queued.
+ */
+public class ClusterWorker implements Closeable {
+
+    /** Engine used to search the positions */
+    private final Engine engine;
+
+    /** Game where positions are set */
+    private final OthelloGame game;
+
+    /** Board used to format moves */
+    private final OthelloBoard parser;
+
+    /** Parses the requested diagrams */
+    private final OthelloDiagram diagram;
+
+    /** Score of the last search report */
+    private final AtomicInteger score;
+
+    /** Consumer of the engine reports */
+    private final Consumer<Report> consumer;
+
+    /** Listening server socket */
+    private final ServerSocket server;
+
+
+    /**
+     * Creates a new worker listening on the given port.
+     *
+     * @param engine    Search engine
+     * @param game      Game where positions are set
+     * @param port      Listening port
+     */
+    public ClusterWorker(Engine engine, OthelloGame game, int port) throws IOException {
+        this.engine = engine;
+        this.game = game;
+        this.parser = new OthelloBoard();
+        this.diagram = new OthelloDiagram();
+        this.score = new AtomicInteger();
+        this.server = new ServerSocket(port);
+        this.consumer = this::onReport;
+        this.engine.attachConsumer(consumer);
+    }
+
+
+    /**
+     * Port where this worker is listening.
+     */
+    public int getPort() {
+        return server.getLocalPort();
+    }
+
+
+    /**
+     * Serves coordinators until this worker is closed.
+     */
+    public void serve() throws IOException {
+        while (server.isClosed() == false) {
+            final Socket socket;
+
+            try {
+                socket = server.accept();
+            } catch (IOException e) {
+                if (server.isClosed() == false) {
+                    throw e;
+                }
+
+                break;
+            }
+
+            try (Socket connection = socket) {
+                connection.setTcpNoDelay(true);
+                handle(connection);
+            } catch (IOException e) {
+                // The coordinator closed the connection
+            }
+        }
+    }
+
+
+    /**
+     * Answers all the requests received on a connection.
+     *
+     * @param socket    Coordinator connection
+     */
+    private void handle(Socket socket) throws IOException {
+        BufferedReader reader = new BufferedReader(
+            new InputStreamReader(socket.getInputStream(), UTF_8));
+        BufferedWriter writer = new BufferedWriter(
+            new OutputStreamWriter(socket.getOutputStream(), UTF_8));
+
+        String line;
+
+        while ((line = reader.readLine()) != null) {
+            writer.write(search(line));
+            writer.newLine();
+
+            if (reader.ready() == false) {
+                writer.flush();
+            }
+        }
+
+        writer.flush();
+    }
+
+
+    /**
+     * Searches the position of a request line. Requests that cannot
+     * be parsed or whose game has ended are answered with an error.
+     *
+     * @param line      Request line
+     * @return          Response line
+     */
+    private String search(String line) {
+        final String[] fields = toFields(line);
+
+        try {
+            final long id = Long.parseLong(fields[0]);
+            game.setPosition(diagram.parse(fields[1]));
+
+            if (game.hasEnded()) {
+                return toError(fields[0], "Game has ended");
+            }
+
+            score.set(0);
+
+            final int move = engine.computeBestMove(game);
+            final String coordinates = parser.toCoordinates(move);
+
+            return toResponse(id, coordinates, score.get());
+        } catch (RuntimeException e) {
+            return toError(fields[0], "Invalid request");
+        }
+    }
+
+
+    /**
+     * Keeps the score of the latest engine report.
+     */
+    private void onReport(Report report) {
+        score.set(report.getScore());
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() throws IOException {
+        engine.detachConsumer(consumer);
+        server.close();
+    }
+}
@@ -0,0 +1,147 @@
+package com.joansala.game.othello.io;
+
+/*
+ * Aalina engine.
+ * Copyright (C) 2021-2024 Joan Sala Soler <contact@joansala.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import java.nio.ByteBuffer;
+import com.joansala.game.othello.OthelloBoard;
+import static com.joansala.engine.Game.*;
+import static com.joansala.game.othello.Othello.*;
+
+
+/**
+ * Compact binary encoding of Othello positions.
+ *
+ * A position is encoded on {@value #POSITION_SIZE} bytes: the south
+ * and north bitboards as two big-endian longs followed by a byte with
+ * the turn identifier. A game is encoded as its start position, a byte
+ * with the number of moves played and a byte for each move.
+ */
+public final class PositionCodec {
+
+    /** Size in bytes of an encoded position */
+    public static final int POSITION_SIZE = 17;
+
+    /** Maximum number of moves of an encoded game */
+    public static final int MAX_LENGTH = 0xFF;
+
+
+    /**
+     * This class cannot be instantiated.
+     */
+    private PositionCodec() {}
+
+
+    /**
+     * Writes a position on a buffer.
+     *
+     * @param buffer    Destination buffer
+     * @param south     South stones bitboard
+     * @param north     North stones bitboard
+     * @param turn      Player to move
+     */
+    public static void encode(ByteBuffer buffer, long south, long north, int turn) {
+        buffer.putLong(south);
+        buffer.putLong(north);
+        buffer.put((byte) turn);
+    }
+
+
+    /**
+     * Writes a board position on a buffer.
+     *
+     * @param buffer    Destination buffer
+     * @param board     Board to encode
+     */
+    public static void encode(ByteBuffer buffer, OthelloBoard board) {
+        final long[] position = board.position();
+        encode(buffer, position[SOUTH_STONE], position[NORTH_STONE], board.turn());
+    }
+
+
+    /**
+     * Writes a game on a buffer.
+     *
+     * @param buffer    Destination buffer
+     * @param board     Start position
+     * @param moves     Moves array
+     * @param length    Number of moves to write
+     */
+    public static void encode(ByteBuffer buffer, OthelloBoard board, int[] moves, int length) {
+        if (length > MAX_LENGTH) {
+            throw new IllegalArgumentException(
+                "Game is too long: " + length);
+        }
+
+        encode(buffer, board);
+        buffer.put((byte) length);
+
+        for (int i = 0; i < length; i++) {
+            buffer.put((byte) moves[i]);
+        }
+    }
+
+
+    /**
+     * Reads a board position from a buffer.
+     *
+     * @param buffer    Source buffer
+     * @return          A new board
+     */
+    public static OthelloBoard decode(ByteBuffer buffer) {
+        final long[] position = new long[PIECE_COUNT];
+
+        position[SOUTH_STONE] = buffer.getLong();
+        position[NORTH_STONE] = buffer.getLong();
+        final int turn = toTurn(buffer.get());
+
+        checkStones(position[SOUTH_STONE], position[NORTH_STONE]);
+
+        return new OthelloBoard(position, turn);
+    }
+
+
+    /**
+     * Validates the encoded bitboards of a position.
+     *
+     * @param south     South stones bitboard
+     * @param north     North stones bitboard
+     */
+    static void checkStones(long south, long north) {
+        if ((south & north) != 0L) {
+            throw new IllegalArgumentException(
+                "Overlapping stones on encoded position");
+        }
+    }
+
+
+    /**
+     * Validates an encoded turn identifier.
+     *
+     * @param value     Encoded turn
+     * @return          {@code SOUTH} or {@code NORTH}
+     */
+    static int toTurn(byte value) {
+        if (value != SOUTH && value != NORTH) {
+            throw new IllegalArgumentException(
+                "Not a valid turn identifier: " + value);
+        }
+
+        return value;
+    }
+}
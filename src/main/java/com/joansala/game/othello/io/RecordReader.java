@@ -0,0 +1,220 @@
+package com.joansala.game.othello.io;
+
+/*
+ * Aalina engine.
+ * Copyright (C) 2021-2024 Joan Sala Soler <contact@joansala.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import com.joansala.game.othello.OthelloBoard;
+import static java.nio.file.StandardOpenOption.*;
+import static com.joansala.game.othello.Othello.*;
+import static com.joansala.game.othello.io.PositionCodec.*;
+
+
+/**
+ * Reads encoded positions or games sequentially from a file.
+ *
+ * The reader works as a cursor: each call to {@link #nextPosition()}
+ * or {@link #nextGame()} decodes the next record into this object,
+ * whose fields can then be obtained without allocating memory.
+ */
+public class RecordReader implements Closeable {
+
+    /** Default buffer size in bytes */
+    public static final int BUFFER_SIZE = 1 << 16;
+
+    /** Source file channel */
+    private final FileChannel channel;
+
+    /** Records read but not decoded yet */
+    private final ByteBuffer buffer;
+
+    /** Moves of the current game */
+    private final int[] moves;
+
+    /** Number of moves of the current game */
+    private int length;
+
+    /** South bitboard of the current record */
+    private long south;
+
+    /** North bitboard of the current record */
+    private long north;
+
+    /** Turn of the current record */
+    private int turn;
+
+
+    /**
+     * Creates a new reader for the given file.
+     *
+     * @param path      File path
+     */
+    public RecordReader(Path path) throws IOException {
+        this.channel = FileChannel.open(path, READ);
+        this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        this.moves = new int[MAX_LENGTH];
+        this.buffer.flip();
+    }
+
+
+    /**
+     * South stones bitboard of the current record.
+     */
+    public long south() {
+        return south;
+    }
+
+
+    /**
+     * North stones bitboard of the current record.
+     */
+    public long north() {
+        return north;
+    }
+
+
+    /**
+     * Player to move on the current record.
+     */
+    public int turn() {
+        return turn;
+    }
+
+
+    /**
+     * Moves of the current game record. Only the first
+     * {@link #length()} elements of the array are valid.
+     */
+    public int[] moves() {
+        return moves;
+    }
+
+
+    /**
+     * Number of moves of the current game record.
+     */
+    public int length() {
+        return length;
+    }
+
+
+    /**
+     * Creates a new board for the current record.
+     */
+    public OthelloBoard toBoard() {
+        long[] position = new long[PIECE_COUNT];
+        position[SOUTH_STONE] = south;
+        position[NORTH_STONE] = north;
+        return new OthelloBoard(position, turn);
+    }
+
+
+    /**
+     * Advances to the next position record.
+     *
+     * @return          If a record was read
+     */
+    public boolean nextPosition() throws IOException {
+        if (fill(POSITION_SIZE) == false) {
+            return false;
+        }
+
+        south = buffer.getLong();
+        north = buffer.getLong();
+        turn = toTurn(buffer.get());
+        length = 0;
+
+        checkStones(south, north);
+
+        return true;
+    }
+
+
+    /**
+     * Advances to the next game record.
+     *
+     * @return          If a record was read
+     */
+    public boolean nextGame() throws IOException {
+        if (nextPosition() == false) {
+            return false;
+        }
+
+        if (fill(1) == false) {
+            throw new IOException("Truncated game record");
+        }
+
+        length = 0xFF & buffer.get();
+
+        if (fill(length) == false) {
+            throw new IOException("Truncated game record");
+        }
+
+        for (int i = 0; i < length; i++) {
+            moves[i] = 0xFF & buffer.get();
+        }
+
+        return true;
+    }
+
+
+    /**
+     * Ensures the buffer holds at least the given number of bytes.
+     *
+     * @param size      Number of bytes required
+     * @return          False if the end of the file was reached
+     */
+    private boolean fill(int size) throws IOException {
+        if (buffer.remaining() >= size) {
+            return true;
+        }
+
+        buffer.compact();
+
+        while (buffer.position() < size) {
+            if (channel.read(buffer) < 0) {
+                break;
+            }
+        }
+
+        buffer.flip();
+
+        if (buffer.remaining() >= size) {
+            return true;
+        }
+
+        if (buffer.hasRemaining()) {
+            throw new IOException("Truncated record");
+        }
+
+        return false;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
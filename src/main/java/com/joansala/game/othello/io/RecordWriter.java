@@ -0,0 +1,134 @@
+package com.joansala.game.othello.io;
+
+/*
+ * Aalina engine.
+ * Copyright (C) 2021-2024 Joan Sala Soler <contact@joansala.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import com.joansala.game.othello.OthelloBoard;
+import static java.nio.file.StandardOpenOption.*;
+import static com.joansala.game.othello.io.PositionCodec.*;
+
+
+/**
+ * Writes encoded positions or games sequentially to a file.
+ *
+ * Records are accumulated on a direct buffer which is written to the
+ * file channel when full, so writing a record never allocates.
+ */
+public class RecordWriter implements Closeable, Flushable {
+
+    /** Default buffer size in bytes */
+    public static final int BUFFER_SIZE = 1 << 16;
+
+    /** Destination file channel */
+    private final FileChannel channel;
+
+    /** Records pending to be written */
+    private final ByteBuffer buffer;
+
+
+    /**
+     * Creates a new writer that replaces the given file.
+     *
+     * @param path      File path
+     */
+    public RecordWriter(Path path) throws IOException {
+        this.channel = FileChannel.open(path, CREATE, WRITE, TRUNCATE_EXISTING);
+        this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    }
+
+
+    /**
+     * Writes a position record.
+     *
+     * @param south     South stones bitboard
+     * @param north     North stones bitboard
+     * @param turn      Player to move
+     */
+    public void writePosition(long south, long north, int turn) throws IOException {
+        reserve(POSITION_SIZE);
+        encode(buffer, south, north, turn);
+    }
+
+
+    /**
+     * Writes a position record.
+     *
+     * @param board     Board to write
+     */
+    public void writePosition(OthelloBoard board) throws IOException {
+        reserve(POSITION_SIZE);
+        encode(buffer, board);
+    }
+
+
+    /**
+     * Writes a game record.
+     *
+     * @param board     Start position
+     * @param moves     Moves array
+     * @param length    Number of moves to write
+     */
+    public void writeGame(OthelloBoard board, int[] moves, int length) throws IOException {
+        reserve(POSITION_SIZE + 1 + length);
+        encode(buffer, board, moves, length);
+    }
+
+
+    /**
+     * Ensures the buffer can hold the given number of bytes.
+     */
+    private void reserve(int size) throws IOException {
+        if (buffer.remaining() < size) {
+            flush();
+        }
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void flush() throws IOException {
+        buffer.flip();
+
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+
+        buffer.clear();
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+}
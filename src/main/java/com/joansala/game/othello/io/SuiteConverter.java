@@ -0,0 +1,127 @@
+package com.joansala.game.othello.io;
+
+/*
+ * Aalina engine.
+ * Copyright (C) 2021-2024 Joan Sala Soler <contact@joansala.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Arrays;
+import java.util.Iterator;
+import com.joansala.game.othello.OthelloBoard;
+import com.joansala.game.othello.OthelloGame;
+import com.joansala.util.suites.Suite;
+import static com.joansala.game.othello.Othello.*;
+
+
+/**
+ * Converts between game suites and binary record files.
+ */
+public final class SuiteConverter {
+
+    /** Separates the diagram and the moves of a suite */
+    private static final String MOVES_SEPARATOR = " moves ";
+
+
+    /**
+     * This class cannot be instantiated.
+     */
+    private SuiteConverter() {}
+
+
+    /**
+     * Writes the position reached on each suite as a position record.
+     *
+     * @param suites    Suites to convert
+     * @param writer    Records writer
+     * @return          Number of records written
+     */
+    public static long toPositions(Iterator<Suite> suites, RecordWriter writer) throws IOException {
+        OthelloGame game = new OthelloGame();
+        OthelloBoard parser = new OthelloBoard();
+        long count = 0L;
+
+        while (suites.hasNext()) {
+            Suite suite = suites.next();
+            OthelloBoard board = parser.toBoard(suite.diagram());
+            game.setBoard(board);
+
+            for (int move : board.toMoves(suite.notation())) {
+                game.makeMove(move);
+            }
+
+            final long south = game.state(SOUTH_STONE);
+            final long north = game.state(NORTH_STONE);
+            writer.writePosition(south, north, game.turn());
+            count++;
+        }
+
+        return count;
+    }
+
+
+    /**
+     * Writes each suite as a game record.
+     *
+     * @param suites    Suites to convert
+     * @param writer    Records writer
+     * @return          Number of records written
+     */
+    public static long toGames(Iterator<Suite> suites, RecordWriter writer) throws IOException {
+        OthelloBoard parser = new OthelloBoard();
+        long count = 0L;
+
+        while (suites.hasNext()) {
+            Suite suite = suites.next();
+            OthelloBoard board = parser.toBoard(suite.diagram());
+            int[] moves = board.toMoves(suite.notation());
+            writer.writeGame(board, moves, moves.length);
+            count++;
+        }
+
+        return count;
+    }
+
+
+    /**
+     * Writes each record of a file as a suite line.
+     *
+     * @param reader    Records reader
+     * @param writer    Suite writer
+     * @param games     If the records are games
+     * @return          Number of records converted
+     */
+    public static long toSuites(RecordReader reader, PrintWriter writer, boolean games) throws IOException {
+        long count = 0L;
+
+        while (games ? reader.nextGame() : reader.nextPosition()) {
+            OthelloBoard board = reader.toBoard();
+            String diagram = board.toDiagram();
+
+            if (reader.length() > 0) {
+                int[] moves = Arrays.copyOf(reader.moves(), reader.length());
+                writer.println(diagram + MOVES_SEPARATOR + board.toNotation(moves));
+            } else {
+                writer.println(diagram);
+            }
+
+            count++;
+        }
+
+        return count;
+    }
+}
@@ -0,0 +1,115 @@
+package com.joansala.game.othello.scorers;
+
+/*
+ * Samurai framework.
+ * Copyright (C) 2024 Joan Sala Soler <contact@joansala.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation,  either version 3 of the License,  or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not,  see <http://www.gnu.org/licenses/>.
+ */
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import com.joansala.engine.Scorer;
+import com.joansala.game.othello.OthelloGame;
+import static com.joansala.game.othello.stats.SearchStats.*;
+import static com.joansala.game.othello.stats.StatsConfig.ENABLED;
+
+
+/**
+ * Heuristic function decorator that caches the evaluations.
+ *
+ * Evaluations are kept on a direct mapped table indexed by position
+ * hash. Each entry packs the upper bits of the hash together with the
+ * score on a single long, which is read and written atomically, so
+ * the table can be shared by any number of threads without locks. A
+ * torn entry cannot occur and a stale one is simply replaced. Scores
+ * that do not fit on the entry are never cached.
+ */
+public final class CachedScorer implements Scorer<OthelloGame> {
+
+    /** Default table size in bytes */
+    public static final long DEFAULT_SIZE = 4L << 20;
+
+    /** Bits of an entry that store the score */
+    private static final long SCORE_MASK = 0xFFFFL;
+
+    /** Bits of an entry that store the hash */
+    private static final long HASH_MASK = ~SCORE_MASK;
+
+    /** Decorated heuristic function */
+    private final Scorer<OthelloGame> scorer;
+
+    /** Packed hash and score entries */
+    private final AtomicLongArray entries;
+
+    /** Mask to obtain an entry index from a hash */
+    private final int mask;
+
+
+    /**
+     * Decorates a heuristic function with a cache of the given size.
+     *
+     * @param scorer    Heuristic function
+     * @param memory    Table size in bytes
+     */
+    public CachedScorer(Scorer<OthelloGame> scorer, long memory) {
+        final long count = Math.max(1L, memory / Long.BYTES);
+        final int size = (int) Long.highestOneBit(Math.min(count, 1L << 30));
+
+        this.scorer = scorer;
+        this.entries = new AtomicLongArray(size);
+        this.mask = size - 1;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int evaluate(OthelloGame game) {
+        final long hash = game.hash();
+        final int index = mask & (int) (hash ^ (hash >>> 32));
+        final long entry = entries.getOpaque(index);
+
+        if (ENABLED) {
+            stripe()[EVAL_PROBES]++;
+        }
+
+        if (entry != 0L && ((entry ^ hash) & HASH_MASK) == 0L) {
+            if (ENABLED) {
+                stripe()[EVAL_HITS]++;
+            }
+
+            return (short) entry;
+        }
+
+        final int score = scorer.evaluate(game);
+
+        if (score == (short) score) {
+            final long value = (hash & HASH_MASK) | (SCORE_MASK & score);
+            entries.setOpaque(index, value);
+        }
+
+        return score;
+    }
+
+
+    /**
+     * Removes all the cached evaluations.
+     */
+    public void clear() {
+        for (int i = 0; i < entries.length(); i++) {
+            entries.setOpaque(i, 0L);
+        }
+    }
+}
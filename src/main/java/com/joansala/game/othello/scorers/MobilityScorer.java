@@ -0,0 +1,109 @@
+package com.joansala.game.othello.scorers;
+
+/*
+ * Samurai framework.
+ * Copyright (C) 2024 Joan Sala Soler <contact@joansala.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation,  either version 3 of the License,  or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not,  see <http://www.gnu.org/licenses/>.
+ */
+
+import com.joansala.engine.Scorer;
+import com.joansala.game.othello.OthelloGame;
+import static com.joansala.engine.Game.*;
+import static com.joansala.game.othello.Othello.*;
+import static com.joansala.util.bits.Bits.*;
+
+
+/**
+ * Evaluate the current state using mobility based features.
+ *
+ * Combines the difference on current mobility, potential mobility and
+ * frontier stones of the players, along with corner occupation and the
+ * material balance. Mobility terms dominate the opening and middle
+ * game, while material gains weight as the board fills up. Each weight
+ * is interpolated linearly between its value on the start position and
+ * its value on a full board. All the features are computed with the
+ * bitboard helpers of {@link OthelloGame} and population counts,
+ * without iterating over the stones.
+ */
+public final class MobilityScorer implements Scorer<OthelloGame> {
+
+    /** Mobility weight at the start and at the end */
+    public static final int[] MOBILITY_WEIGHT = { 40, 20 };
+
+    /** Potential mobility weight at the start and at the end */
+    public static final int[] POTENTIAL_WEIGHT = { 20, 5 };
+
+    /** Frontier stones weight at the start and at the end */
+    public static final int[] FRONTIER_WEIGHT = { 15, 5 };
+
+    /** Corner stones weight at the start and at the end */
+    public static final int[] CORNER_WEIGHT = { 120, 120 };
+
+    /** Stones difference weight at the start and at the end */
+    public static final int[] TALLY_WEIGHT = { 0, 15 };
+
+    /** Mask with a bit set for each board corner */
+    private static final long CORNERS_MASK = 0x8100000000000081L;
+
+    /** Number of moves from the start to a full board */
+    private static final int PHASES = BOARD_SIZE - 4;
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public final int evaluate(OthelloGame game) {
+        final long south = game.state(SOUTH_STONE);
+        final long north = game.state(NORTH_STONE);
+        final long empty = ~(south | north);
+        final int phase = count(south | north) - 4;
+
+        // Current mobility of both players
+
+        final long mobility = game.mobility();
+        final boolean isSouth = game.turn() == SOUTH;
+        final long southMoves = isSouth ? mobility : OthelloGame.mobility(south, north);
+        final long northMoves = isSouth ? OthelloGame.mobility(north, south) : mobility;
+
+        // Squares next to empty squares or to the stones of each player
+
+        final long aroundEmpty = OthelloGame.neighbours(empty);
+        final long aroundSouth = OthelloGame.neighbours(south);
+        final long aroundNorth = OthelloGame.neighbours(north);
+
+        final int moves = count(southMoves) - count(northMoves);
+        final int potential = count(empty & aroundNorth) - count(empty & aroundSouth);
+        final int frontier = count(south & aroundEmpty) - count(north & aroundEmpty);
+        final int corners = count(south & CORNERS_MASK) - count(north & CORNERS_MASK);
+        final int tally = count(south) - count(north);
+
+        return (
+            weight(MOBILITY_WEIGHT, phase) * moves +
+            weight(POTENTIAL_WEIGHT, phase) * potential -
+            weight(FRONTIER_WEIGHT, phase) * frontier +
+            weight(CORNER_WEIGHT, phase) * corners +
+            weight(TALLY_WEIGHT, phase) * tally
+        ) / PHASES;
+    }
+
+
+    /**
+     * Weight of a feature multiplied by {@code PHASES} for the given
+     * number of moves made since the start position.
+     */
+    private static int weight(int[] weights, int phase) {
+        return weights[0] * (PHASES - phase) + weights[1] * phase;
+    }
+}
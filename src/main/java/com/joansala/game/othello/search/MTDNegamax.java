@@ -0,0 +1,1121 @@
+package com.joansala.game.othello.search;
+
+/*
+ * Aalina engine.
+ * Copyright (C) 2021-2024 Joan Sala Soler <contact@joansala.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import com.google.inject.Inject;
+import com.joansala.engine.Cache;
+import com.joansala.engine.Engine;
+import com.joansala.engine.Flag;
+import com.joansala.engine.Game;
+import com.joansala.engine.Leaves;
+import com.joansala.engine.Report;
+import com.joansala.game.othello.OthelloGame;
+import com.joansala.game.othello.OthelloLeaves;
+import com.joansala.game.othello.cache.HashCache;
+import static com.joansala.engine.Game.*;
+import static com.joansala.game.othello.Othello.*;
+
+
+/**
+ * Iterative deepening alpha-beta engine with a choice of root driver.
+ *
+ * Othello scores are integral, so the minimax value of a position can
+ * be found with a sequence of null window searches that are resolved
+ * mostly from the transpositions table (MTD(f)). Each iteration starts
+ * from the score of the previous iteration with the same parity and
+ * moves a null window towards the exact score. If the score is not
+ * found after a few probes, the remaining window between the proven
+ * bounds is searched at once.
+ *
+ * The engine can also search each iteration with an aspiration window
+ * around the previous score, widened on failure, or with a full window.
+ * Those drivers are kept to compare their time to depth with MTD(f).
+ *
+ * On deadline mode a new iteration is only started if it is expected
+ * to complete within the move time. Its duration is predicted from the
+ * duration of the last iteration and the growth of the node counts of
+ * the last two, which is bounded by the number of empty squares. The
+ * clock is also checked more often, and a search that does not complete
+ * in time is aborted slightly before the deadline, leaving time for the
+ * move to be returned.
+ *
+ * On multi-PV mode the root moves are searched one by one on the same
+ * iteration, each with its own window starting from the score the move
+ * obtained on the previous iteration with the same parity. Only the
+ * moves that can enter the requested number of best lines are given
+ * an exact score; the rest are refuted with a null window search. The
+ * iteration reports are then instances of {@link MultiPVReport}, with
+ * the best lines sorted from the highest to the lowest score. Instances
+ * are not thread-safe.
+ *
+ * Nodes search the move stored on the transpositions table first. If
+ * the table can be probed by hash, the children of each node are also
+ * looked up before searching any of them, and the node is cut off if
+ * a child is already known to refute it (enhanced transposition
+ * cutoffs).
+ *
+ * If endgame leaves are set, they are consulted on the nodes below
+ * the root that are near the search horizon. Root positions that {@link OthelloLeaves} can solve are
+ * solved before searching, which adds them to its store.
+ */
+public class MTDNegamax implements Engine {
+
+    /** Root search strategies */
+    public enum Driver { ALPHABETA, ASPIRATION, MTDF }
+
+    /** Maximum search depth (plies) */
+    public static final int MAX_DEPTH = BOARD_SIZE;
+
+    /** Default time to search for a move (milliseconds) */
+    public static final long DEFAULT_MOVETIME = 3600L;
+
+    /** Null window probes before the window is widened */
+    public static final int MAX_PROBES = 8;
+
+    /** Initial half width of an aspiration window */
+    public static final int ASPIRATION_WINDOW = 4 * STONE_SCORE;
+
+    /** Index of the root score on the guesses arrays */
+    private static final int ROOT = BOARD_SIZE + 1;
+
+    /** Nodes between two checks of the time limit */
+    private static final int CLOCK_NODES = 1 << 10;
+
+    /** Nodes between two checks of the time limit on deadline mode */
+    private static final int DEADLINE_CLOCK_NODES = 1 << 7;
+
+    /** Time reserved to return a move on deadline mode (nanoseconds) */
+    private static final long DEADLINE_MARGIN = 1000000L;
+
+    /** Minimum remaining depth to probe the children of a node */
+    private static final int ETC_DEPTH = 2;
+
+    /** Maximum remaining depth to consult the endgame leaves */
+    private static final int LEAVES_DEPTH = 1;
+
+    /** Minimum branching factor expected for an iteration */
+    private static final double MIN_BRANCHING = 1.5;
+
+    /** Longest time limit in nanoseconds */
+    private static final long MAX_NANOS = Long.MAX_VALUE >> 1;
+
+    /** Consumers of the search reports */
+    private final List<Consumer<Report>> consumers =
+        new CopyOnWriteArrayList<>();
+
+    /** Legal moves buffer for each ply */
+    private final int[][] moves = new int[MAX_DEPTH + 1][BOARD_SIZE + 1];
+
+    /** Scores of the root and its moves on the last iterations */
+    private final int[][] guesses = new int[2][ROOT + 1];
+
+    /** Root moves sorted by score on multi-PV mode */
+    private final int[] lines = new int[BOARD_SIZE + 1];
+
+    /** Score of each sorted root move on multi-PV mode */
+    private final int[] scores = new int[BOARD_SIZE + 1];
+
+    /** Transpositions table */
+    private Cache<Game> cache = null;
+
+    /** Transpositions table that can be probed by hash */
+    private HashCache table = null;
+
+    /** Endgame results */
+    private Leaves<Game> leaves = null;
+
+    /** Endgame results that can solve root positions */
+    private OthelloLeaves solver = null;
+
+    /** Root search strategy */
+    private Driver driver = Driver.MTDF;
+
+    /** Maximum search depth */
+    private int maxDepth = MAX_DEPTH;
+
+    /** Number of root moves to report or one to search only the best */
+    private int multiPV = 1;
+
+    /** Number of legal root moves on multi-PV mode */
+    private int lineCount = 0;
+
+    /** Time limit of a search */
+    private long moveTime = DEFAULT_MOVETIME;
+
+    /** Score of a draw for the engine or {@code null} */
+    private Integer contempt = null;
+
+    /** Score of a won game or {@code null} */
+    private Integer infinity = null;
+
+    /** Whether iterations are started only if they fit */
+    private boolean deadlineMode = false;
+
+    /** Whether the current search must stop */
+    private volatile boolean aborted = false;
+
+    /** Game being searched */
+    private Game game;
+
+    /** Game being searched if it is an Othello game */
+    private OthelloGame othello;
+
+    /** Player to move on the root position */
+    private int rootTurn;
+
+    /** Best move found by the last root search */
+    private int rootMove = NULL_MOVE;
+
+    /** Start time of the current search (nanoseconds) */
+    private long startTime;
+
+    /** Time limit of the current search (nanoseconds) */
+    private long budget;
+
+    /** Nodes between two checks of the time limit */
+    private int clockNodes;
+
+    /** Nodes until the next time check */
+    private int clock;
+
+    /** Nodes visited on the current search */
+    private long nodes;
+
+    /** Distance to the root of the current node */
+    private int ply;
+
+    /** Distance to the root of the searched subtree */
+    private int base = 0;
+
+
+    /**
+     * Creates a new engine using the MTD(f) driver.
+     */
+    @Inject public MTDNegamax() {
+        this(Driver.MTDF);
+    }
+
+
+    /**
+     * Creates a new engine using the given root driver.
+     *
+     * @param driver    Root search strategy
+     */
+    public MTDNegamax(Driver driver) {
+        this.driver = driver;
+    }
+
+
+    /**
+     * Sets the transpositions table of the engine.
+     *
+     * @param cache     Cache instance
+     */
+    @Inject(optional = true)
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    public void setCache(Cache cache) {
+        this.cache = cache;
+        this.table = (cache instanceof HashCache) ?
+            (HashCache) cache : null;
+    }
+
+
+    /**
+     * Sets the endgame results of the engine.
+     *
+     * @param leaves    Leaves instance
+     */
+    @Inject(optional = true)
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    public void setLeaves(Leaves leaves) {
+        this.leaves = leaves;
+        this.solver = (leaves instanceof OthelloLeaves) ?
+            (OthelloLeaves) leaves : null;
+    }
+
+
+    /**
+     * Sets the root search strategy.
+     *
+     * @param driver    Root search strategy
+     */
+    public void setDriver(Driver driver) {
+        this.driver = driver;
+    }
+
+
+    /**
+     * Sets the number of root moves reported with their scores. If
+     * greater than one, all the root moves are searched exactly.
+     *
+     * @param count     Number of root moves
+     */
+    public void setMultiPV(int count) {
+        this.multiPV = Math.max(1, count);
+    }
+
+
+    /**
+     * Sets whether to start an iteration only if it is expected to
+     * complete before the move time is exhausted.
+     *
+     * @param enabled   If deadline mode is enabled
+     */
+    public void setDeadlineMode(boolean enabled) {
+        this.deadlineMode = enabled;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getDepth() {
+        return maxDepth;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getMoveTime() {
+        return moveTime;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setDepth(int depth) {
+        this.maxDepth = Math.max(1, Math.min(MAX_DEPTH, depth));
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setMoveTime(long delay) {
+        this.moveTime = Math.max(1L, delay);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setContempt(int score) {
+        this.contempt = score;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setInfinity(int score) {
+        this.infinity = score;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void abortComputation() {
+        aborted = true;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void newMatch() {
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void attachConsumer(Consumer<Report> consumer) {
+        consumers.add(consumer);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void detachConsumer(Consumer<Report> consumer) {
+        consumers.remove(consumer);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getPonderMove(Game game) {
+        if (cache != null && cache.find(game)) {
+            final int move = cache.getMove();
+
+            if (move != NULL_MOVE && game.isLegal(move)) {
+                return move;
+            }
+        }
+
+        return NULL_MOVE;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized int computeBestMove(Game game) {
+        if (game.hasEnded()) {
+            return NULL_MOVE;
+        }
+
+        this.game = game;
+        this.othello = (game instanceof OthelloGame) ?
+            (OthelloGame) game : null;
+        this.aborted = false;
+        this.rootTurn = game.turn();
+        this.nodes = 0L;
+        this.clockNodes = deadlineMode ? DEADLINE_CLOCK_NODES : CLOCK_NODES;
+        this.clock = clockNodes;
+        this.startTime = System.nanoTime();
+        this.budget = moveTime < MAX_NANOS / 1000000L ?
+            moveTime * 1000000L : MAX_NANOS;
+
+        if (deadlineMode) {
+            budget = Math.max(budget >> 1, budget - DEADLINE_MARGIN);
+        }
+
+        if (cache != null) {
+            cache.discharge();
+        }
+
+        game.ensureCapacity(MAX_DEPTH + game.length());
+
+        Arrays.fill(guesses[0], DRAW_SCORE);
+        Arrays.fill(guesses[1], DRAW_SCORE);
+        int bestMove = solveRoot(game);
+        long previousNodes = 0L;
+        long lastNodes = 0L;
+        long lastTime = 0L;
+
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            final long start = System.nanoTime();
+            final long visited = nodes;
+
+            if (deadlineMode && depth > 1) {
+                final long elapsed = start - startTime;
+
+                if (!fitsIteration(elapsed, lastTime, lastNodes, previousNodes)) {
+                    break;
+                }
+            }
+
+            final int[] guess = guesses[depth & 1];
+            final int score = (multiPV > 1) ?
+                searchLines(guess, depth) :
+                searchRoot(guess[ROOT], depth);
+
+            if (aborted || rootMove == NULL_MOVE) {
+                break;
+            }
+
+            previousNodes = lastNodes;
+            lastNodes = nodes - visited;
+            lastTime = System.nanoTime() - start;
+            bestMove = rootMove;
+            guess[ROOT] = score;
+            report(score, depth);
+
+            if (Math.abs(score) >= infinity()) {
+                break;
+            }
+        }
+
+        return bestMove;
+    }
+
+
+    /**
+     * Solves the root position if the endgame leaves can solve it,
+     * which adds its result to their store.
+     *
+     * @param game      Root position
+     * @return          Best move of the root or its first move
+     *                  if it was not solved
+     */
+    private int solveRoot(Game game) {
+        if (solver != null && game instanceof OthelloGame) {
+            final OthelloGame othello = (OthelloGame) game;
+
+            if (solver.isSolvable(othello)) {
+                solver.solve(othello);
+
+                if (game.isLegal(solver.getBestMove())) {
+                    return solver.getBestMove();
+                }
+            }
+        }
+
+        return firstMove(game);
+    }
+
+
+    /**
+     * Checks if the next iteration is expected to complete before the
+     * time limit. The next iteration is expected to visit as many more
+     * nodes than the last one as the last one visited more than the one
+     * before it, and to take proportionally longer.
+     *
+     * @param elapsed   Time elapsed since the search started
+     * @param time      Duration of the last iteration
+     * @param last      Nodes visited by the last iteration
+     * @param previous  Nodes visited by the iteration before it
+     * @return          If the next iteration is expected to fit
+     */
+    private boolean fitsIteration(long elapsed, long time, long last, long previous) {
+        final double limit = Math.max(MIN_BRANCHING, empties());
+        final double growth = (previous > 0L) ? (double) last / previous : limit;
+        final double branching = Math.max(MIN_BRANCHING, Math.min(limit, growth));
+
+        return elapsed + time * branching <= budget;
+    }
+
+
+    /**
+     * Number of empty squares on the searched position.
+     */
+    private int empties() {
+        if (game instanceof OthelloGame) {
+            final OthelloGame othello = (OthelloGame) game;
+            final long south = othello.state(SOUTH_STONE);
+            final long north = othello.state(NORTH_STONE);
+            return BOARD_SIZE - Long.bitCount(south | north);
+        }
+
+        return BOARD_SIZE;
+    }
+
+
+    /**
+     * Searches the root position to a fixed depth with the chosen
+     * strategy and sets the best move found.
+     *
+     * @param guess     Expected score of the position
+     * @param depth     Search depth
+     * @return          Score for the player to move
+     */
+    private int searchRoot(int guess, int depth) {
+        rootMove = NULL_MOVE;
+        return searchDriver(guess, depth);
+    }
+
+
+    /**
+     * Searches the root moves to a fixed depth and sorts them by their
+     * score. Moves are searched from the highest to the lowest score on
+     * the previous iteration. Once enough lines were found, each move is
+     * first searched with a null window on the score of the last line,
+     * and only if it is better its exact score is searched. The best
+     * move is set only if all the moves were searched.
+     *
+     * @param guess     Expected score of each move
+     * @param depth     Search depth
+     * @return          Score of the best move
+     */
+    private int searchLines(int[] guess, int depth) {
+        final int[] buffer = moves[0];
+        final int count = generateMoves(buffer, NULL_MOVE);
+        int exact = 0;
+
+        sortMoves(buffer, count, guess);
+        rootMove = NULL_MOVE;
+        base = 1;
+
+        for (int i = 0; i < count; i++) {
+            final int move = buffer[i];
+            int score = guess[move];
+
+            game.makeMove(move);
+
+            if (exact >= multiPV) {
+                final int bound = scores[multiPV - 1];
+                score = -searchWindow(-bound - 1, -bound, depth - 1);
+            }
+
+            if (exact < multiPV || score > scores[multiPV - 1]) {
+                score = -searchDriver(-score, depth - 1);
+                insertLine(exact++, move, score);
+            }
+
+            game.unmakeMove();
+
+            if (aborted) {
+                base = 0;
+                return DRAW_SCORE;
+            }
+
+            guess[move] = score;
+        }
+
+        base = 0;
+        lineCount = exact;
+        rootMove = lines[0];
+
+        return scores[0];
+    }
+
+
+    /**
+     * Sorts the moves on a buffer by their expected score, from the
+     * highest to the lowest.
+     *
+     * @param buffer    Moves buffer
+     * @param count     Number of moves
+     * @param guess     Expected score of each move
+     */
+    private static void sortMoves(int[] buffer, int count, int[] guess) {
+        for (int i = 1; i < count; i++) {
+            final int move = buffer[i];
+            int j = i;
+
+            while (j > 0 && guess[buffer[j - 1]] < guess[move]) {
+                buffer[j] = buffer[j - 1];
+                j--;
+            }
+
+            buffer[j] = move;
+        }
+    }
+
+
+    /**
+     * Searches the current subtree with the chosen strategy.
+     */
+    private int searchDriver(int guess, int depth) {
+        switch (driver) {
+            case MTDF:
+                return searchMTDF(guess, depth);
+            case ASPIRATION:
+                return searchAspiration(guess, depth);
+            default:
+                return searchWindow(-infinity(), infinity(), depth);
+        }
+    }
+
+
+    /**
+     * Inserts a root move on the sorted lines.
+     *
+     * @param count     Number of lines already sorted
+     * @param move      Root move
+     * @param score     Score of the move
+     */
+    private void insertLine(int count, int move, int score) {
+        int i = count;
+
+        while (i > 0 && scores[i - 1] < score) {
+            lines[i] = lines[i - 1];
+            scores[i] = scores[i - 1];
+            i--;
+        }
+
+        lines[i] = move;
+        scores[i] = score;
+    }
+
+
+    /**
+     * Finds the score of the root with null window searches. Each
+     * probe proves a new bound of the score; the next probe is placed
+     * on the last bound that moved.
+     */
+    private int searchMTDF(int guess, int depth) {
+        int lower = -infinity();
+        int upper = infinity();
+        int score = guess;
+
+        for (int probe = 0; lower < upper; probe++) {
+            if (probe == MAX_PROBES) {
+                return searchWindow(lower, upper, depth);
+            }
+
+            final int beta = (score == lower) ? score + 1 : score;
+            score = searchWindow(beta - 1, beta, depth);
+
+            if (aborted) {
+                break;
+            }
+
+            if (score < beta) {
+                upper = score;
+            } else {
+                lower = score;
+            }
+        }
+
+        return score;
+    }
+
+
+    /**
+     * Searches the root within a window around the expected score and
+     * doubles the width of the side that fails until the score falls
+     * inside the window.
+     */
+    private int searchAspiration(int guess, int depth) {
+        int below = ASPIRATION_WINDOW;
+        int above = ASPIRATION_WINDOW;
+
+        while (!aborted) {
+            final int alpha = Math.max(-infinity(), guess - below);
+            final int beta = Math.min(infinity(), guess + above);
+            final int score = searchWindow(alpha, beta, depth);
+
+            if (score <= alpha && alpha > -infinity()) {
+                below <<= 1;
+            } else if (score >= beta && beta < infinity()) {
+                above <<= 1;
+            } else {
+                return score;
+            }
+        }
+
+        return guess;
+    }
+
+
+    /**
+     * Searches the subtree within a window. The best move is only taken
+     * from searches that did not fail low, since otherwise all the
+     * moves are known only to be no better than the window, unless
+     * all of them were proven to lose.
+     */
+    private int searchWindow(int alpha, int beta, int depth) {
+        final int move = rootMove;
+
+        ply = base;
+        rootMove = NULL_MOVE;
+        final int score = search(alpha, beta, depth);
+
+        if ((score <= alpha && score > -infinity()) || aborted) {
+            rootMove = move;
+        }
+
+        return score;
+    }
+
+
+    /**
+     * Fail-soft alpha-beta search with a transpositions table.
+     *
+     * @param alpha     Lower bound of the window
+     * @param beta      Upper bound of the window
+     * @param depth     Remaining search depth
+     * @return          Score for the player to move
+     */
+    private int search(int alpha, int beta, int depth) {
+        nodes++;
+
+        if (aborted || isTimeUp()) {
+            return DRAW_SCORE;
+        }
+
+        if (game.hasEnded()) {
+            return outcome(game.outcome());
+        }
+
+        if (ply > base && depth <= LEAVES_DEPTH &&
+            leaves != null && leaves.find(game)) {
+            return outcome(leaves.getScore());
+        }
+
+        if (depth <= 0) {
+            return game.turn() * game.score();
+        }
+
+        // Probe the transpositions table
+
+        int hashMove = NULL_MOVE;
+
+        if (cache != null && cache.find(game)) {
+            hashMove = cache.getMove();
+
+            if (ply > base && cache.getDepth() >= depth) {
+                final int flag = cache.getFlag();
+                final int score = cache.getScore();
+
+                if (flag == Flag.EXACT) return score;
+                if (flag == Flag.LOWER && score >= beta) return score;
+                if (flag == Flag.UPPER && score <= alpha) return score;
+            }
+        }
+
+        // Search the hash move first and then the rest of moves
+
+        final int[] buffer = moves[ply];
+        final int length = generateMoves(buffer, hashMove);
+
+        // Cut off the node if a child is known to refute it
+
+        if (table != null && othello != null && ply > base && depth >= ETC_DEPTH) {
+            final int score = probeChildren(buffer, length, beta, depth);
+
+            if (score >= beta) {
+                return score;
+            }
+        }
+
+        int bestScore = -infinity();
+        int bestMove = NULL_MOVE;
+
+        for (int i = 0; i < length; i++) {
+            final int move = buffer[i];
+            final int bound = Math.max(alpha, bestScore);
+
+            ply++;
+            game.makeMove(move);
+            final int score = -search(-beta, -bound, depth - 1);
+            game.unmakeMove();
+            ply--;
+
+            if (aborted) {
+                return bestScore;
+            }
+
+            if (score > bestScore) {
+                bestScore = score;
+                bestMove = move;
+
+                if (ply == 0 && score > alpha) {
+                    rootMove = move;
+                }
+
+                if (score >= beta) {
+                    break;
+                }
+            }
+
+            if (ply == 0 && rootMove == NULL_MOVE && score <= -infinity()) {
+                rootMove = move;
+            }
+        }
+
+        if (cache != null) {
+            final int flag =
+                bestScore <= alpha ? Flag.UPPER :
+                bestScore >= beta ? Flag.LOWER : Flag.EXACT;
+            cache.store(game, bestScore, bestMove, depth, flag);
+        }
+
+        return bestScore;
+    }
+
+
+    /**
+     * Probes the transpositions table for the children of the current
+     * node without making their moves. If a child has an upper bound
+     * that proves a score not below beta, the bound is stored for the
+     * current node.
+     *
+     * @param buffer    Legal moves
+     * @param length    Number of legal moves
+     * @param beta      Upper bound of the window
+     * @param depth     Remaining search depth
+     * @return          Proven score or a score below beta
+     */
+    private int probeChildren(int[] buffer, int length, int beta, int depth) {
+        for (int i = 0; i < length; i++) {
+            final int move = buffer[i];
+
+            if (table.find(othello.hashAfter(move)) && table.getDepth() >= depth - 1) {
+                final int flag = table.getFlag();
+                final int score = -table.getScore();
+
+                if (flag != Flag.LOWER && score >= beta) {
+                    cache.store(game, score, move, depth, Flag.LOWER);
+                    return score;
+                }
+            }
+        }
+
+        return -infinity() - 1;
+    }
+
+
+    /**
+     * Stores the legal moves of the current position on a buffer,
+     * placing the given move first if it is legal.
+     *
+     * @param buffer    Moves buffer
+     * @param first     Move to search first
+     * @return          Number of moves stored
+     */
+    private int generateMoves(int[] buffer, int first) {
+        int length = 0;
+        int move;
+
+        game.resetCursor();
+
+        while ((move = game.nextMove()) != NULL_MOVE) {
+            buffer[length] = move;
+
+            if (move == first) {
+                buffer[length] = buffer[0];
+                buffer[0] = move;
+            }
+
+            length++;
+        }
+
+        return length;
+    }
+
+
+    /**
+     * First legal move of a position.
+     */
+    private static int firstMove(Game game) {
+        game.resetCursor();
+        final int move = game.nextMove();
+        game.resetCursor();
+        return move;
+    }
+
+
+    /**
+     * Score of a known outcome for the player to move. Draws are scored
+     * with the contempt for the engine player.
+     *
+     * @param outcome   Outcome for the south player
+     */
+    private int outcome(int outcome) {
+        if (outcome == DRAW_SCORE) {
+            final int score = contempt();
+            return game.turn() == rootTurn ? score : -score;
+        }
+
+        return outcome > 0 ?
+            game.turn() * infinity() :
+            -game.turn() * infinity();
+    }
+
+
+    /**
+     * Checks the time limit every few nodes and aborts the search
+     * if it was exceeded.
+     */
+    private boolean isTimeUp() {
+        if (--clock <= 0) {
+            clock = clockNodes;
+
+            if (System.nanoTime() - startTime >= budget) {
+                aborted = true;
+            }
+        }
+
+        return aborted;
+    }
+
+
+    /**
+     * Score of a draw for the engine player.
+     */
+    private int contempt() {
+        return contempt != null ? contempt : game.contempt();
+    }
+
+
+    /**
+     * Score of a won game.
+     */
+    private int infinity() {
+        return infinity != null ? infinity : game.infinity();
+    }
+
+
+    /**
+     * Notifies the consumers of a completed iteration.
+     *
+     * @param score     Score for the root player
+     * @param depth     Depth of the iteration
+     */
+    private void report(int score, int depth) {
+        if (consumers.isEmpty()) {
+            return;
+        }
+
+        final Report report = (multiPV > 1) ?
+            multiPVReport(depth) :
+            new SearchReport(score, depth, variation(rootMove));
+
+        for (Consumer<Report> consumer : consumers) {
+            consumer.accept(report);
+        }
+    }
+
+
+    /**
+     * Report of an iteration with the best lines on multi-PV mode.
+     *
+     * @param depth     Depth of the iteration
+     */
+    private Report multiPVReport(int depth) {
+        final int count = Math.min(multiPV, lineCount);
+        final Report[] reports = new Report[count];
+
+        for (int i = 0; i < count; i++) {
+            final int[] line = variation(lines[i]);
+            reports[i] = new SearchReport(scores[i], depth, line);
+        }
+
+        return new MultiPVReport(reports);
+    }
+
+
+    /**
+     * Variation of the root taken from the transpositions table,
+     * starting with the given root move.
+     *
+     * @param first     Root move
+     */
+    private int[] variation(int first) {
+        final int[] line = new int[maxDepth];
+        int length = 0;
+
+        if (first != NULL_MOVE) {
+            line[length++] = first;
+            game.makeMove(first);
+
+            while (length < line.length && !game.hasEnded()) {
+                final int move = getPonderMove(game);
+
+                if (move == NULL_MOVE) {
+                    break;
+                }
+
+                line[length++] = move;
+                game.makeMove(move);
+            }
+
+            game.unmakeMoves(length);
+        }
+
+        return Arrays.copyOf(line, length);
+    }
+
+
+    /**
+     * Result of a completed search iteration on multi-PV mode. The
+     * report itself describes the best move.
+     */
+    public static final class MultiPVReport implements Report {
+
+        /** Reports of the best root moves */
+        private final Report[] lines;
+
+
+        /**
+         * Creates a new report.
+         */
+        MultiPVReport(Report[] lines) {
+            this.lines = lines;
+        }
+
+
+        /**
+         * Reports of the best root moves, sorted by score.
+         *
+         * @return      A report for each move
+         */
+        public Report[] getLines() {
+            return lines.clone();
+        }
+
+
+        /** {@inheritDoc} */
+        @Override public int getScore() { return lines[0].getScore(); }
+
+        /** {@inheritDoc} */
+        @Override public int getDepth() { return lines[0].getDepth(); }
+
+        /** {@inheritDoc} */
+        @Override public int getFlag() { return lines[0].getFlag(); }
+
+        /** {@inheritDoc} */
+        @Override public int[] getVariation() { return lines[0].getVariation(); }
+    }
+
+
+    /**
+     * Result of a completed search iteration.
+     */
+    private static final class SearchReport implements Report {
+
+        /** Score for the root player */
+        private final int score;
+
+        /** Depth of the iteration */
+        private final int depth;
+
+        /** Principal variation */
+        private final int[] variation;
+
+
+        /**
+         * Creates a new report.
+         */
+        SearchReport(int score, int depth, int[] variation) {
+            this.score = score;
+            this.depth = depth;
+            this.variation = variation;
+        }
+
+
+        /** {@inheritDoc} */
+        @Override public int getScore() { return score; }
+
+        /** {@inheritDoc} */
+        @Override public int getDepth() { return depth; }
+
+        /** {@inheritDoc} */
+        @Override public int getFlag() { return Flag.EXACT; }
+
+        /** {@inheritDoc} */
+        @Override public int[] getVariation() { return variation; }
+    }
+}
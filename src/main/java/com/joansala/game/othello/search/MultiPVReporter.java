@@ -0,0 +1,96 @@
+package com.joansala.game.othello.search;
+
+/*
+ * Aalina engine.
+ * Copyright (C) 2021-2024 Joan Sala Soler <contact@joansala.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import java.util.function.Consumer;
+import com.joansala.engine.Game;
+import com.joansala.engine.Report;
+import com.joansala.game.othello.OthelloBoard;
+import com.joansala.game.othello.search.MTDNegamax.MultiPVReport;
+
+
+/**
+ * Reports the best root moves of each iteration on multi-PV mode.
+ *
+ * Attached as a consumer of the engine reports, sends to an output a
+ * line for each root move found on a {@link MultiPVReport} with the UCI
+ * information format, where the moves are ranked from one. Other reports
+ * are ignored, since the engine service already prints them.
+ */
+public final class MultiPVReporter implements Consumer<Report> {
+
+    /** Converts moves to coordinates */
+    private final OthelloBoard board = new OthelloBoard();
+
+    /** Converts scores to centipawns */
+    private final Game game;
+
+    /** Receives the formatted lines */
+    private final Consumer<String> output;
+
+
+    /**
+     * Creates a new reporter.
+     *
+     * @param game      Game of the engine
+     * @param output    Receives the information strings
+     */
+    public MultiPVReporter(Game game, Consumer<String> output) {
+        this.game = game;
+        this.output = output;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void accept(Report report) {
+        if (report instanceof MultiPVReport) {
+            Report[] lines = ((MultiPVReport) report).getLines();
+
+            for (int i = 0; i < lines.length; i++) {
+                output.accept(toInfoString(lines[i], 1 + i));
+            }
+        }
+    }
+
+
+    /**
+     * Formats a root move report as an UCI information string.
+     *
+     * @param line      Report of the move
+     * @param rank      Rank of the move
+     * @return          Information line
+     */
+    private String toInfoString(Report line, int rank) {
+        StringBuilder builder = new StringBuilder("info");
+
+        builder.append(" depth ").append(line.getDepth());
+        builder.append(" multipv ").append(rank);
+        builder.append(" score cp ").append(game.toCentiPawns(line.getScore()));
+        builder.append(" pv");
+
+        for (int move : line.getVariation()) {
+            builder.append(' ').append(board.toCoordinates(move));
+        }
+
+        return builder.toString();
+    }
+}
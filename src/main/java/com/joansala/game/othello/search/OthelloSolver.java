@@ -0,0 +1,529 @@
+package com.joansala.game.othello.search;
+
+/*
+ * Aalina engine.
+ * Copyright (C) 2021-2024 Joan Sala Soler <contact@joansala.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import com.joansala.game.othello.OthelloGame;
+import com.joansala.game.othello.store.SolvedStore;
+import static com.joansala.engine.Game.*;
+import static com.joansala.util.bits.Bits.*;
+import static com.joansala.game.othello.Othello.*;
+import static com.joansala.game.othello.OthelloGame.*;
+import static com.joansala.game.othello.stats.SearchStats.*;
+import static com.joansala.game.othello.stats.StatsConfig.ENABLED;
+
+
+/**
+ * Exact endgame solver for Othello.
+ *
+ * Searches a position until the end of the game with a fail-soft
+ * alpha-beta and returns its final disc difference for the player to
+ * move, where empty squares count for the winner. The best move found
+ * for a position on a previous search is tried first, followed by the
+ * moves that leave the opponent with fewer replies while enough squares
+ * are empty, or else by the moves on quadrants with an odd number of
+ * empty squares. On nodes with many empty squares the children are probed
+ * on the cache before searching them, and the search is cut off if any
+ * of them already proves a bound (enhanced transposition cutoffs).
+ * Instances are not thread-safe.
+ *
+ * The solver can also determine only if a position is won, drawn or
+ * lost (WLD) with a null window search around the draw score, which
+ * is much cheaper than computing the exact score. Exact solves start
+ * with a WLD search and then search only the side of the window where
+ * the exact score is known to be. The bounds found by WLD searches are
+ * kept on their own cache, so exact results do not evict them.
+ *
+ * If a {@link SolvedStore} is set, exact solves look up the position on
+ * the store before searching and add their result to it afterwards.
+ */
+public class OthelloSolver {
+
+    /** Maximum possible disc difference */
+    public static final int MAX_DISCS = BOARD_SIZE;
+
+    /** Empty squares from which moves are sorted */
+    public static final int SORT_EMPTIES = 7;
+
+    /** Empty squares from which transposition cutoffs are tried */
+    public static final int ETC_EMPTIES = 12;
+
+    /** Bounds found by exact searches */
+    private final SolverCache exactCache;
+
+    /** Bounds found by win-loss-draw searches */
+    private final SolverCache outcomeCache;
+
+    /** Cache used by the current search */
+    private SolverCache cache;
+
+    /** Persistent store of solved positions */
+    private SolvedStore store = null;
+
+    /** Legal moves buffer for each ply */
+    private final int[][] moves;
+
+    /** Move ordering keys for each ply */
+    private final int[][] keys;
+
+    /** Game being solved */
+    private OthelloGame game;
+
+    /** Best move found on the last solve */
+    private int bestMove = NULL_MOVE;
+
+    /** Nodes visited since the last reset */
+    private long nodes = 0L;
+
+    /** Distance to the root of the current node */
+    private int ply = 0;
+
+
+    /**
+     * Creates a new solver with default caches.
+     */
+    public OthelloSolver() {
+        this(new SolverCache(), new SolverCache(SolverCache.DEFAULT_SIZE >> 2));
+    }
+
+
+    /**
+     * Creates a new solver using the given caches.
+     *
+     * @param exactCache    Cache for exact searches
+     * @param outcomeCache  Cache for win-loss-draw searches
+     */
+    public OthelloSolver(SolverCache exactCache, SolverCache outcomeCache) {
+        this.cache = exactCache;
+        this.exactCache = exactCache;
+        this.outcomeCache = outcomeCache;
+        this.moves = new int[BOARD_SIZE + 1][BOARD_SIZE];
+        this.keys = new int[BOARD_SIZE + 1][BOARD_SIZE];
+    }
+
+
+    /**
+     * Best move found on the last solved position.
+     *
+     * @return      Move identifier or {@code NULL_MOVE}
+     */
+    public int getBestMove() {
+        return bestMove;
+    }
+
+
+    /**
+     * Sets the store where exactly solved positions are kept.
+     *
+     * @param store     Solved positions store or {@code null}
+     */
+    public void setStore(SolvedStore store) {
+        this.store = store;
+    }
+
+
+    /**
+     * Number of nodes visited since the solver was created or
+     * the last call to {@link #resetNodes()}.
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+
+    /**
+     * Sets the nodes counter to zero.
+     */
+    public void resetNodes() {
+        nodes = 0L;
+    }
+
+
+    /**
+     * Discards all the cached results.
+     */
+    public void clear() {
+        exactCache.clear();
+        outcomeCache.clear();
+    }
+
+
+    /**
+     * Computes the exact score of a position. A win-loss-draw search
+     * is performed first to narrow the window of the exact search.
+     *
+     * @param game      Game to solve
+     * @return          Disc difference for the player to move
+     */
+    public int solve(OthelloGame game) {
+        if (store == null || game.hasEnded()) {
+            return solveExact(game);
+        }
+
+        final long player = game.state(game.turn() == SOUTH ? SOUTH_STONE : NORTH_STONE);
+        final long opponent = game.state(game.turn() == SOUTH ? NORTH_STONE : SOUTH_STONE);
+        final int entry = store.find(player, opponent);
+
+        if (entry != 0) {
+            bestMove = SolvedStore.move(entry);
+            return SolvedStore.score(entry);
+        }
+
+        final int score = solveExact(game);
+
+        try {
+            store.store(player, opponent, score, bestMove);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return score;
+    }
+
+
+    /**
+     * Computes the exact score of a position with a win-loss-draw
+     * search followed by a search on the side of the outcome.
+     */
+    private int solveExact(OthelloGame game) {
+        final int outcome = solveOutcome(game);
+
+        if (outcome > DRAW_SCORE) {
+            return solve(game, DRAW_SCORE, MAX_DISCS);
+        }
+
+        if (outcome < DRAW_SCORE) {
+            return solve(game, -MAX_DISCS, DRAW_SCORE);
+        }
+
+        return DRAW_SCORE;
+    }
+
+
+    /**
+     * Determines if a position is won, drawn or lost for the player
+     * to move. The best move found is a move that achieves the result,
+     * but not necessarily the one with the highest disc difference.
+     *
+     * @param game      Game to solve
+     * @return          Positive if won, negative if lost or
+     *                  {@code DRAW_SCORE} if drawn
+     */
+    public int solveOutcome(OthelloGame game) {
+        final int score = search(game, outcomeCache, -1, 1);
+        return Integer.signum(score);
+    }
+
+
+    /**
+     * Searches a position within the given window. The returned score
+     * is exact if it falls inside the window; otherwise it is a bound
+     * of the exact score on the side of the window it falls.
+     *
+     * @param game      Game to solve
+     * @param alpha     Lower bound of the window
+     * @param beta      Upper bound of the window
+     * @return          Disc difference for the player to move
+     */
+    public int solve(OthelloGame game, int alpha, int beta) {
+        return search(game, exactCache, alpha, beta);
+    }
+
+
+    /**
+     * Searches the root position within the given window.
+     *
+     * @param game      Game to solve
+     * @param cache     Cache to use
+     * @param alpha     Lower bound of the window
+     * @param beta      Upper bound of the window
+     * @return          Disc difference for the player to move
+     */
+    private int search(OthelloGame game, SolverCache cache, int alpha, int beta) {
+        this.game = game;
+        this.cache = cache;
+        this.ply = 0;
+        this.bestMove = NULL_MOVE;
+
+        final boolean ended = game.hasEnded();
+        final int score = search(alpha, beta);
+        final int entry = cache.find(game.hash());
+
+        if (ended == false) {
+            if (empty(game.mobility())) {
+                bestMove = FORFEIT_MOVE;
+            } else if (entry != 0) {
+                bestMove = SolverCache.move(entry);
+            }
+        }
+
+        return score;
+    }
+
+
+    /**
+     * Number of empty squares on the current position.
+     */
+    private int empties() {
+        final long south = game.state(SOUTH_STONE);
+        final long north = game.state(NORTH_STONE);
+        return BOARD_SIZE - count(south | north);
+    }
+
+
+    /**
+     * Final score of an ended game for the player to move.
+     */
+    private int finalScore() {
+        final long south = game.state(SOUTH_STONE);
+        final long north = game.state(NORTH_STONE);
+        final int empties = BOARD_SIZE - count(south | north);
+        final int difference = count(south) - count(north);
+        final int score = game.turn() == SOUTH ? difference : -difference;
+
+        if (score > 0) return score + empties;
+        if (score < 0) return score - empties;
+
+        return DRAW_SCORE;
+    }
+
+
+    /**
+     * Fail-soft alpha-beta search until the end of the game.
+     *
+     * @param alpha     Lower bound of the window
+     * @param beta      Upper bound of the window
+     * @return          Score for the player to move
+     */
+    private int search(int alpha, int beta) {
+        nodes++;
+
+        if (ENABLED) {
+            stripe()[SOLVER_NODES]++;
+        }
+
+        if (game.hasEnded()) {
+            return finalScore();
+        }
+
+        // The player must forfeit its turn
+
+        if (empty(game.mobility())) {
+            game.makeMove(FORFEIT_MOVE);
+            final int score = -search(-beta, -alpha);
+            game.unmakeMove();
+            return score;
+        }
+
+        // Probe the cached bounds of the position
+
+        final long hash = game.hash();
+        final int entry = cache.find(hash);
+        final int empties = empties();
+
+        if (entry != 0) {
+            final int lower = SolverCache.lower(entry);
+            final int upper = SolverCache.upper(entry);
+
+            if (lower >= beta) return lower;
+            if (upper <= alpha) return upper;
+            if (lower == upper) return lower;
+
+            alpha = Math.max(alpha, lower);
+            beta = Math.min(beta, upper);
+        }
+
+        // Generate and order the legal moves
+
+        final int length = generateMoves(empties);
+        final int[] moves = this.moves[ply];
+        final int start = alpha;
+
+        if (entry != 0) {
+            promoteMove(moves, length, SolverCache.move(entry));
+        }
+
+        // Enhanced transposition cutoffs
+
+        if (empties >= ETC_EMPTIES) {
+            final int score = probeChildren(moves, length, beta);
+
+            if (score >= beta) {
+                return score;
+            }
+        }
+
+        // Search each legal move
+
+        int bestScore = -MAX_DISCS - 1;
+        int bestMove = moves[0];
+
+        for (int i = 0; i < length; i++) {
+            final int move = moves[i];
+
+            game.makeMove(move);
+            ply++;
+            final int score = -search(-beta, -Math.max(alpha, bestScore));
+            ply--;
+            game.unmakeMove();
+
+            if (score > bestScore) {
+                bestScore = score;
+                bestMove = move;
+
+                if (score >= beta) {
+                    break;
+                }
+            }
+        }
+
+        // Store the bounds found for the position
+
+        if (bestScore <= start) {
+            cache.store(hash, -MAX_DISCS, bestScore, bestMove);
+        } else if (bestScore >= beta) {
+            cache.store(hash, bestScore, MAX_DISCS, bestMove);
+        } else {
+            cache.store(hash, bestScore, bestScore, bestMove);
+        }
+
+        return bestScore;
+    }
+
+
+    /**
+     * Fills the moves buffer of the current ply with the legal moves
+     * of the player to move, sorted when enough squares are empty.
+     *
+     * @param empties   Empty squares on the board
+     * @return          Number of legal moves
+     */
+    private int generateMoves(int empties) {
+        final int[] moves = this.moves[ply];
+        long mobility = game.mobility();
+        int length = 0;
+
+        while (empty(mobility) == false) {
+            final int move = first(mobility);
+            moves[length++] = move;
+            mobility ^= bit(move);
+        }
+
+        if (length > 1 && empties > SORT_EMPTIES) {
+            sortMoves(moves, keys[ply], length);
+        } else if (length > 1) {
+            sortParity(moves, length);
+        }
+
+        return length;
+    }
+
+
+    /**
+     * Moves the moves that are played on a quadrant with an odd number
+     * of empty squares before the others, keeping their order.
+     */
+    private void sortParity(int[] moves, int length) {
+        final int parity = game.parity();
+        int odd = 0;
+
+        for (int i = 0; i < length; i++) {
+            final int move = moves[i];
+
+            if ((parity & quadrantBit(move)) != 0) {
+                System.arraycopy(moves, odd, moves, odd + 1, i - odd);
+                moves[odd++] = move;
+            }
+        }
+    }
+
+
+    /**
+     * Moves a move to the front of the moves list, keeping the
+     * relative order of the other moves.
+     */
+    private static void promoteMove(int[] moves, int length, int move) {
+        for (int i = 0; i < length; i++) {
+            if (moves[i] == move) {
+                System.arraycopy(moves, 0, moves, 1, i);
+                moves[0] = move;
+                break;
+            }
+        }
+    }
+
+
+    /**
+     * Probes the cached bounds of the children of the current node
+     * without making their moves. If a child proves a score that is
+     * not below beta the bound is stored for the current node.
+     *
+     * @param moves     Legal moves
+     * @param length    Number of legal moves
+     * @param beta      Upper bound of the window
+     * @return          Proven score or a score below beta
+     */
+    private int probeChildren(int[] moves, int length, int beta) {
+        for (int i = 0; i < length; i++) {
+            final int move = moves[i];
+            final int entry = cache.find(game.hashAfter(move));
+
+            if (entry != 0) {
+                final int score = -SolverCache.upper(entry);
+
+                if (score >= beta) {
+                    cache.store(game.hash(), score, MAX_DISCS, move);
+                    return score;
+                }
+            }
+        }
+
+        return -MAX_DISCS - 1;
+    }
+
+
+    /**
+     * Sorts moves by the number of replies they leave to the opponent,
+     * fewer replies first. Ties are broken by quadrant parity.
+     */
+    private void sortMoves(int[] moves, int[] keys, int length) {
+        for (int i = 0; i < length; i++) {
+            final int parity = game.parity() & quadrantBit(moves[i]);
+            game.makeMove(moves[i]);
+            keys[i] = (count(game.mobility()) << 1) | (parity == 0 ? 1 : 0);
+            game.unmakeMove();
+        }
+
+        for (int i = 1; i < length; i++) {
+            final int move = moves[i];
+            final int key = keys[i];
+            int j = i - 1;
+
+            while (j >= 0 && keys[j] > key) {
+                moves[j + 1] = moves[j];
+                keys[j + 1] = keys[j];
+                j--;
+            }
+
+            moves[j + 1] = move;
+            keys[j + 1] = key;
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.joansala.game.othello.search;
+
+/*
+ * Aalina engine.
+ * Copyright (C) 2021-2024 Joan Sala Soler <contact@joansala.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import com.google.inject.Inject;
+import com.joansala.engine.Game;
+import com.joansala.engine.negamax.Negamax;
+import com.joansala.game.othello.OthelloGame;
+import static com.joansala.engine.Game.*;
+import static com.joansala.game.othello.Othello.*;
+
+
+/**
+ * Negamax engine that thinks on the opponent's time.
+ *
+ * After a best move is computed, the reply expected from the opponent
+ * is looked up on the transpositions table and the position after it
+ * is searched on a background thread until the next move is requested.
+ * Pondering repeats time limited searches of the position, which are
+ * resumed quickly from the transpositions table.
+ *
+ * If the opponent played the expected reply (a ponder hit) the ongoing
+ * search becomes the search of the move and is given the configured
+ * move time from that moment. Otherwise the ponder search is aborted
+ * and a new search starts, which still benefits from the transpositions
+ * stored while pondering. Moves must be requested from a single thread.
+ */
+public class PonderingNegamax extends Negamax {
+
+    /** Ongoing ponder search or {@code null} */
+    private Thread ponderThread = null;
+
+    /** Hash of the position being pondered */
+    private long ponderHash;
+
+    /** Best move found by the last ponder search */
+    private volatile int ponderMove = NULL_MOVE;
+
+    /** Whether the ponder thread must keep searching */
+    private volatile boolean pondering = false;
+
+
+    /**
+     * Creates a new pondering engine.
+     */
+    @Inject public PonderingNegamax() {
+        super();
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void newMatch() {
+        stopPondering();
+        super.newMatch();
+    }
+
+
+    /**
+     * Computes a best move for a position and starts pondering on
+     * the reply expected from the opponent.
+     *
+     * @param game      Game state
+     * @return          Best move found
+     */
+    @Override
+    public int computeBestMove(Game game) {
+        int bestMove = isPondering(game) ? finishPondering() : NULL_MOVE;
+
+        if (bestMove == NULL_MOVE) {
+            bestMove = search(game);
+        }
+
+        if (bestMove != NULL_MOVE) {
+            startPondering((OthelloGame) game, bestMove);
+        }
+
+        return bestMove;
+    }
+
+
+    /**
+     * Searches a position after stopping any ponder search.
+     */
+    private int search(Game game) {
+        stopPondering();
+        return super.computeBestMove(game);
+    }
+
+
+    /**
+     * Checks if a ponder search is running for a position.
+     *
+     * @param game      Game state
+     * @return          If the position is being pondered
+     */
+    public boolean isPondering(Game game) {
+        return ponderThread != null && ponderHash == game.hash();
+    }
+
+
+    /**
+     * Lets the ongoing ponder search run for the move time and
+     * returns the best move it found.
+     */
+    private int finishPondering() {
+        try {
+            ponderThread.join(getMoveTime());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        stopPondering();
+
+        return ponderMove;
+    }
+
+
+    /**
+     * Starts searching the position after a move and the reply
+     * to it stored on the transpositions table.
+     *
+     * @param game      Position before the move
+     * @param move      Move to play
+     */
+    private void startPondering(OthelloGame game, int move) {
+        game.makeMove(move);
+        final int reply = getPonderMove(game);
+        final boolean legal = game.hasEnded() == false &&
+            reply != NULL_MOVE && game.isLegal(reply);
+
+        if (legal == false) {
+            game.unmakeMove();
+            return;
+        }
+
+        game.makeMove(reply);
+
+        final OthelloGame position = new OthelloGame();
+
+        position.setScorer(game.getScorer());
+        position.setPosition(
+            game.state(SOUTH_STONE),
+            game.state(NORTH_STONE),
+            game.turn());
+
+        game.unmakeMove();
+        game.unmakeMove();
+
+        if (position.hasEnded()) {
+            return;
+        }
+
+        ponderHash = position.hash();
+        ponderMove = NULL_MOVE;
+        pondering = true;
+
+        ponderThread = new Thread(() -> ponder(position), "ponder");
+        ponderThread.setDaemon(true);
+        ponderThread.start();
+    }
+
+
+    /**
+     * Searches a position until pondering is stopped or a search
+     * completes before its time limit.
+     *
+     * @param position  Position to ponder
+     */
+    private void ponder(OthelloGame position) {
+        while (pondering == true) {
+            final long start = System.currentTimeMillis();
+            ponderMove = super.computeBestMove(position);
+
+            if (System.currentTimeMillis() - start < getMoveTime()) {
+                break;
+            }
+        }
+    }
+
+
+    /**
+     * Aborts the ongoing ponder search and waits for it to finish.
+     */
+    private void stopPondering() {
+        if (ponderThread == null) {
+            return;
+        }
+
+        pondering = false;
+
+        while (ponderThread.isAlive()) {
+            abortComputation();
+
+            try {
+                ponderThread.join(10L);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+
+        ponderThread = null;
+    }
+}
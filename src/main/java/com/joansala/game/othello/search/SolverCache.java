@@ -0,0 +1,138 @@
+package com.joansala.game.othello.search;
+
+/*
+ * Aalina engine.
+ * Copyright (C) 2021-2024 Joan Sala Soler <contact@joansala.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import java.util.Arrays;
+
+
+/**
+ * Direct mapped table of endgame solver bounds.
+ *
+ * Each entry stores the hash of a position and an integer packing a
+ * lower bound, an upper bound and the best move found for it. Exact
+ * endgame results do not depend on a search depth, so none is stored
+ * and entries are always replaced. Instances are not thread-safe.
+ */
+public final class SolverCache {
+
+    /** Default table size in bytes */
+    public static final long DEFAULT_SIZE = 16L << 20;
+
+    /** Bytes used by each table entry */
+    private static final int ENTRY_SIZE = 12;
+
+    /** Offset added to scores to make them positive */
+    private static final int OFFSET = 64;
+
+    /** Set on every stored entry */
+    private static final int VALID = 1 << 24;
+
+    /** Position hash of each entry */
+    private final long[] keys;
+
+    /** Packed bounds and move of each entry */
+    private final int[] entries;
+
+    /** Mask to obtain an entry index from a hash */
+    private final int mask;
+
+
+    /**
+     * Creates a new table with the default size.
+     */
+    public SolverCache() {
+        this(DEFAULT_SIZE);
+    }
+
+
+    /**
+     * Creates a new table that uses at most the given memory.
+     *
+     * @param memory    Table size in bytes
+     */
+    public SolverCache(long memory) {
+        final long count = Math.max(1L, memory / ENTRY_SIZE);
+        final int size = (int) Long.highestOneBit(Math.min(count, 1L << 30));
+
+        keys = new long[size];
+        entries = new int[size];
+        mask = size - 1;
+    }
+
+
+    /**
+     * Finds the entry stored for a position.
+     *
+     * @param hash      Position hash
+     * @return          Packed entry or zero if not found
+     */
+    public int find(long hash) {
+        final int index = mask & (int) hash;
+        return keys[index] == hash ? entries[index] : 0;
+    }
+
+
+    /**
+     * Stores the bounds found for a position.
+     *
+     * @param hash      Position hash
+     * @param lower     Lower bound of the score
+     * @param upper     Upper bound of the score
+     * @param move      Best move found
+     */
+    public void store(long hash, int lower, int upper, int move) {
+        final int index = mask & (int) hash;
+        keys[index] = hash;
+        entries[index] = VALID | (move << 16) |
+            ((upper + OFFSET) << 8) | (lower + OFFSET);
+    }
+
+
+    /**
+     * Removes all the stored entries.
+     */
+    public void clear() {
+        Arrays.fill(keys, 0L);
+        Arrays.fill(entries, 0);
+    }
+
+
+    /**
+     * Lower bound of a packed entry.
+     */
+    public static int lower(int entry) {
+        return (0xFF & entry) - OFFSET;
+    }
+
+
+    /**
+     * Upper bound of a packed entry.
+     */
+    public static int upper(int entry) {
+        return (0xFF & (entry >>> 8)) - OFFSET;
+    }
+
+
+    /**
+     * Best move of a packed entry.
+     */
+    public static int move(int entry) {
+        return 0xFF & (entry >>> 16);
+    }
+}
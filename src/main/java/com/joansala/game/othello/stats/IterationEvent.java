@@ -0,0 +1,75 @@
+package com.joansala.game.othello.stats;
+
+/*
+ * Aalina engine.
+ * Copyright (C) 2021-2024 Joan Sala Soler <contact@joansala.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+
+/**
+ * Flight recorder event committed after each search iteration.
+ */
+@Name("com.joansala.othello.Iteration")
+@Label("Search Iteration")
+@Category({ "Othello", "Search" })
+@Description("Search statistics of an iterative deepening iteration")
+public final class IterationEvent extends Event {
+
+    @Label("Depth")
+    public int depth;
+
+    @Label("Score")
+    public int score;
+
+    @Label("Nodes")
+    public long nodes;
+
+    @Label("Evaluations")
+    public long evaluations;
+
+    @Label("Passes")
+    public long passes;
+
+    @Label("Cutoffs")
+    public long cutoffs;
+
+    @Label("First Move Cutoffs")
+    public long firstCutoffs;
+
+    @Label("Cache Probes")
+    public long probes;
+
+    @Label("Cache Hits")
+    public long hits;
+
+    @Label("Cache Collisions")
+    public long collisions;
+
+    @Label("Solver Nodes")
+    public long solverNodes;
+
+    @Label("Evaluation Cache Probes")
+    public long evalProbes;
+
+    @Label("Evaluation Cache Hits")
+    public long evalHits;
+}
@@ -0,0 +1,185 @@
+package com.joansala.game.othello.stats;
+
+/*
+ * Aalina engine.
+ * Copyright (C) 2021-2024 Joan Sala Soler <contact@joansala.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+
+/**
+ * Counters of the search statistics.
+ *
+ * Each thread increments its own stripe of counters, which is a plain
+ * array of longs, so no synchronization is needed on the hot paths.
+ * Snapshots are obtained by adding up the stripes of all threads. All
+ * the instrumentation is guarded by {@link StatsConfig#ENABLED}, thus
+ * it is removed at compile time unless explicitly enabled.
+ */
+public final class SearchStats {
+
+    /** Maximum ply for which nodes are counted */
+    public static final int MAX_PLY = 128;
+
+    /** Number of moves made */
+    public static final int NODES = 0;
+
+    /** Number of forfeit moves made */
+    public static final int PASSES = 1;
+
+    /** Number of heuristic evaluations */
+    public static final int EVALUATIONS = 2;
+
+    /** Number of nodes with at least one child searched */
+    public static final int INTERIORS = 3;
+
+    /** Interior nodes left before searching all their moves */
+    public static final int CUTOFFS = 4;
+
+    /** Cutoffs produced by the first move searched */
+    public static final int FIRST_CUTOFFS = 5;
+
+    /** Number of transposition table probes */
+    public static final int PROBES = 6;
+
+    /** Probes that found an entry */
+    public static final int HITS = 7;
+
+    /** Hits whose stored move is not legal */
+    public static final int COLLISIONS = 8;
+
+    /** Nodes visited by the endgame solver */
+    public static final int SOLVER_NODES = 9;
+
+    /** Number of evaluation cache probes */
+    public static final int EVAL_PROBES = 10;
+
+    /** Evaluation cache probes that found a score */
+    public static final int EVAL_HITS = 11;
+
+    /** Offset of the nodes counted per ply */
+    public static final int PLY_NODES = 12;
+
+    /** Number of counters on each stripe */
+    public static final int SIZE = PLY_NODES + MAX_PLY;
+
+    /** Stripes of all the threads */
+    private static final List<long[]> stripes = new CopyOnWriteArrayList<>();
+
+    /** Stripe of the current thread */
+    private static final ThreadLocal<long[]> local =
+        ThreadLocal.withInitial(SearchStats::newStripe);
+
+
+    /**
+     * This class cannot be instantiated.
+     */
+    private SearchStats() {}
+
+
+    /**
+     * Obtain the counters stripe of the current thread.
+     *
+     * @return      Counters array
+     */
+    public static long[] stripe() {
+        return local.get();
+    }
+
+
+    /**
+     * Creates and registers a new counters stripe.
+     */
+    private static long[] newStripe() {
+        long[] stripe = new long[SIZE];
+        stripes.add(stripe);
+        return stripe;
+    }
+
+
+    /**
+     * Sum of the counters of all the threads.
+     *
+     * @return      New counters array
+     */
+    public static long[] snapshot() {
+        long[] totals = new long[SIZE];
+
+        for (long[] stripe : stripes) {
+            for (int i = 0; i < SIZE; i++) {
+                totals[i] += stripe[i];
+            }
+        }
+
+        return totals;
+    }
+
+
+    /**
+     * Sets all the counters of all the threads to zero.
+     */
+    public static void reset() {
+        for (long[] stripe : stripes) {
+            Arrays.fill(stripe, 0L);
+        }
+    }
+
+
+    /**
+     * Formats a counters snapshot as an UCI information string.
+     *
+     * @param totals    Counters snapshot
+     * @return          Information line
+     */
+    public static String toInfoString(long[] totals) {
+        StringBuilder builder = new StringBuilder("info string");
+
+        builder.append(" nodes ").append(totals[NODES]);
+        builder.append(" passes ").append(totals[PASSES]);
+        builder.append(" evals ").append(totals[EVALUATIONS]);
+        builder.append(" solver ").append(totals[SOLVER_NODES]);
+        builder.append(String.format(" cutoffs %.1f%%",
+            percent(totals[CUTOFFS], totals[INTERIORS])));
+        builder.append(String.format(" first %.1f%%",
+            percent(totals[FIRST_CUTOFFS], totals[CUTOFFS])));
+        builder.append(String.format(" tthits %.1f%%",
+            percent(totals[HITS], totals[PROBES])));
+        builder.append(String.format(" ttcollisions %.2f%%",
+            percent(totals[COLLISIONS], totals[PROBES])));
+        builder.append(String.format(" evalhits %.1f%%",
+            percent(totals[EVAL_HITS], totals[EVAL_PROBES])));
+        builder.append(" plies");
+
+        for (int ply = 1; ply < MAX_PLY; ply++) {
+            final long nodes = totals[PLY_NODES + ply];
+            if (nodes == 0L) break;
+            builder.append(' ').append(nodes);
+        }
+
+        return builder.toString();
+    }
+
+
+    /**
+     * Percentage of a value over a total.
+     */
+    private static double percent(long value, long total) {
+        return total > 0L ? 100.0 * value / total : 0.0;
+    }
+}
@@ -0,0 +1,174 @@
+package com.joansala.game.othello.stats;
+
+/*
+ * Aalina engine.
+ * Copyright (C) 2021-2024 Joan Sala Soler <contact@joansala.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import com.joansala.engine.Cache;
+import com.joansala.engine.Game;
+import com.joansala.game.othello.cache.HashCache;
+import static com.joansala.engine.Game.*;
+import static com.joansala.game.othello.stats.SearchStats.*;
+
+
+/**
+ * Transpositions table decorator that counts probes, hits and
+ * collisions. A hit is counted as a collision when the move stored
+ * on the entry is not legal on the probed position. Probes by hash
+ * are only answered if the decorated table supports them.
+ */
+public final class StatsCache implements HashCache {
+
+    /** Decorated transpositions table */
+    private final Cache<Game> cache;
+
+
+    /**
+     * Decorates a transpositions table.
+     *
+     * @param cache     Transpositions table
+     */
+    public StatsCache(Cache<Game> cache) {
+        this.cache = cache;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean find(Game game) {
+        final long[] stats = stripe();
+        final boolean found = cache.find(game);
+
+        stats[PROBES]++;
+
+        if (found) {
+            final int move = cache.getMove();
+            stats[HITS]++;
+
+            if (move != NULL_MOVE && game.isLegal(move) == false) {
+                stats[COLLISIONS]++;
+            }
+        }
+
+        return found;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean find(long hash) {
+        if (cache instanceof HashCache == false) {
+            return false;
+        }
+
+        final long[] stats = stripe();
+        final boolean found = ((HashCache) cache).find(hash);
+
+        stats[PROBES]++;
+
+        if (found) {
+            stats[HITS]++;
+        }
+
+        return found;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getScore() {
+        return cache.getScore();
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getMove() {
+        return cache.getMove();
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getDepth() {
+        return cache.getDepth();
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getFlag() {
+        return cache.getFlag();
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void store(Game game, int score, int move, int depth, int flag) {
+        cache.store(game, score, move, depth, flag);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void discharge() {
+        cache.discharge();
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void resize(long memory) {
+        cache.resize(memory);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void clear() {
+        cache.clear();
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long size() {
+        return cache.size();
+    }
+}
@@ -0,0 +1,117 @@
+package com.joansala.game.othello.stats;
+
+/*
+ * Aalina engine.
+ * Copyright (C) 2021-2024 Joan Sala Soler <contact@joansala.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import java.util.function.Consumer;
+import com.joansala.engine.Report;
+import static com.joansala.game.othello.stats.SearchStats.*;
+
+
+/**
+ * Reports the search statistics after each engine iteration.
+ *
+ * Attached as a consumer of the engine reports, sends the counters of
+ * the current search as an UCI information string to an output and
+ * commits a flight recorder event with the work done since the previous
+ * report. A search is taken to start when the depth of a report is not
+ * greater than the depth of the previous one, since iterations only
+ * deepen within a search; its counters start from the previous report.
+ */
+public final class StatsReporter implements Consumer<Report> {
+
+    /** Receives the formatted statistics */
+    private final Consumer<String> output;
+
+    /** Counters when the current search started */
+    private long[] start = new long[SIZE];
+
+    /** Counters at the previous report */
+    private long[] previous = new long[SIZE];
+
+    /** Depth of the previous report */
+    private int depth = Integer.MAX_VALUE;
+
+
+    /**
+     * Creates a new reporter.
+     *
+     * @param output    Receives the information strings
+     */
+    public StatsReporter(Consumer<String> output) {
+        this.output = output;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void accept(Report report) {
+        long[] totals = snapshot();
+        IterationEvent event = new IterationEvent();
+
+        if (report.getDepth() <= depth) {
+            start = previous;
+        }
+
+        if (event.isEnabled()) {
+            event.depth = report.getDepth();
+            event.score = report.getScore();
+            event.nodes = delta(totals, NODES);
+            event.evaluations = delta(totals, EVALUATIONS);
+            event.passes = delta(totals, PASSES);
+            event.cutoffs = delta(totals, CUTOFFS);
+            event.firstCutoffs = delta(totals, FIRST_CUTOFFS);
+            event.probes = delta(totals, PROBES);
+            event.hits = delta(totals, HITS);
+            event.collisions = delta(totals, COLLISIONS);
+            event.solverNodes = delta(totals, SOLVER_NODES);
+            event.evalProbes = delta(totals, EVAL_PROBES);
+            event.evalHits = delta(totals, EVAL_HITS);
+            event.commit();
+        }
+
+        output.accept(toInfoString(difference(totals, start)));
+        depth = report.getDepth();
+        previous = totals;
+    }
+
+
+    /**
+     * Difference of a counter with its previous value.
+     */
+    private long delta(long[] totals, int counter) {
+        return totals[counter] - previous[counter];
+    }
+
+
+    /**
+     * Differences of all the counters with their values on a
+     * previous snapshot.
+     */
+    private static long[] difference(long[] totals, long[] base) {
+        long[] counters = new long[SIZE];
+
+        for (int i = 0; i < SIZE; i++) {
+            counters[i] = totals[i] - base[i];
+        }
+
+        return counters;
+    }
+}
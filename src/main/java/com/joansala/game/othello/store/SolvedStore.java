@@ -0,0 +1,527 @@
+package com.joansala.game.othello.store;
+
+/*
+ * Aalina engine.
+ * Copyright (C) 2021-2024 Joan Sala Soler <contact@joansala.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import static java.nio.channels.FileChannel.MapMode.READ_WRITE;
+import static java.nio.file.StandardCopyOption.*;
+import static java.nio.file.StandardOpenOption.*;
+import static com.joansala.util.bits.Bits.*;
+import static com.joansala.game.othello.Othello.*;
+
+
+/**
+ * Disk-backed store of exactly solved positions.
+ *
+ * Records are appended to a file that is mapped into memory, so the
+ * positions solved on a session are available to the next ones. Each
+ * record holds a canonical position, which is the smallest of its
+ * eight symmetric positions seen from the player to move, its exact
+ * disc difference and its best move. Storing a position again with a
+ * different result appends a record that supersedes the previous one,
+ * and {@link #compact()} rewrites the file with only the live records.
+ *
+ * An index of the live records is kept in memory and rebuilt each time
+ * the store is opened. Stores are thread-safe: lookups may proceed
+ * concurrently, while appending or compacting locks out every other
+ * operation, so a single store can be shared by several solvers.
+ */
+public final class SolvedStore implements Closeable {
+
+    /** Bytes used by each record */
+    public static final int RECORD_SIZE = 18;
+
+    /** Bytes used by the file header */
+    private static final int HEADER_SIZE = 16;
+
+    /** Identifies solved position store files */
+    private static final int MAGIC = 0x4F54534C;
+
+    /** Version of the file format */
+    private static final int VERSION = 1;
+
+    /** Offset of the record count on the header */
+    private static final int COUNT_OFFSET = 8;
+
+    /** Initial mapped size of a new store in bytes */
+    private static final int INITIAL_CAPACITY = HEADER_SIZE + (RECORD_SIZE << 16);
+
+    /** Maximum number of records a store can hold */
+    private static final int MAX_RECORDS = (Integer.MAX_VALUE - HEADER_SIZE) / RECORD_SIZE;
+
+    /** Initial number of index slots */
+    private static final int INITIAL_SLOTS = 1 << 16;
+
+    /** Offset added to scores to make them positive */
+    private static final int OFFSET = 64;
+
+    /** Set on every entry found */
+    private static final int FOUND = 1 << 16;
+
+    /** Path of the store file */
+    private final Path path;
+
+    /** Guards the mapped contents and the index */
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /** Held while looking up positions */
+    private final Lock reader = lock.readLock();
+
+    /** Held while changing the store */
+    private final Lock writer = lock.writeLock();
+
+    /** Open channel of the store file */
+    private FileChannel channel;
+
+    /** Mapped contents of the store file */
+    private MappedByteBuffer buffer;
+
+    /** Record number plus one of each index slot */
+    private int[] slots;
+
+    /** Mask to obtain a slot from a hash */
+    private int mask;
+
+    /** Number of records on the file */
+    private int count;
+
+    /** Number of live records */
+    private int live;
+
+
+    /**
+     * Opens a store, creating its file if it does not exist.
+     *
+     * @param path      Store file path
+     * @throws IOException If the file is not a valid store
+     */
+    public SolvedStore(Path path) throws IOException {
+        this.path = path;
+        open();
+    }
+
+
+    /**
+     * Number of distinct positions on the store.
+     */
+    public int size() {
+        reader.lock();
+
+        try {
+            return live;
+        } finally {
+            reader.unlock();
+        }
+    }
+
+
+    /**
+     * Number of records on the store file, including the ones
+     * that were superseded by a later record.
+     */
+    public int records() {
+        reader.lock();
+
+        try {
+            return count;
+        } finally {
+            reader.unlock();
+        }
+    }
+
+
+    /**
+     * Finds the result stored for a position.
+     *
+     * @param player    Stones of the player to move
+     * @param opponent  Stones of the opponent
+     * @return          Packed entry or zero if not found
+     */
+    public int find(long player, long opponent) {
+        final int symmetry = canonicalize(player, opponent);
+        final long p = Symmetry.apply(player, symmetry);
+        final long o = Symmetry.apply(opponent, symmetry);
+
+        reader.lock();
+
+        try {
+            final int record = slots[slot(p, o)] - 1;
+
+            if (record < 0) {
+                return 0;
+            }
+
+            final int offset = offset(record);
+            final int score = buffer.get(offset + 16);
+            final int move = revert(buffer.get(offset + 17), symmetry);
+
+            return FOUND | ((0xFF & move) << 8) | (score + OFFSET);
+        } finally {
+            reader.unlock();
+        }
+    }
+
+
+    /**
+     * Appends the exact result of a position to the store, unless
+     * the same result is already stored.
+     *
+     * @param player    Stones of the player to move
+     * @param opponent  Stones of the opponent
+     * @param score     Disc difference for the player to move
+     * @param move      Best move of the position
+     * @return          If a new record was appended
+     */
+    public boolean store(long player, long opponent, int score, int move) throws IOException {
+        final int symmetry = canonicalize(player, opponent);
+        final long p = Symmetry.apply(player, symmetry);
+        final long o = Symmetry.apply(opponent, symmetry);
+        final byte value = (byte) apply(move, symmetry);
+
+        writer.lock();
+
+        try {
+            return append(p, o, (byte) score, value);
+        } finally {
+            writer.unlock();
+        }
+    }
+
+
+    /**
+     * Appends a record for a canonical position, unless the same
+     * result is already stored. Must be called holding the writer.
+     */
+    private boolean append(long player, long opponent, byte score, byte value) throws IOException {
+        final int slot = slot(player, opponent);
+        final int record = slots[slot] - 1;
+
+        if (record >= 0) {
+            final int offset = offset(record);
+
+            if (buffer.get(offset + 16) == score &&
+                buffer.get(offset + 17) == value) {
+                return false;
+            }
+        }
+
+        if (count >= MAX_RECORDS) {
+            throw new IOException("Solved positions store is full: " + path);
+        }
+
+        if (offset(count + 1) > buffer.capacity()) {
+            final long capacity = Math.max(INITIAL_CAPACITY, 2L * buffer.capacity());
+            map(Math.min(Integer.MAX_VALUE, capacity));
+        }
+
+        final int offset = offset(count);
+        buffer.putLong(offset, player);
+        buffer.putLong(offset + 8, opponent);
+        buffer.put(offset + 16, score);
+        buffer.put(offset + 17, value);
+        buffer.putLong(COUNT_OFFSET, ++count);
+        slots[slot] = count;
+
+        if (record < 0 && ++live > slots.length >> 1) {
+            index(slots.length << 1);
+        }
+
+        return true;
+    }
+
+
+    /**
+     * Rewrites the store file keeping only the live records. The new
+     * file replaces the current one atomically once fully written.
+     */
+    public void compact() throws IOException {
+        writer.lock();
+
+        try {
+            rewrite();
+        } finally {
+            writer.unlock();
+        }
+    }
+
+
+    /**
+     * Rewrites the store file. Must be called holding the writer.
+     */
+    private void rewrite() throws IOException {
+        final Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        final ByteBuffer output = ByteBuffer.allocate(RECORD_SIZE << 12);
+
+        try (FileChannel target = FileChannel.open(temp, CREATE, WRITE, TRUNCATE_EXISTING)) {
+            output.putInt(MAGIC).putInt(VERSION).putLong(live);
+
+            for (int record = 0; record < count; record++) {
+                final int offset = offset(record);
+                final long player = buffer.getLong(offset);
+                final long opponent = buffer.getLong(offset + 8);
+
+                if (slots[slot(player, opponent)] == record + 1) {
+                    if (output.remaining() < RECORD_SIZE) {
+                        write(target, output);
+                    }
+
+                    output.putLong(player).putLong(opponent);
+                    output.put(buffer.get(offset + 16));
+                    output.put(buffer.get(offset + 17));
+                }
+            }
+
+            write(target, output);
+            target.force(true);
+        }
+
+        buffer.force();
+        channel.close();
+        Files.move(temp, path, REPLACE_EXISTING, ATOMIC_MOVE);
+        open();
+    }
+
+
+    /**
+     * Writes the changes to the storage device.
+     */
+    public void flush() {
+        writer.lock();
+
+        try {
+            buffer.force();
+        } finally {
+            writer.unlock();
+        }
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() throws IOException {
+        writer.lock();
+
+        try {
+            buffer.force();
+            channel.close();
+        } finally {
+            writer.unlock();
+        }
+    }
+
+
+    /**
+     * Disc difference of a packed entry.
+     */
+    public static int score(int entry) {
+        return (0xFF & entry) - OFFSET;
+    }
+
+
+    /**
+     * Best move of a packed entry.
+     */
+    public static int move(int entry) {
+        return (byte) (entry >>> 8);
+    }
+
+
+    /**
+     * Opens the store file, validates it and indexes its records.
+     */
+    private void open() throws IOException {
+        channel = FileChannel.open(path, CREATE, READ, WRITE);
+
+        try {
+            final long size = channel.size();
+
+            if (size == 0L) {
+                map(INITIAL_CAPACITY);
+                buffer.putInt(0, MAGIC);
+                buffer.putInt(4, VERSION);
+                buffer.putLong(COUNT_OFFSET, 0L);
+                count = 0;
+            } else {
+                if (size < HEADER_SIZE || size > Integer.MAX_VALUE) {
+                    throw invalid();
+                }
+
+                map(size);
+                final long records = buffer.getLong(COUNT_OFFSET);
+
+                if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                    throw invalid();
+                }
+
+                if (records < 0 || HEADER_SIZE + records * RECORD_SIZE > size) {
+                    throw invalid();
+                }
+
+                count = (int) records;
+            }
+
+            index(Math.max(INITIAL_SLOTS, (int) Long.highestOneBit(4L * count)));
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+
+    /**
+     * Maps the given number of bytes of the store file.
+     */
+    private void map(long capacity) throws IOException {
+        final long size = capacity - (capacity - HEADER_SIZE) % RECORD_SIZE;
+        buffer = channel.map(READ_WRITE, 0L, size);
+    }
+
+
+    /**
+     * Rebuilds the index of live records with the given number
+     * of slots. Later records supersede earlier ones.
+     */
+    private void index(int size) {
+        slots = new int[size];
+        mask = size - 1;
+        live = 0;
+
+        for (int record = 0; record < count; record++) {
+            final int offset = offset(record);
+            final long player = buffer.getLong(offset);
+            final long opponent = buffer.getLong(offset + 8);
+            final int slot = slot(player, opponent);
+
+            live += slots[slot] == 0 ? 1 : 0;
+            slots[slot] = record + 1;
+        }
+    }
+
+
+    /**
+     * Finds the index slot of a canonical position. That is, the slot
+     * that holds its record or the empty slot where it would be put.
+     */
+    private int slot(long player, long opponent) {
+        long hash = player * 0x9E3779B97F4A7C15L;
+        hash ^= Long.rotateLeft(opponent * 0xC2B2AE3D27D4EB4FL, 31);
+        int slot = mask & (int) (hash ^ (hash >>> 32));
+
+        while (slots[slot] != 0) {
+            final int offset = offset(slots[slot] - 1);
+
+            if (buffer.getLong(offset) == player &&
+                buffer.getLong(offset + 8) == opponent) {
+                break;
+            }
+
+            slot = mask & (slot + 1);
+        }
+
+        return slot;
+    }
+
+
+    /**
+     * Finds the symmetry that maps a position to its canonical form.
+     *
+     * @return          Symmetry that maps the position to it
+     */
+    private static int canonicalize(long player, long opponent) {
+        int symmetry = Symmetry.IDENTITY;
+        long minPlayer = player;
+        long minOpponent = opponent;
+
+        for (int s = 1; s < Symmetry.COUNT; s++) {
+            final long p = Symmetry.apply(player, s);
+            final int order = Long.compareUnsigned(p, minPlayer);
+
+            if (order <= 0) {
+                final long o = Symmetry.apply(opponent, s);
+
+                if (order < 0 || Long.compareUnsigned(o, minOpponent) < 0) {
+                    minPlayer = p;
+                    minOpponent = o;
+                    symmetry = s;
+                }
+            }
+        }
+
+        return symmetry;
+    }
+
+
+    /**
+     * Maps a move to the canonical position.
+     */
+    private static int apply(int move, int symmetry) {
+        if (move < 0 || move >= BOARD_SIZE) return move;
+        return first(Symmetry.apply(bit(move), symmetry));
+    }
+
+
+    /**
+     * Maps a move of the canonical position back to the position.
+     */
+    private static int revert(int move, int symmetry) {
+        if (move < 0 || move >= BOARD_SIZE) return move;
+        return first(Symmetry.revert(bit(move), symmetry));
+    }
+
+
+    /**
+     * Byte offset of a record on the file.
+     */
+    private static int offset(int record) {
+        return HEADER_SIZE + record * RECORD_SIZE;
+    }
+
+
+    /**
+     * Writes the contents of a buffer to a channel and clears it.
+     */
+    private static void write(FileChannel target, ByteBuffer output) throws IOException {
+        output.flip();
+
+        while (output.hasRemaining()) {
+            target.write(output);
+        }
+
+        output.clear();
+    }
+
+
+    /**
+     * Exception thrown for a malformed store file.
+     */
+    private IOException invalid() {
+        return new IOException("Not a solved positions store: " + path);
+    }
+}
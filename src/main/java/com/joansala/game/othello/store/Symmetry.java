@@ -0,0 +1,150 @@
+package com.joansala.game.othello.store;
+
+/*
+ * Aalina engine.
+ * Copyright (C) 2021-2024 Joan Sala Soler <contact@joansala.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+/**
+ * Symmetries of the board applied to bitboards.
+ *
+ * The eight symmetries of the square are identified by three bits,
+ * which apply in order a diagonal flip, a vertical flip and a
+ * horizontal mirror. They are used to map a position and all its
+ * symmetric positions to a single canonical position.
+ */
+public final class Symmetry {
+
+    /** Number of board symmetries */
+    public static final int COUNT = 8;
+
+    /** Symmetry that leaves the board unchanged */
+    public static final int IDENTITY = 0;
+
+
+    /**
+     * Utility class.
+     */
+    private Symmetry() {}
+
+
+    /**
+     * Computes a key shared by a position and all its symmetric
+     * positions. The key is the smallest hash of the eight symmetric
+     * positions, thus two different positions may have the same key
+     * with a negligible probability.
+     *
+     * @param player    Stones of the player to move
+     * @param opponent  Stones of the opponent
+     * @return          Canonical key of the position
+     */
+    public static long canonicalKey(long player, long opponent) {
+        long key = mix(player, opponent);
+
+        for (int s = 1; s < COUNT; s++) {
+            final long p = apply(player, s);
+            final long o = apply(opponent, s);
+            final long k = mix(p, o);
+
+            if (Long.compareUnsigned(k, key) < 0) {
+                key = k;
+            }
+        }
+
+        return key;
+    }
+
+
+    /**
+     * Applies a symmetry to a bitboard.
+     *
+     * @param bitboard  Bitboard
+     * @param symmetry  Symmetry identifier
+     * @return          Transformed bitboard
+     */
+    public static long apply(long bitboard, int symmetry) {
+        if ((symmetry & 4) != 0) bitboard = flipDiagonal(bitboard);
+        if ((symmetry & 2) != 0) bitboard = flipVertical(bitboard);
+        if ((symmetry & 1) != 0) bitboard = mirrorHorizontal(bitboard);
+        return bitboard;
+    }
+
+
+    /**
+     * Reverts a symmetry applied to a bitboard.
+     *
+     * @param bitboard  Transformed bitboard
+     * @param symmetry  Symmetry identifier
+     * @return          Original bitboard
+     */
+    public static long revert(long bitboard, int symmetry) {
+        if ((symmetry & 1) != 0) bitboard = mirrorHorizontal(bitboard);
+        if ((symmetry & 2) != 0) bitboard = flipVertical(bitboard);
+        if ((symmetry & 4) != 0) bitboard = flipDiagonal(bitboard);
+        return bitboard;
+    }
+
+
+    /**
+     * Hashes the two bitboards of a position into a single long.
+     */
+    private static long mix(long player, long opponent) {
+        long h = player * 0x9E3779B97F4A7C15L;
+        h ^= Long.rotateLeft(opponent * 0xC2B2AE3D27D4EB4FL, 31);
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        return h;
+    }
+
+
+    /**
+     * Flips a bitboard upside down.
+     */
+    private static long flipVertical(long bitboard) {
+        return Long.reverseBytes(bitboard);
+    }
+
+
+    /**
+     * Mirrors each rank of a bitboard.
+     */
+    private static long mirrorHorizontal(long bitboard) {
+        bitboard = ((bitboard >>> 1) & 0x5555555555555555L) |
+                   ((bitboard & 0x5555555555555555L) << 1);
+        bitboard = ((bitboard >>> 2) & 0x3333333333333333L) |
+                   ((bitboard & 0x3333333333333333L) << 2);
+        bitboard = ((bitboard >>> 4) & 0x0F0F0F0F0F0F0F0FL) |
+                   ((bitboard & 0x0F0F0F0F0F0F0F0FL) << 4);
+        return bitboard;
+    }
+
+
+    /**
+     * Flips a bitboard about its main diagonal.
+     */
+    private static long flipDiagonal(long bitboard) {
+        long t;
+        t = 0x0F0F0F0F00000000L & (bitboard ^ (bitboard << 28));
+        bitboard ^= t ^ (t >>> 28);
+        t = 0x3333000033330000L & (bitboard ^ (bitboard << 14));
+        bitboard ^= t ^ (t >>> 14);
+        t = 0x5500550055005500L & (bitboard ^ (bitboard << 7));
+        bitboard ^= t ^ (t >>> 7);
+        return bitboard;
+    }
+}
@@ -0,0 +1,70 @@
+package com.joansala.test.game.othello;
+
+import java.util.concurrent.CountDownLatch;
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.joansala.engine.Game;
+import com.joansala.engine.Roots;
+import com.joansala.game.othello.BackgroundRoots;
+import com.joansala.game.othello.OthelloGame;
+
+
+@DisplayName("Othello background openings book")
+public class BackgroundRootsTest {
+
+    /** Move returned by the test book */
+    private static final int BOOK_MOVE = 19;
+
+
+    @Test()
+    @DisplayName("finds no moves until the book is loaded")
+    void FindsMovesOnceLoaded() throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+        OthelloGame game = new OthelloGame();
+        BackgroundRoots roots = new BackgroundRoots(() -> {
+            try {
+                latch.await();
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+
+            return new FixedRoots();
+        });
+
+        roots.newMatch();
+        assertFalse(roots.isLoaded());
+        assertEquals(Game.NULL_MOVE, roots.pickBestMove(game));
+
+        latch.countDown();
+        roots.await();
+
+        assertTrue(roots.isLoaded());
+        assertEquals(BOOK_MOVE, roots.pickBestMove(game));
+        roots.close();
+    }
+
+
+    @Test()
+    @DisplayName("finds no moves if the book cannot be opened")
+    void FindsNoMovesWithoutBook() throws Exception {
+        BackgroundRoots roots = new BackgroundRoots(() -> null);
+
+        roots.await();
+        roots.newMatch();
+
+        assertFalse(roots.isLoaded());
+        assertEquals(Game.NULL_MOVE, roots.pickBestMove(new OthelloGame()));
+        roots.close();
+    }
+
+
+    /**
+     * Book that always returns the same move.
+     */
+    private static class FixedRoots implements Roots<Game> {
+        public int pickBestMove(Game game) { return BOOK_MOVE; }
+        public void newMatch() {}
+        public void close() {}
+    }
+}
@@ -0,0 +1,90 @@
+package com.joansala.test.game.othello;
+
+import java.util.stream.Stream;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.params.*;
+import org.junit.jupiter.params.provider.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.joansala.game.othello.OthelloBoard;
+import com.joansala.game.othello.OthelloDiagram;
+import com.joansala.game.othello.OthelloGame;
+import com.joansala.util.suites.Suite;
+import com.joansala.util.suites.SuiteReader;
+import static com.joansala.game.othello.Othello.*;
+
+
+@DisplayName("Othello diagram")
+public class OthelloDiagramTest {
+
+    /** Test suite file path */
+    private static String SUITE_PATH = "othello-bench.suite";
+
+
+    @ParameterizedTest()
+    @MethodSource("suites")
+    @DisplayName("parsed diagrams match the board notation")
+    void ParsedDiagramMatchesBoard(Suite suite) {
+        OthelloGame game = new OthelloGame();
+        OthelloDiagram diagram = new OthelloDiagram();
+        OthelloBoard board = new OthelloBoard().toBoard(suite.diagram());
+
+        game.setBoard(board);
+
+        for (int move : board.toMoves(suite.notation())) {
+            game.makeMove(move);
+            String notation = game.toBoard().toDiagram();
+            diagram.parse(notation);
+
+            assertEquals(game.state(SOUTH_STONE), diagram.state(SOUTH_STONE));
+            assertEquals(game.state(NORTH_STONE), diagram.state(NORTH_STONE));
+            assertEquals(game.turn(), diagram.turn());
+        }
+    }
+
+
+    @ParameterizedTest()
+    @MethodSource("suites")
+    @DisplayName("loaded positions keep the start board")
+    void SetPositionKeepsStartBoard(Suite suite) {
+        OthelloGame game = new OthelloGame();
+        OthelloDiagram diagram = new OthelloDiagram();
+
+        game.setPosition(diagram.parse(suite.diagram()));
+        game.makeMove(game.nextMove());
+
+        assertEquals(suite.diagram(), game.getBoard().toDiagram());
+    }
+
+
+    @ParameterizedTest()
+    @NullSource @EmptySource
+    @ValueSource(strings = {
+        " ", "8/8/8/8/8/8/8/8", "8/8/8/8/8/8/8 b", "9/8/8/8/8/8/8/8 b",
+        "8/8/8/3OX3/3XO3/8/8/8 x", "8/8/8/3OX4/3XO3/8/8/8 b"
+    })
+    @DisplayName("malformed diagrams throw runtime exception")
+    void ParseThrowsRuntimeException(String notation) {
+        OthelloDiagram diagram = new OthelloDiagram();
+        assertThrows(RuntimeException.class, () -> {
+            diagram.parse(notation);
+        });
+    }
+
+
+    /**
+     * Stream of game suites to test.
+     */
+    public static Stream<Suite> suites() throws Exception {
+        SuiteReader reader = new SuiteReader(SUITE_PATH);
+        return reader.stream().onClose(() -> close(reader));
+    }
+
+
+    /**
+     * Close an open autoclosable instance.
+     */
+    private static void close(AutoCloseable closeable) {
+        try { closeable.close(); } catch (Exception e) {}
+    }
+}
@@ -1,6 +1,8 @@
 package com.joansala.test.game.othello;
 
+import java.util.Random;
 import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
 import com.joansala.engine.Game;
 import com.joansala.test.engine.GameContract;
 import com.joansala.game.othello.OthelloGame;
@@ -16,4 +18,66 @@ public class OthelloGameTest implements GameContract {
     public Game newInstance() {
         return new OthelloGame();
     }
+
+
+    @Test()
+    @DisplayName("hashes after a move equal the hashes of its child")
+    void HashAfterEqualsChildHash() {
+        OthelloGame game = new OthelloGame();
+        Random random = new Random(7);
+        int[] moves = new int[64];
+
+        while (game.hasEnded() == false) {
+            int length = 0;
+            int move;
+
+            game.resetCursor();
+
+            while ((move = game.nextMove()) != Game.NULL_MOVE) {
+                moves[length++] = move;
+            }
+
+            for (int i = 0; i < length; i++) {
+                long hash = game.hashAfter(moves[i]);
+                game.makeMove(moves[i]);
+                assertEquals(game.hash(), hash);
+                game.unmakeMove();
+            }
+
+            game.makeMove(moves[random.nextInt(length)]);
+        }
+    }
+
+
+    @Test()
+    @DisplayName("quadrant parities are updated and restored")
+    void QuadrantParitiesAreTracked() {
+        OthelloGame game = new OthelloGame();
+        OthelloGame other = new OthelloGame();
+        Random random = new Random(11);
+        int[] moves = new int[64];
+        int[] parities = new int[128];
+        int plies = 0;
+
+        while (game.hasEnded() == false) {
+            int length = 0;
+            int move;
+
+            game.resetCursor();
+
+            while ((move = game.nextMove()) != Game.NULL_MOVE) {
+                moves[length++] = move;
+            }
+
+            parities[plies++] = game.parity();
+            game.makeMove(moves[random.nextInt(length)]);
+            other.setPosition(game.state(0), game.state(1), game.turn());
+            assertEquals(other.parity(), game.parity());
+        }
+
+        while (plies > 0) {
+            game.unmakeMove();
+            assertEquals(parities[--plies], game.parity());
+        }
+    }
 }
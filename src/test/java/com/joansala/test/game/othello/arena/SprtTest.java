@@ -0,0 +1,58 @@
+package com.joansala.test.game.othello.arena;
+
+import java.util.Random;
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.joansala.game.othello.arena.Sprt;
+import com.joansala.game.othello.arena.Sprt.Verdict;
+
+
+@DisplayName("Othello sequential probability ratio test")
+public class SprtTest {
+
+    @Test()
+    @DisplayName("continues while there are no results")
+    void ContinuesWithoutResults() {
+        Sprt sprt = new Sprt(0.0, 5.0, 0.05, 0.05);
+
+        assertEquals(0.0, sprt.llr());
+        assertEquals(Verdict.CONTINUE, sprt.verdict());
+        assertThrows(IllegalArgumentException.class, () -> sprt.add(5));
+    }
+
+
+    @Test()
+    @DisplayName("accepts the hypothesis of a stronger engine")
+    void AcceptsStrongerEngine() {
+        assertEquals(Verdict.ACCEPT_H1, play(0.60));
+    }
+
+
+    @Test()
+    @DisplayName("accepts the hypothesis of an equal engine")
+    void AcceptsEqualEngine() {
+        assertEquals(Verdict.ACCEPT_H0, play(0.50));
+    }
+
+
+    /**
+     * Adds random game pairs until the test reaches a verdict.
+     *
+     * @param win       Probability of winning a game
+     * @return          Verdict of the test
+     */
+    private static Verdict play(double win) {
+        Sprt sprt = new Sprt(0.0, 20.0, 0.05, 0.05);
+        Random random = new Random(0);
+
+        while (sprt.verdict() == Verdict.CONTINUE) {
+            int first = random.nextDouble() < win ? 2 : 0;
+            int second = random.nextDouble() < win ? 2 : 0;
+            sprt.add(first + second);
+            assertTrue(sprt.pairs() < 100000L);
+        }
+
+        return sprt.verdict();
+    }
+}
@@ -0,0 +1,82 @@
+package com.joansala.test.game.othello.bench;
+
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.joansala.game.othello.OthelloGame;
+import com.joansala.game.othello.bench.ConcurrentLongSet;
+import com.joansala.game.othello.bench.PositionGenerator;
+import com.joansala.game.othello.bench.PositionGenerator.Filter;
+import com.joansala.game.othello.store.Symmetry;
+import static com.joansala.engine.Game.*;
+
+
+@DisplayName("Othello random positions generator")
+public class PositionGeneratorTest {
+
+    @Test()
+    @DisplayName("generates unique positions where both sides can move")
+    void GeneratesUniquePositions() throws Exception {
+        PositionGenerator generator = new PositionGenerator(4, 0L, Filter.BOTH);
+        int[] empties = { 20, 40 };
+        int[] counts = new int[65];
+        Set<Long> keys = new HashSet<>();
+        OthelloGame game = new OthelloGame();
+
+        long generated = generator.generate(empties, 3000L, (south, north, turn) -> {
+            long player = (turn == SOUTH) ? south : north;
+            long opponent = (turn == SOUTH) ? north : south;
+
+            assertEquals(0L, south & north);
+            assertTrue(keys.add(Symmetry.canonicalKey(player, opponent)));
+            counts[64 - Long.bitCount(south | north)]++;
+
+            game.setPosition(south, north, turn);
+            assertNotEquals(0L, game.mobility());
+            game.setPosition(south, north, -turn);
+            assertNotEquals(0L, game.mobility());
+        });
+
+        assertEquals(6000L, generated);
+        assertEquals(3000, counts[20]);
+        assertEquals(3000, counts[40]);
+    }
+
+
+    @Test()
+    @DisplayName("stops when there are no more unique positions")
+    void StopsWhenExhausted() throws Exception {
+        PositionGenerator generator = new PositionGenerator(2, 0L, Filter.ANY);
+        long generated = generator.generate(new int[] { 59 }, 10L, (s, n, t) -> {});
+        assertEquals(1L, generated);
+    }
+
+
+    @Test()
+    @DisplayName("concurrent set accepts each value once")
+    void SetAcceptsValuesOnce() throws Exception {
+        ConcurrentLongSet set = new ConcurrentLongSet(40000L);
+        Thread[] threads = new Thread[4];
+        long[] added = new long[threads.length];
+
+        for (int i = 0; i < threads.length; i++) {
+            final int index = i;
+            threads[i] = new Thread(() -> {
+                for (long value = -10000L; value < 10000L; value++) {
+                    if (set.add(value)) added[index]++;
+                }
+            });
+            threads[i].start();
+        }
+
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(20000L, added[0] + added[1] + added[2] + added[3]);
+        assertTrue(set.contains(0L));
+        assertFalse(set.contains(10000L));
+    }
+}
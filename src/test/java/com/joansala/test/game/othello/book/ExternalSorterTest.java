@@ -0,0 +1,62 @@
+package com.joansala.test.game.othello.book;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.joansala.game.othello.book.ExternalSorter;
+import com.joansala.game.othello.book.ExternalSorter.EntryReader;
+import com.joansala.game.othello.book.ExternalSorter.EntryWriter;
+
+
+@DisplayName("Othello book entries external sorter")
+public class ExternalSorterTest {
+
+    @Test()
+    @DisplayName("sorts, combines and filters entries on many runs")
+    void SortsEntriesOnManyRuns(@TempDir Path folder) throws Exception {
+        Map<Long, long[]> expected = new TreeMap<>();
+        Path input = folder.resolve("input.bin");
+        Path output = folder.resolve("output.bin");
+        Random random = new Random(0);
+
+        try (EntryWriter writer = new EntryWriter(input)) {
+            for (int i = 0; i < 20000; i++) {
+                long hash = random.nextLong() % 15000L;
+                long count = random.nextInt(10);
+                long value = random.nextInt(100) - 50;
+
+                writer.write(hash, count, value);
+
+                long[] entry = expected.computeIfAbsent(hash, h -> new long[2]);
+                entry[0] += count;
+                entry[1] += value;
+            }
+        }
+
+        expected.values().removeIf(entry -> entry[0] < 3L);
+
+        ExternalSorter sorter = new ExternalSorter(folder, 100);
+        long written = sorter.sort(input, output, 3L);
+
+        assertEquals(expected.size(), written);
+
+        try (EntryReader reader = new EntryReader(output)) {
+            for (Map.Entry<Long, long[]> entry : expected.entrySet()) {
+                assertTrue(reader.next());
+                assertEquals((long) entry.getKey(), reader.hash);
+                assertEquals(entry.getValue()[0], reader.count);
+                assertEquals(entry.getValue()[1], reader.value);
+            }
+
+            assertFalse(reader.next());
+        }
+
+        assertEquals(2L, Files.list(folder).count());
+    }
+}
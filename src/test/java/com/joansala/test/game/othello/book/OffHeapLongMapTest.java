@@ -0,0 +1,62 @@
+package com.joansala.test.game.othello.book;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.joansala.game.othello.book.OffHeapLongMap;
+
+
+@DisplayName("Othello book off-heap long map")
+public class OffHeapLongMapTest {
+
+    @Test()
+    @DisplayName("adds values while growing the table")
+    void AddsValuesWhileGrowing() {
+        Map<Long, Long> expected = new HashMap<>();
+        OffHeapLongMap map = new OffHeapLongMap(1);
+        Random random = new Random(0);
+
+        for (int i = 0; i < 50000; i++) {
+            long key = random.nextInt(20000) - 10000L;
+            long delta = random.nextInt(100);
+
+            long value = expected.merge(key, delta, Long::sum);
+            assertEquals(value, map.add(key, delta));
+        }
+
+        assertEquals(expected.size(), map.size());
+        assertTrue(map.contains(0L));
+        assertFalse(map.contains(10000L));
+        assertEquals(-1L, map.get(10000L, -1L));
+
+        Map<Long, Long> actual = new HashMap<>();
+        map.forEach((key, value) -> actual.put(key, value));
+        assertEquals(expected, actual);
+    }
+
+
+    @Test()
+    @DisplayName("merges the entries of another map")
+    void MergesAnotherMap() {
+        OffHeapLongMap map = new OffHeapLongMap(16);
+        OffHeapLongMap other = new OffHeapLongMap(16);
+
+        map.add(7L, 1L);
+        map.add(0L, 2L);
+        other.add(7L, 3L);
+        other.add(9L, 4L);
+        map.addAll(other);
+
+        assertEquals(3L, map.size());
+        assertEquals(4L, map.get(7L, 0L));
+        assertEquals(2L, map.get(0L, 0L));
+        assertEquals(4L, map.get(9L, 0L));
+
+        map.clear();
+        assertEquals(0L, map.size());
+        assertFalse(map.contains(7L));
+    }
+}
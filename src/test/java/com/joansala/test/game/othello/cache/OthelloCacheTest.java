@@ -0,0 +1,209 @@
+package com.joansala.test.game.othello.cache;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.joansala.engine.Flag;
+import com.joansala.engine.Game;
+import com.joansala.game.othello.OthelloBoard;
+import com.joansala.game.othello.OthelloGame;
+import com.joansala.game.othello.cache.OthelloCache;
+
+
+@DisplayName("Othello transpositions table")
+public class OthelloCacheTest {
+
+    /** Moves played to obtain the stored positions */
+    private static String MOVES = "d3 c5 f6 f5 e6 e3 f3 c4 b4";
+
+
+    @Test()
+    @DisplayName("finds the stored entries")
+    void FindsStoredEntries() {
+        OthelloCache cache = new OthelloCache(1 << 16);
+        fill(cache);
+        assertEntries(cache);
+    }
+
+
+    @Test()
+    @DisplayName("restores saved tables of any size")
+    void RestoresSavedTables(@TempDir Path folder) throws Exception {
+        Path path = folder.resolve("cache.bin");
+        OthelloCache cache = new OthelloCache(1 << 16);
+
+        fill(cache);
+        cache.save(path);
+
+        OthelloCache restored = new OthelloCache(1 << 16);
+        restored.load(path);
+        assertEntries(restored);
+
+        OthelloCache larger = new OthelloCache(1 << 20);
+        larger.load(path);
+        assertEntries(larger);
+    }
+
+
+    @Test()
+    @DisplayName("views share a restored table and keep it on the first clear")
+    void ViewsKeepRestoredEntries(@TempDir Path folder) throws Exception {
+        Path path = folder.resolve("cache.bin");
+        OthelloCache cache = new OthelloCache(1 << 16);
+
+        fill(cache);
+        cache.save(path);
+
+        OthelloCache restored = new OthelloCache(1 << 16);
+        restored.load(path);
+
+        OthelloCache first = restored.view();
+        OthelloCache second = restored.view();
+
+        first.clear();
+        assertEntries(second);
+
+        first.clear();
+        assertFalse(second.find(new OthelloGame()));
+    }
+
+
+    @Test()
+    @DisplayName("views never find entries torn by concurrent writes")
+    void ConcurrentViewsFindWholeEntries() throws Exception {
+        OthelloCache cache = new OthelloCache(1 << 10);
+        OthelloGame[] positions = randomPositions(512);
+        Thread[] threads = new Thread[4];
+        AtomicInteger errors = new AtomicInteger();
+
+        for (int t = 0; t < threads.length; t++) {
+            OthelloCache view = cache.view();
+            Random random = new Random(t);
+
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 200000; i++) {
+                    OthelloGame game = positions[random.nextInt(positions.length)];
+                    long hash = game.hash();
+
+                    if (random.nextBoolean()) {
+                        view.store(game, score(hash), move(hash), depth(hash), Flag.EXACT);
+                    } else if (view.find(hash)) {
+                        if (view.getScore() != score(hash) ||
+                            view.getMove() != move(hash) ||
+                            view.getDepth() != depth(hash)) {
+                            errors.incrementAndGet();
+                        }
+                    }
+                }
+            });
+        }
+
+        for (Thread thread : threads) thread.start();
+        for (Thread thread : threads) thread.join();
+
+        assertEquals(0, errors.get());
+    }
+
+
+    @Test()
+    @DisplayName("rejects files that are not valid tables")
+    void RejectsInvalidTables(@TempDir Path folder) throws Exception {
+        Path path = folder.resolve("cache.bin");
+        OthelloCache cache = new OthelloCache(1 << 16);
+
+        cache.save(path);
+        byte[] bytes = Files.readAllBytes(path);
+        bytes[8] ^= 0x01;
+        Files.write(path, bytes);
+
+        assertThrows(Exception.class, () -> cache.load(path));
+    }
+
+
+    /**
+     * Stores an entry for each position of a game.
+     */
+    private static void fill(OthelloCache cache) {
+        OthelloGame game = new OthelloGame();
+        int[] moves = new OthelloBoard().toMoves(MOVES);
+
+        for (int i = 0; i < moves.length; i++) {
+            cache.store(game, 10 * i - 40, moves[i], i, Flag.EXACT);
+            game.makeMove(moves[i]);
+        }
+    }
+
+
+    /**
+     * Positions reached by playing random moves from the start.
+     */
+    private static OthelloGame[] randomPositions(int count) {
+        OthelloGame[] positions = new OthelloGame[count];
+        OthelloGame game = new OthelloGame();
+        Random random = new Random(7);
+        int[] moves = new int[64];
+
+        for (int i = 0; i < count; i++) {
+            if (game.hasEnded()) {
+                game = new OthelloGame();
+            }
+
+            int length = 0;
+            int move;
+
+            game.resetCursor();
+
+            while ((move = game.nextMove()) != Game.NULL_MOVE) {
+                moves[length++] = move;
+            }
+
+            game.makeMove(moves[random.nextInt(length)]);
+            positions[i] = new OthelloGame();
+            positions[i].setPosition(
+                game.state(0), game.state(1), game.turn());
+        }
+
+        return positions;
+    }
+
+
+    /** Score derived from a position hash */
+    private static int score(long hash) {
+        return (int) (0x3FF & hash) - 0x200;
+    }
+
+
+    /** Move derived from a position hash */
+    private static int move(long hash) {
+        return (int) (0x3F & (hash >>> 10));
+    }
+
+
+    /** Depth derived from a position hash */
+    private static int depth(long hash) {
+        return (int) (0x3F & (hash >>> 16));
+    }
+
+
+    /**
+     * Asserts the entries stored with {@link #fill}.
+     */
+    private static void assertEntries(OthelloCache cache) {
+        OthelloGame game = new OthelloGame();
+        int[] moves = new OthelloBoard().toMoves(MOVES);
+
+        for (int i = 0; i < moves.length; i++) {
+            assertTrue(cache.find(game));
+            assertEquals(10 * i - 40, cache.getScore());
+            assertEquals(moves[i], cache.getMove());
+            assertEquals(i, cache.getDepth());
+            assertEquals(Flag.EXACT, cache.getFlag());
+            game.makeMove(moves[i]);
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.joansala.test.game.othello.cluster;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.joansala.game.othello.OthelloGame;
+import com.joansala.game.othello.cache.OthelloCache;
+import com.joansala.game.othello.cluster.ClusterCoordinator;
+import com.joansala.game.othello.cluster.ClusterResult;
+import com.joansala.game.othello.cluster.ClusterWorker;
+import com.joansala.game.othello.search.MTDNegamax;
+
+
+@DisplayName("Othello cluster coordinator")
+public class ClusterCoordinatorTest {
+
+    /** Maximum time to analyze the positions */
+    private static Duration TIMEOUT = Duration.ofSeconds(30);
+
+    /** Positions to search */
+    private static List<String> DIAGRAMS = Arrays.asList(
+        "8/8/8/3OX3/3XO3/8/8/8 b",
+        "8/8/2X5/2XXX3/2XXO3/3O4/8/8 w",
+        "8/8/3O4/3OX3/3XXX2/8/8/8 b",
+        "8/8/8/2XXX3/3XO3/8/8/8 w",
+        "8/8/2O5/2XOX3/3XO3/8/8/8 b",
+        "8/8/8/3OX3/3XXX2/5O2/8/8 b"
+    );
+
+    /** Workers started by a test */
+    private List<ClusterWorker> workers = new ArrayList<>();
+
+
+    @AfterEach
+    void closeWorkers() throws IOException {
+        for (ClusterWorker worker : workers) {
+            worker.close();
+        }
+    }
+
+
+    @Test()
+    @DisplayName("searches all the positions on several workers")
+    void SearchesOnSeveralWorkers() throws Exception {
+        List<InetSocketAddress> addresses = Arrays.asList(
+            startWorker(), startWorker(), startWorker());
+        Set<String> diagrams = new HashSet<>();
+
+        assertTimeoutPreemptively(TIMEOUT, () -> {
+            try (ClusterCoordinator coordinator =
+                new ClusterCoordinator(addresses, 2)) {
+                coordinator.analyze(DIAGRAMS.iterator(), result -> {
+                    assertNotNull(result.move());
+                    diagrams.add(result.diagram());
+                });
+            }
+        });
+
+        assertEquals(new HashSet<>(DIAGRAMS), diagrams);
+    }
+
+
+    @Test()
+    @DisplayName("error responses fail their requests only")
+    void ErrorResponsesFailRequests() throws Exception {
+        List<InetSocketAddress> addresses = Arrays.asList(startWorker());
+        List<String> requests = new ArrayList<>(DIAGRAMS);
+        List<ClusterResult> results = new ArrayList<>();
+
+        requests.add(1, "invalid diagram");
+        requests.add(3, "XXXXXXXX/XXXXXXXX/XXXXXXXX/XXXXXXXX/" +
+                        "XXXXXXXX/XXXXXXXX/XXXXXXXX/XXXXXXXO b");
+
+        IOException e = assertThrows(IOException.class, () -> {
+            assertTimeoutPreemptively(TIMEOUT, () -> {
+                try (ClusterCoordinator coordinator =
+                    new ClusterCoordinator(addresses, 2)) {
+                    coordinator.analyze(requests.iterator(), results::add);
+                }
+            });
+        });
+
+        assertTrue(e.getMessage().contains(" 2 "));
+        assertEquals(DIAGRAMS.size(), results.size());
+    }
+
+
+    @Test()
+    @DisplayName("requests of a worker killed mid-batch go to the others")
+    void KilledWorkersRequestsAreReassigned() throws Exception {
+        ServerSocket server = new ServerSocket(0);
+        List<ClusterResult> results = new ArrayList<>();
+
+        List<InetSocketAddress> addresses = Arrays.asList(
+            startBrokenWorker(server), startWorker());
+
+        try {
+            assertTimeoutPreemptively(TIMEOUT, () -> {
+                try (ClusterCoordinator coordinator =
+                    new ClusterCoordinator(addresses, 2)) {
+                    coordinator.analyze(DIAGRAMS.iterator(), results::add);
+                }
+            });
+        } finally {
+            server.close();
+        }
+
+        assertEquals(DIAGRAMS.size(), results.size());
+    }
+
+
+    @Test()
+    @DisplayName("requests fail when no workers remain")
+    void FailsWhenNoWorkersRemain() throws Exception {
+        ServerSocket server = new ServerSocket(0);
+        List<ClusterResult> results = new ArrayList<>();
+
+        List<InetSocketAddress> addresses = Arrays.asList(
+            startBrokenWorker(server));
+
+        try {
+            assertThrows(IOException.class, () -> {
+                assertTimeoutPreemptively(TIMEOUT, () -> {
+                    try (ClusterCoordinator coordinator =
+                        new ClusterCoordinator(addresses, 2)) {
+                        coordinator.analyze(DIAGRAMS.iterator(), results::add);
+                    }
+                });
+            });
+        } finally {
+            server.close();
+        }
+
+        assertTrue(results.isEmpty());
+    }
+
+
+    /**
+     * Starts a worker that closes its connection after receiving
+     * its first request, without answering it.
+     *
+     * @param server    Server socket of the worker
+     * @return          Worker address
+     */
+    private static InetSocketAddress startBrokenWorker(ServerSocket server) {
+        Thread thread = new Thread(() -> {
+            try (Socket socket = server.accept()) {
+                new BufferedReader(new InputStreamReader(
+                    socket.getInputStream(), UTF_8)).readLine();
+            } catch (IOException e) {
+                // The test ended
+            }
+        });
+
+        thread.setDaemon(true);
+        thread.start();
+
+        return new InetSocketAddress("localhost", server.getLocalPort());
+    }
+
+
+    /**
+     * Starts a worker serving on a local port.
+     *
+     * @return          Worker address
+     */
+    private InetSocketAddress startWorker() throws IOException {
+        MTDNegamax engine = new MTDNegamax();
+        engine.setCache(new OthelloCache(1 << 16));
+        engine.setMoveTime(Long.MAX_VALUE >> 24);
+        engine.setDepth(3);
+
+        ClusterWorker worker = new ClusterWorker(engine, new OthelloGame(), 0);
+        Thread thread = new Thread(() -> serve(worker));
+        thread.setDaemon(true);
+        thread.start();
+        workers.add(worker);
+
+        return new InetSocketAddress("localhost", worker.getPort());
+    }
+
+
+    /**
+     * Serves coordinators until the worker is closed.
+     */
+    private static void serve(ClusterWorker worker) {
+        try {
+            worker.serve();
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+    }
+}
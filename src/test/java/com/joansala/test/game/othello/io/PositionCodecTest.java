@@ -0,0 +1,118 @@
+package com.joansala.test.game.othello.io;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.*;
+import org.junit.jupiter.params.provider.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.joansala.game.othello.OthelloBoard;
+import com.joansala.game.othello.io.PositionCodec;
+import com.joansala.game.othello.io.RecordReader;
+import com.joansala.game.othello.io.RecordWriter;
+import com.joansala.util.suites.Suite;
+import com.joansala.util.suites.SuiteReader;
+
+
+@DisplayName("Othello position codec")
+public class PositionCodecTest {
+
+    /** Test suite file path */
+    private static String SUITE_PATH = "othello-bench.suite";
+
+
+    @ParameterizedTest()
+    @MethodSource("suites")
+    @DisplayName("encoded positions decode to the same board")
+    void DecodedBoardEqualsEncoded(Suite suite) {
+        OthelloBoard board = new OthelloBoard().toBoard(suite.diagram());
+        ByteBuffer buffer = ByteBuffer.allocate(PositionCodec.POSITION_SIZE);
+
+        PositionCodec.encode(buffer, board);
+        assertFalse(buffer.hasRemaining());
+
+        buffer.flip();
+        OthelloBoard decoded = PositionCodec.decode(buffer);
+        assertEquals(board.toDiagram(), decoded.toDiagram());
+    }
+
+
+    @Test()
+    @DisplayName("game records can be read back from a file")
+    void GameRecordsRoundTrip(@TempDir Path folder) throws Exception {
+        Path path = folder.resolve("games.bin");
+        OthelloBoard board = new OthelloBoard();
+        int[] moves = board.toMoves("d3 c5 f6 f5");
+
+        try (RecordWriter writer = new RecordWriter(path)) {
+            for (int i = 0; i < 10000; i++) {
+                writer.writeGame(board, moves, moves.length);
+            }
+        }
+
+        try (RecordReader reader = new RecordReader(path)) {
+            for (int i = 0; i < 10000; i++) {
+                assertTrue(reader.nextGame());
+                assertEquals(moves.length, reader.length());
+                assertEquals(board.toDiagram(), reader.toBoard().toDiagram());
+                assertEquals(moves[3], reader.moves()[3]);
+            }
+
+            assertFalse(reader.nextGame());
+        }
+    }
+
+
+    @ParameterizedTest()
+    @ValueSource(bytes = { 0, 2, -2 })
+    @DisplayName("invalid turn identifiers throw an exception")
+    void DecodeInvalidTurnThrows(byte turn) {
+        ByteBuffer buffer = ByteBuffer.allocate(PositionCodec.POSITION_SIZE);
+        buffer.putLong(0L).putLong(0L).put(turn).flip();
+
+        assertThrows(IllegalArgumentException.class, () -> {
+            PositionCodec.decode(buffer);
+        });
+    }
+
+
+    @Test()
+    @DisplayName("overlapping stones are rejected when decoding or reading")
+    void OverlappingStonesThrow(@TempDir Path folder) throws Exception {
+        Path path = folder.resolve("positions.bin");
+        ByteBuffer buffer = ByteBuffer.allocate(PositionCodec.POSITION_SIZE);
+        buffer.putLong(0x18L).putLong(0x08L).put((byte) 1).flip();
+        Files.write(path, buffer.array());
+
+        assertThrows(IllegalArgumentException.class, () -> {
+            PositionCodec.decode(buffer);
+        });
+
+        try (RecordReader reader = new RecordReader(path)) {
+            assertThrows(IllegalArgumentException.class, () -> {
+                reader.nextPosition();
+            });
+        }
+    }
+
+
+    /**
+     * Stream of game suites to test.
+     */
+    public static Stream<Suite> suites() throws Exception {
+        SuiteReader reader = new SuiteReader(SUITE_PATH);
+        return reader.stream().onClose(() -> close(reader));
+    }
+
+
+    /**
+     * Close an open autoclosable instance.
+     */
+    private static void close(AutoCloseable closeable) {
+        try { closeable.close(); } catch (Exception e) {}
+    }
+}
@@ -0,0 +1,79 @@
+package com.joansala.test.game.othello.scorers;
+
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.joansala.engine.Game;
+import com.joansala.engine.Scorer;
+import com.joansala.game.othello.OthelloGame;
+import com.joansala.game.othello.scorers.CachedScorer;
+
+
+@DisplayName("Othello cached scorer")
+public class CachedScorerTest {
+
+    /** Heuristic function being cached */
+    private static Scorer<OthelloGame> SCORER = OthelloGame.defaultScorer();
+
+
+    @Test()
+    @DisplayName("cached scores equal the decorated scores")
+    void CachedScoresAreTransparent() throws Exception {
+        CachedScorer cached = new CachedScorer(SCORER, 1 << 12);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<Integer>> futures = new ArrayList<>();
+
+        for (int seed = 0; seed < 8; seed++) {
+            final Random random = new Random(seed % 2);
+            futures.add(executor.submit(() -> playGames(cached, random)));
+        }
+
+        for (Future<Integer> future : futures) {
+            assertEquals(0, future.get());
+        }
+
+        executor.shutdown();
+    }
+
+
+    /**
+     * Plays random games evaluating each position twice with the
+     * cached scorer and returns the number of mismatches.
+     */
+    private static int playGames(CachedScorer cached, Random random) {
+        OthelloGame game = new OthelloGame();
+        int[] moves = new int[64];
+        int mismatches = 0;
+
+        for (int i = 0; i < 50; i++) {
+            game.setPosition(0x0000001008000000L, 0x0000000810000000L, Game.SOUTH);
+
+            while (game.hasEnded() == false) {
+                int length = 0;
+                int move;
+
+                for (int n = 0; n < 2; n++) {
+                    if (cached.evaluate(game) != SCORER.evaluate(game)) {
+                        mismatches++;
+                    }
+                }
+
+                game.resetCursor();
+
+                while ((move = game.nextMove()) != Game.NULL_MOVE) {
+                    moves[length++] = move;
+                }
+
+                game.makeMove(moves[random.nextInt(length)]);
+            }
+        }
+
+        return mismatches;
+    }
+}
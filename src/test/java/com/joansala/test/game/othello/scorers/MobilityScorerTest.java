@@ -0,0 +1,55 @@
+package com.joansala.test.game.othello.scorers;
+
+import java.util.Random;
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.joansala.engine.Game;
+import com.joansala.game.othello.OthelloGame;
+import com.joansala.game.othello.scorers.MobilityScorer;
+
+
+@DisplayName("Othello mobility scorer")
+public class MobilityScorerTest {
+
+    @Test()
+    @DisplayName("scores the start position as balanced")
+    void ScoresStartPositionAsBalanced() {
+        OthelloGame game = new OthelloGame();
+        MobilityScorer scorer = new MobilityScorer();
+        assertEquals(0, scorer.evaluate(game));
+    }
+
+
+    @Test()
+    @DisplayName("swapping the players negates the score")
+    void SwappingPlayersNegatesScore() {
+        MobilityScorer scorer = new MobilityScorer();
+        OthelloGame swapped = new OthelloGame();
+        OthelloGame game = new OthelloGame();
+        Random random = new Random(0);
+        int[] moves = new int[64];
+
+        for (int i = 0; i < 20; i++) {
+            game.setPosition(0x0000001008000000L, 0x0000000810000000L, Game.SOUTH);
+
+            while (game.hasEnded() == false) {
+                long south = game.state(0);
+                long north = game.state(1);
+                int length = 0;
+                int move;
+
+                swapped.setPosition(north, south, -game.turn());
+                assertEquals(scorer.evaluate(game), -scorer.evaluate(swapped));
+
+                game.resetCursor();
+
+                while ((move = game.nextMove()) != Game.NULL_MOVE) {
+                    moves[length++] = move;
+                }
+
+                game.makeMove(moves[random.nextInt(length)]);
+            }
+        }
+    }
+}
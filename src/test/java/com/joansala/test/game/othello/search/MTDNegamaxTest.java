@@ -0,0 +1,198 @@
+package com.joansala.test.game.othello.search;
+
+import java.nio.file.Path;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.*;
+import org.junit.jupiter.params.provider.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static com.joansala.game.othello.Othello.*;
+
+import com.joansala.engine.Game;
+import com.joansala.engine.Report;
+import com.joansala.game.othello.OthelloDiagram;
+import com.joansala.game.othello.OthelloGame;
+import com.joansala.game.othello.OthelloLeaves;
+import com.joansala.game.othello.cache.OthelloCache;
+import com.joansala.game.othello.search.MTDNegamax;
+import com.joansala.game.othello.search.MTDNegamax.Driver;
+import com.joansala.game.othello.search.MTDNegamax.MultiPVReport;
+import com.joansala.game.othello.store.SolvedStore;
+
+
+@DisplayName("Othello root search drivers")
+public class MTDNegamaxTest {
+
+    @ParameterizedTest()
+    @ValueSource(strings = {
+        "8/8/8/3OX3/3XO3/8/8/8 b",
+        "8/8/2X5/2XXX3/2XXO3/3O4/8/8 w",
+        "2OOOOO1/1OOOXO2/XXOXOXXX/XXOXOX1O/XXXXOXOO/XXXXOXOO/X1OXXX2/2XXXX2 b"
+    })
+    @DisplayName("all drivers find the same score")
+    void DriversFindTheSameScore(String diagram) {
+        int expected = search(Driver.ALPHABETA, diagram);
+
+        assertEquals(expected, search(Driver.ASPIRATION, diagram));
+        assertEquals(expected, search(Driver.MTDF, diagram));
+    }
+
+
+    @ParameterizedTest()
+    @ValueSource(strings = {
+        "8/8/2X5/2XXX3/2XXO3/3O4/8/8 w",
+        "2OOOOO1/1OOOXO2/XXOXOXXX/XXOXOX1O/XXXXOXOO/XXXXOXOO/X1OXXX2/2XXXX2 b"
+    })
+    @DisplayName("transposition cutoffs do not change the score")
+    void CutoffsKeepTheScore(String diagram) {
+        OthelloGame game = new OthelloGame();
+        MTDNegamax engine = new MTDNegamax();
+        int[] score = { Integer.MIN_VALUE };
+
+        game.setPosition(new OthelloDiagram().parse(diagram));
+        engine.attachConsumer(report -> score[0] = report.getScore());
+        engine.setMoveTime(Long.MAX_VALUE >> 24);
+        engine.setDepth(7);
+        engine.computeBestMove(game);
+
+        assertEquals(score[0], search(Driver.MTDF, game, 7));
+    }
+
+
+    @ParameterizedTest()
+    @ValueSource(strings = {
+        "8/8/2X5/2XXX3/2XXO3/3O4/8/8 w",
+        "2OOOOO1/1OOOXO2/XXOXOXXX/XXOXOX1O/XXXXOXOO/XXXXOXOO/X1OXXX2/2XXXX2 b"
+    })
+    @DisplayName("multi-PV lines have the scores of their moves")
+    void MultiPVScoresEachMove(String diagram) {
+        OthelloGame game = new OthelloGame();
+        MTDNegamax engine = new MTDNegamax();
+        Report[][] lines = { null };
+
+        game.setPosition(new OthelloDiagram().parse(diagram));
+        engine.setCache(new OthelloCache(1 << 20));
+        engine.attachConsumer(report -> lines[0] = ((MultiPVReport) report).getLines());
+        engine.setMoveTime(Long.MAX_VALUE >> 24);
+        engine.setMultiPV(Game.MAX_SCORE);
+        engine.setDepth(5);
+        engine.computeBestMove(game);
+
+        assertEquals(game.legalMoves().length, lines[0].length);
+
+        for (int i = 0; i < lines[0].length; i++) {
+            Report line = lines[0][i];
+            int move = line.getVariation()[0];
+
+            if (i > 0) {
+                assertTrue(line.getScore() <= lines[0][i - 1].getScore());
+            }
+
+            game.makeMove(move);
+
+            if (game.hasEnded() == false) {
+                assertEquals(line.getScore(), -search(Driver.ALPHABETA, game, 4));
+            }
+
+            game.unmakeMove();
+        }
+    }
+
+
+    @Test()
+    @DisplayName("deadline mode returns a move within the time limit")
+    void DeadlineModeReturnsInTime() {
+        OthelloGame game = new OthelloGame();
+        MTDNegamax engine = new MTDNegamax();
+
+        engine.setCache(new OthelloCache(1 << 20));
+        engine.setDeadlineMode(true);
+        engine.setMoveTime(20L);
+
+        long start = System.nanoTime();
+        int move = engine.computeBestMove(game);
+        long elapsed = (System.nanoTime() - start) / 1000000L;
+
+        assertTrue(game.isLegal(move));
+        assertTrue(elapsed < 500L);
+    }
+
+
+    @Test()
+    @DisplayName("an unlimited move time searches to the maximum depth")
+    void UnlimitedMoveTimeReachesDepth() {
+        OthelloGame game = new OthelloGame();
+        MTDNegamax engine = new MTDNegamax();
+        int[] depth = { 0 };
+
+        engine.setCache(new OthelloCache(1 << 20));
+        engine.attachConsumer(report -> depth[0] = report.getDepth());
+        engine.setMoveTime(Long.MAX_VALUE);
+        engine.setDepth(6);
+        engine.computeBestMove(game);
+
+        assertEquals(6, depth[0]);
+    }
+
+
+    @Test()
+    @DisplayName("endgame leaves only store the root position")
+    void LeavesStoreOnlyTheRoot(@TempDir Path folder) throws Exception {
+        String diagram = "1OOOOOOX/1OOXXXXX/1OOOOXOX/2OXOOOX/2OXXOOX/1OXXOXOO/XXXXXXOO/XXXXXXO1 w";
+        OthelloGame game = new OthelloGame();
+        MTDNegamax engine = new MTDNegamax();
+        int[] score = { 0 };
+
+        game.setPosition(new OthelloDiagram().parse(diagram));
+
+        try (SolvedStore store = new SolvedStore(folder.resolve("solved.bin"))) {
+            engine.setCache(new OthelloCache(1 << 20));
+            engine.setLeaves(new OthelloLeaves(store));
+            engine.attachConsumer(report -> score[0] = report.getScore());
+            engine.setMoveTime(Long.MAX_VALUE >> 24);
+            engine.setDepth(4);
+
+            int move = engine.computeBestMove(game);
+
+            assertTrue(game.isLegal(move));
+            assertEquals(-game.infinity(), score[0]);
+            assertEquals(1, store.size());
+            assertEquals(-44, SolvedStore.score(store.find(
+                game.state(NORTH_STONE),
+                game.state(SOUTH_STONE))));
+        }
+    }
+
+
+    /**
+     * Searches a position to a fixed depth with the given driver
+     * and returns the score of the last completed iteration.
+     */
+    private static int search(Driver driver, String diagram) {
+        OthelloGame game = new OthelloGame();
+        game.setPosition(new OthelloDiagram().parse(diagram));
+        return search(driver, game, 6);
+    }
+
+
+    /**
+     * Searches a position to the given depth with the given driver
+     * and returns the score of the last completed iteration.
+     */
+    private static int search(Driver driver, OthelloGame game, int depth) {
+        MTDNegamax engine = new MTDNegamax(driver);
+        int[] score = { Integer.MIN_VALUE };
+
+        engine.setCache(new OthelloCache(1 << 20));
+        engine.attachConsumer(report -> score[0] = report.getScore());
+        engine.setMoveTime(Long.MAX_VALUE >> 24);
+        engine.setDepth(depth);
+
+        int move = engine.computeBestMove(game);
+
+        assertNotEquals(Game.NULL_MOVE, move);
+        assertTrue(game.isLegal(move));
+
+        return score[0];
+    }
+}
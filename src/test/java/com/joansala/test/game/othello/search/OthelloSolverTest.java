@@ -0,0 +1,102 @@
+package com.joansala.test.game.othello.search;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.params.*;
+import org.junit.jupiter.params.provider.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.joansala.game.othello.OthelloDiagram;
+import com.joansala.game.othello.OthelloGame;
+import com.joansala.game.othello.bench.EndgameProblem;
+import com.joansala.game.othello.search.OthelloSolver;
+
+
+@DisplayName("Othello endgame solver")
+public class OthelloSolverTest {
+
+    @ParameterizedTest()
+    @ValueSource(strings = {
+        "2OOOOO1/1OOOXO2/XXOXOXXX/XXOXOX1O/XXXXOXOO/XXXXOXOO/X1OXXX2/2XXXX2 b score 2 best a1",
+        "2XXXXOX/2XXXOX1/OXXXOX2/1OXXXXOO/XOOXXXXO/XOXOOXOO/OXOOX3/XXXXX3 b score 20 best f7,a4",
+        "2OOXO2/2OOXX2/OOOOOOXO/1OOOXOXO/XOOOOOOO/OXOXXOXO/2XXXXOO/2OOOO1O b score -20 best g8,a2"
+    })
+    @DisplayName("solves endgame problems exactly")
+    void SolvesEndgameProblems(String line) {
+        EndgameProblem problem = EndgameProblem.parse(line);
+        OthelloGame game = new OthelloGame();
+        OthelloSolver solver = new OthelloSolver();
+
+        game.setPosition(new OthelloDiagram().parse(problem.diagram()));
+
+        assertEquals(problem.score(), solver.solve(game));
+        assertTrue(problem.isBestMove(solver.getBestMove()));
+    }
+
+
+    @ParameterizedTest()
+    @ValueSource(strings = {
+        "2OOOOO1/1OOOXO2/XXOXOXXX/XXOXOX1O/XXXXOXOO/XXXXOXOO/X1OXXX2/2XXXX2 b score 2 best a1"
+    })
+    @DisplayName("null windows bound the exact score")
+    void NullWindowsBoundTheScore(String line) {
+        EndgameProblem problem = EndgameProblem.parse(line);
+        OthelloGame game = new OthelloGame();
+        OthelloSolver solver = new OthelloSolver();
+        int score = problem.score();
+
+        game.setPosition(new OthelloDiagram().parse(problem.diagram()));
+
+        assertTrue(solver.solve(game, score, score + 1) <= score);
+        assertTrue(solver.solve(game, score - 1, score) >= score);
+    }
+
+
+    @ParameterizedTest()
+    @ValueSource(strings = {
+        "2XXXXOX/2XXXOX1/OXXXOX2/1OXXXXOO/XOOXXXXO/XOXOOXOO/OXOOX3/XXXXX3 b score 20 best f7,a4",
+        "2OOXO2/2OOXX2/OOOOOOXO/1OOOXOXO/XOOOOOOO/OXOXXOXO/2XXXXOO/2OOOO1O b score -20 best g8,a2"
+    })
+    @DisplayName("solves endgame problems for a win, loss or draw")
+    void SolvesEndgameOutcomes(String line) {
+        EndgameProblem problem = EndgameProblem.parse(line);
+        OthelloGame game = new OthelloGame();
+        OthelloSolver solver = new OthelloSolver();
+
+        game.setPosition(new OthelloDiagram().parse(problem.diagram()));
+
+        assertEquals(Integer.signum(problem.score()), solver.solveOutcome(game));
+    }
+
+
+    @Test()
+    @DisplayName("passes on a root position without moves")
+    void PassesOnRootWithoutMoves() {
+        OthelloGame game = new OthelloGame();
+        OthelloSolver solver = new OthelloSolver();
+        String diagram = "1OOOOOOX/1OOXXXXX/1OOOOXOX/2OXOOOX/2OXXOOX/1OXXOXOO/XXXXXXOO/XXXXXXO1 w";
+
+        game.setPosition(new OthelloDiagram().parse(diagram));
+
+        assertEquals(-44, solver.solve(game, -64, 64));
+        assertEquals(OthelloGame.FORFEIT_MOVE, solver.getBestMove());
+        assertFalse(game.hasEnded());
+    }
+
+
+    @ParameterizedTest()
+    @CsvSource({
+        "1OOOOOOX/1OOXXXXX/1OOOOXOX/2OXOOOX/2OXXOOX/1OXXOXOO/XXXXXXOO/XXXXXXO1 w, -44",
+        "1XXXXXXX/1XOOOOXX/XXOXXXOX/1XXOXOOX/XXXOOOOX/1XXOOOOX/2XXXXXX/2XXX2X b, 0"
+    })
+    @DisplayName("outcome searches do not change the exact score")
+    void OutcomeSearchKeepsExactScore(String diagram, int score) {
+        OthelloGame game = new OthelloGame();
+        OthelloSolver solver = new OthelloSolver();
+
+        game.setPosition(new OthelloDiagram().parse(diagram));
+
+        assertEquals(score, solver.solve(game));
+        assertEquals(score, solver.solve(game, -64, 64));
+        assertEquals(OthelloGame.FORFEIT_MOVE, solver.getBestMove());
+    }
+}
@@ -0,0 +1,116 @@
+package com.joansala.test.game.othello.search;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.joansala.engine.Game;
+import com.joansala.game.othello.OthelloGame;
+import com.joansala.game.othello.cache.OthelloCache;
+import com.joansala.game.othello.search.PonderingNegamax;
+
+
+@DisplayName("Othello pondering engine")
+public class PonderingNegamaxTest {
+
+    /** Time limit of each search (milliseconds) */
+    private static long MOVE_TIME = 200L;
+
+
+    @Test()
+    @DisplayName("a ponder hit returns the move of the ponder search")
+    void PonderHitReturnsPonderedMove() {
+        OthelloGame game = new OthelloGame();
+        PonderingNegamax engine = newEngine();
+
+        game.makeMove(engine.computeBestMove(game));
+        int reply = ponderedReply(engine, game);
+
+        assertNotEquals(Game.NULL_MOVE, reply);
+        game.makeMove(reply);
+        assertTrue(engine.isPondering(game));
+
+        long start = System.nanoTime();
+        int move = engine.computeBestMove(game);
+        long elapsed = (System.nanoTime() - start) / 1000000L;
+
+        assertTrue(game.isLegal(move));
+        assertTrue(elapsed < 5 * MOVE_TIME);
+        engine.newMatch();
+    }
+
+
+    @Test()
+    @DisplayName("a ponder miss searches the position played")
+    void PonderMissSearchesAgain() {
+        OthelloGame game = new OthelloGame();
+        PonderingNegamax engine = newEngine();
+
+        game.makeMove(engine.computeBestMove(game));
+        int reply = ponderedReply(engine, game);
+        int other = Game.NULL_MOVE;
+        int move;
+
+        game.resetCursor();
+
+        while ((move = game.nextMove()) != Game.NULL_MOVE) {
+            if (move != reply) {
+                other = move;
+            }
+        }
+
+        assertNotEquals(Game.NULL_MOVE, other);
+        game.makeMove(other);
+        assertFalse(engine.isPondering(game));
+
+        move = engine.computeBestMove(game);
+
+        assertTrue(game.isLegal(move));
+        game.makeMove(move);
+        assertNotEquals(Game.NULL_MOVE, ponderedReply(engine, game));
+        engine.newMatch();
+    }
+
+
+    /**
+     * Creates a new engine with a transpositions table.
+     */
+    private static PonderingNegamax newEngine() {
+        PonderingNegamax engine = new PonderingNegamax();
+
+        engine.setCache(new OthelloCache(1 << 20));
+        engine.setMoveTime(MOVE_TIME);
+        engine.setDepth(8);
+
+        return engine;
+    }
+
+
+    /**
+     * Reply of the current position whose resulting position is
+     * being pondered by an engine.
+     */
+    private static int ponderedReply(PonderingNegamax engine, OthelloGame game) {
+        int[] moves = new int[64];
+        int reply = Game.NULL_MOVE;
+        int length = 0;
+        int move;
+
+        game.resetCursor();
+
+        while ((move = game.nextMove()) != Game.NULL_MOVE) {
+            moves[length++] = move;
+        }
+
+        for (int i = 0; i < length; i++) {
+            game.makeMove(moves[i]);
+
+            if (engine.isPondering(game)) {
+                reply = moves[i];
+            }
+
+            game.unmakeMove();
+        }
+
+        return reply;
+    }
+}
@@ -0,0 +1,79 @@
+package com.joansala.test.game.othello.store;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+import static com.joansala.util.bits.Bits.*;
+
+import com.joansala.game.othello.store.SolvedStore;
+
+
+@DisplayName("Othello solved positions store")
+public class SolvedStoreTest {
+
+    /** Stones of the player to move */
+    private static long PLAYER = 0x0000001C08000000L;
+
+    /** Stones of the opponent */
+    private static long OPPONENT = 0x0000000010300000L;
+
+    /** Best move of the position */
+    private static int MOVE = 20;
+
+
+    @Test()
+    @DisplayName("finds symmetric positions with their moves")
+    void FindsSymmetricPositions(@TempDir Path folder) throws Exception {
+        try (SolvedStore store = new SolvedStore(folder.resolve("solved.bin"))) {
+            long player = Long.reverseBytes(PLAYER);
+            long opponent = Long.reverseBytes(OPPONENT);
+            int move = first(Long.reverseBytes(bit(MOVE)));
+
+            assertEquals(0, store.find(PLAYER, OPPONENT));
+            assertTrue(store.store(PLAYER, OPPONENT, -12, MOVE));
+            assertFalse(store.store(player, opponent, -12, move));
+
+            int entry = store.find(player, opponent);
+            assertEquals(-12, SolvedStore.score(entry));
+            assertEquals(move, SolvedStore.move(entry));
+            assertEquals(0, store.find(OPPONENT, PLAYER));
+        }
+    }
+
+
+    @Test()
+    @DisplayName("positions persist and compact across sessions")
+    void PositionsPersistAndCompact(@TempDir Path folder) throws Exception {
+        Path path = folder.resolve("solved.bin");
+
+        try (SolvedStore store = new SolvedStore(path)) {
+            for (int i = 0; i < 1000; i++) {
+                store.store(PLAYER, i, i % 64, MOVE);
+                store.store(PLAYER, i, (i % 64) - 64, MOVE);
+            }
+        }
+
+        try (SolvedStore store = new SolvedStore(path)) {
+            assertEquals(1000, store.size());
+            assertEquals(2000, store.records());
+            store.compact();
+            assertEquals(1000, store.records());
+        }
+
+        long size = Files.size(path);
+
+        try (SolvedStore store = new SolvedStore(path)) {
+            assertEquals(1000, store.size());
+            assertEquals(1000, store.records());
+            assertTrue(size < 1000 * SolvedStore.RECORD_SIZE + 64);
+
+            for (int i = 0; i < 1000; i++) {
+                int entry = store.find(PLAYER, i);
+                assertEquals((i % 64) - 64, SolvedStore.score(entry));
+                assertEquals(MOVE, SolvedStore.move(entry));
+            }
+        }
+    }
+}
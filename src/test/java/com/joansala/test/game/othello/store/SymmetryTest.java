@@ -0,0 +1,32 @@
+package com.joansala.test.game.othello.store;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.joansala.game.othello.store.Symmetry;
+
+
+@DisplayName("Othello board symmetries")
+public class SymmetryTest {
+
+    /** Stones of the player to move */
+    private static long PLAYER = 0x0000001008000000L;
+
+    /** Stones of the opponent */
+    private static long OPPONENT = 0x0000000010300000L;
+
+
+    @Test()
+    @DisplayName("symmetric positions share a canonical key")
+    void SymmetricPositionsShareKey() {
+        long key = Symmetry.canonicalKey(PLAYER, OPPONENT);
+
+        for (int s = 0; s < Symmetry.COUNT; s++) {
+            long player = Symmetry.apply(PLAYER, s);
+            long opponent = Symmetry.apply(OPPONENT, s);
+            assertEquals(key, Symmetry.canonicalKey(player, opponent));
+        }
+
+        assertNotEquals(key, Symmetry.canonicalKey(OPPONENT, PLAYER));
+    }
+}